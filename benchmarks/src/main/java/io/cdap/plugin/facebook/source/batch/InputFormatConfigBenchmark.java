@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import org.apache.hadoop.conf.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round trip of configuration through the input format configuration: serialization by
+ * {@link FacebookInputFormatProvider} when the run is prepared, deserialization of whole configuration by split
+ * planner and deserialization of query plan and reader properties by record reader of each split.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputFormatConfigBenchmark {
+  private FacebookBatchSourceConfig config;
+  private DateRange timeRange;
+  private Configuration conf;
+
+  @Setup
+  public void setup() {
+    config = FacebookBatchSourceConfig.builder()
+      .setReferenceName("benchmark")
+      .setAccessToken("EAAB" + new String(new char[180]).replace('\0', 'x'))
+      .setObjectType("Account")
+      .setAccountId("act_1234567890")
+      .setFields("date_start,date_stop,campaign_id,campaign_name,impressions,clicks,spend,reach,cpc,cpm,ctr,actions")
+      .setLevel("campaign")
+      .setFiltering("ACTIVE:EQUAL(campaign.effective_status)")
+      .setDatePreset("last_30d")
+      .setBreakdown("age, gender *")
+      .setTimeSlice("day")
+      .setSchemaMode("typed")
+      .build();
+    timeRange = new DateRange(LocalDate.of(2020, 3, 1), LocalDate.of(2020, 3, 30));
+    conf = new Configuration(false);
+    serialize().forEach(conf::set);
+  }
+
+  @Benchmark
+  public Map<String, String> serialize() {
+    return new FacebookInputFormatProvider(config, timeRange).getInputFormatConfiguration();
+  }
+
+  @Benchmark
+  public FacebookBatchSourceConfig deserializeForPlanner() {
+    return FacebookInputFormatProvider.getConfig(conf);
+  }
+
+  @Benchmark
+  public void deserializeForReader(Blackhole blackhole) {
+    blackhole.consume(FacebookInputFormatProvider.getReaderConfig(conf));
+    blackhole.consume(FacebookInputFormatProvider.getQueryPlan(conf));
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common;
+
+import com.facebook.ads.sdk.APIContext;
+import com.facebook.ads.sdk.AdsInsights;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.facebook.source.common.config.SchemaMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures transformation of a page of insights to records, from SDK objects and directly from json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsightsTransformBenchmark {
+  static final List<String> NARROW_FIELDS = Arrays.asList("date_start", "date_stop", "impressions", "clicks", "spend");
+  static final List<String> WIDE_FIELDS = Arrays.asList(
+    "date_start", "date_stop", "account_id", "account_name", "campaign_id", "campaign_name", "adset_id", "adset_name",
+    "ad_id", "ad_name", "objective", "buying_type", "impressions", "clicks", "spend", "reach", "frequency", "cpc",
+    "cpm", "cpp", "ctr", "unique_clicks", "unique_ctr", "inline_link_clicks", "inline_post_engagement",
+    "cost_per_inline_link_click", "cost_per_unique_click", "social_spend", "website_clicks", "full_view_impressions"
+  );
+  static final List<String> ACTION_FIELDS = Arrays.asList("actions", "action_values", "cost_per_action_type");
+  private static final int PAGE_SIZE = 100;
+  private static final int ACTIONS_PER_FIELD = 8;
+
+  @Param({"narrow", "wide"})
+  public String fieldSet;
+
+  @Param({"false", "true"})
+  public boolean actions;
+
+  @Param({"strings", "typed"})
+  public String schemaMode;
+
+  private InsightsRecordPlan plan;
+  private List<AdsInsights> insights;
+  private String pageJson;
+
+  @Setup
+  public void setup() {
+    List<String> fields = new ArrayList<>("wide".equals(fieldSet) ? WIDE_FIELDS : NARROW_FIELDS);
+    if (actions) {
+      fields.addAll(ACTION_FIELDS);
+    }
+    Schema schema = SchemaHelper.buildSchema(fields, null, SchemaMode.fromString(schemaMode));
+    plan = InsightsRecordPlan.compile(schema);
+
+    APIContext context = new APIContext("token");
+    JsonArray data = new JsonArray();
+    insights = new ArrayList<>(PAGE_SIZE);
+    for (int row = 0; row < PAGE_SIZE; row++) {
+      JsonObject object = createInsights(fields, row);
+      data.add(object);
+      insights.add(AdsInsights.loadJSON(object.toString(), context, null));
+    }
+    JsonObject page = new JsonObject();
+    page.add("data", data);
+    pageJson = page.toString();
+  }
+
+  /**
+   * Transforms insights parsed by SDK, as asynchronous and batched requests do.
+   */
+  @Benchmark
+  public List<StructuredRecord> transformSdkPage() {
+    List<StructuredRecord> records = new ArrayList<>(insights.size());
+    for (AdsInsights item : insights) {
+      records.add(AdsInsightsTransformer.transform(item, plan));
+    }
+    return records;
+  }
+
+  /**
+   * Parses page json directly to records, as synchronous requests do.
+   */
+  @Benchmark
+  public InsightsPage parseJsonPage() throws IOException {
+    return InsightsJsonParser.parsePage(new StringReader(pageJson), plan);
+  }
+
+  static JsonObject createInsights(List<String> fields, int row) {
+    JsonObject object = new JsonObject();
+    for (String field : fields) {
+      if (ACTION_FIELDS.contains(field)) {
+        JsonArray stats = new JsonArray();
+        for (int i = 0; i < ACTIONS_PER_FIELD; i++) {
+          JsonObject stat = new JsonObject();
+          stat.addProperty("action_type", "offsite_conversion.fb_pixel_" + i);
+          stat.addProperty("value", String.valueOf(row * 7 + i));
+          stats.add(stat);
+        }
+        object.add(field, stats);
+      } else if (field.startsWith("date_")) {
+        object.addProperty(field, "2020-03-" + (10 + row % 20));
+      } else if (field.endsWith("_id")) {
+        object.addProperty(field, String.valueOf(23843000000000000L + row));
+      } else if (field.endsWith("_name") || "objective".equals(field) || "buying_type".equals(field)) {
+        object.addProperty(field, field + " " + row);
+      } else {
+        object.addProperty(field, String.valueOf(row * 13.37));
+      }
+    }
+    return object;
+  }
+}
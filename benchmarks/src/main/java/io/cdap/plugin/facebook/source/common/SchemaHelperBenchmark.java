@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common;
+
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.facebook.source.common.config.Breakdowns;
+import io.cdap.plugin.facebook.source.common.config.SchemaMode;
+import io.cdap.plugin.facebook.source.common.config.SourceConfigHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building of output schema. Built schemas are cached, so {@link #buildSchema()} measures the cache lookup
+ * configure and prepare stages hit, {@link #fromNameWide(Blackhole)} measures the work done on a cache miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaHelperBenchmark {
+  private List<String> fields;
+  private Breakdowns breakdowns;
+
+  @Setup
+  public void setup() {
+    fields = new ArrayList<>(InsightsTransformBenchmark.WIDE_FIELDS);
+    fields.addAll(InsightsTransformBenchmark.ACTION_FIELDS);
+    breakdowns = SourceConfigHelper.parseBreakdowns("age, gender *");
+  }
+
+  @Benchmark
+  public Schema buildSchema() {
+    return SchemaHelper.buildSchema(fields, breakdowns, SchemaMode.Typed);
+  }
+
+  @Benchmark
+  public void fromNameWide(Blackhole blackhole) {
+    for (String field : fields) {
+      blackhole.consume(SchemaHelper.fromName(field, SchemaMode.Typed));
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of breakdowns and filtering items of configuration.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SourceConfigHelperBenchmark {
+
+  @Benchmark
+  public Breakdowns parseBreakdowns(BreakdownState state) {
+    return SourceConfigHelper.parseBreakdowns(state.breakdown);
+  }
+
+  @Benchmark
+  public Filter parseFilteringItem(FilteringState state) {
+    return SourceConfigHelper.parseFilteringItem(state.filteringItem);
+  }
+
+  /**
+   * Breakdowns matched early and late by the switch of known breakdowns.
+   */
+  @State(Scope.Benchmark)
+  public static class BreakdownState {
+    @Param({"action_type *", "publisher_platform, platform_position, impression_device *", "dma"})
+    public String breakdown;
+  }
+
+  /**
+   * Filtering items with short and long values.
+   */
+  @State(Scope.Benchmark)
+  public static class FilteringState {
+    @Param({"ACTIVE:EQUAL(campaign.effective_status)", "[\"23843\",\"23844\",\"23845\"]:NOT_IN(adset.id)"})
+    public String filteringItem;
+  }
+}
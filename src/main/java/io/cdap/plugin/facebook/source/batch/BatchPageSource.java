@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import com.facebook.ads.sdk.APIException;
+import com.facebook.ads.sdk.APINodeList;
+import com.facebook.ads.sdk.AdsInsights;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.plugin.facebook.source.common.InsightsRecordPlan;
+import io.cdap.plugin.facebook.source.common.requests.InsightsRequestBatch;
+import io.cdap.plugin.facebook.source.common.requests.Retryer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Returns pages of several requests one after another. First pages of requests are fetched by batch requests,
+ * one batch at a time, next pages of each request are fetched separately.
+ */
+public class BatchPageSource implements PageSource {
+  private final Iterator<InsightsRequestBatch> batches;
+  private final Retryer retryer;
+  private final InsightsRecordPlan plan;
+  private Iterator<APINodeList<AdsInsights>> firstPages = Collections.emptyIterator();
+  private APINodeList<AdsInsights> currentPage;
+  private boolean returnedPages;
+  private volatile int completedRequests;
+
+  public BatchPageSource(List<InsightsRequestBatch> batches, Retryer retryer, InsightsRecordPlan plan) {
+    this.batches = batches.iterator();
+    this.retryer = retryer;
+    this.plan = plan;
+  }
+
+  @Nullable
+  @Override
+  public List<StructuredRecord> nextPage() throws IOException {
+    try {
+      if (currentPage != null) {
+        currentPage = retryer.call(currentPage::nextPage);
+        if (currentPage != null) {
+          return SequentialPageSource.transform(currentPage, plan);
+        }
+        completedRequests++;
+      }
+      while (!firstPages.hasNext()) {
+        if (!batches.hasNext()) {
+          return null;
+        }
+        InsightsRequestBatch batch = batches.next();
+        firstPages = (returnedPages ? retryer.call(batch::execute) : retryer.callFirst(batch::execute)).iterator();
+      }
+      currentPage = firstPages.next();
+      returnedPages = true;
+      return SequentialPageSource.transform(currentPage, plan);
+    } catch (APIException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public int getCompletedRequests() {
+    return completedRequests;
+  }
+
+  @Override
+  public void close() {
+
+  }
+}
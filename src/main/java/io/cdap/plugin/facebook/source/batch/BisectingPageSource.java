@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import com.facebook.ads.sdk.APIException;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.plugin.facebook.source.common.requests.Retryer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Reads split part by part, each part by a source of its own. Part, which request failed as too large before any of
+ * its pages was returned, is cut by {@link SplitBisector} and its parts are read instead. Part failed after its pages
+ * were returned is not cut, as returned rows would be read again.
+ */
+public class BisectingPageSource implements PageSource {
+  private static final Logger LOG = LoggerFactory.getLogger(BisectingPageSource.class);
+
+  /**
+   * Creates source of pages of split part.
+   */
+  public interface PartSourceFactory {
+
+    /**
+     * Creates source.
+     * @param part The part of split
+     * @return The source of part pages
+     * @throws IOException if source can't be created
+     */
+    PageSource create(FacebookSplit part) throws IOException;
+  }
+
+  private final SplitBisector bisector;
+  private final PartSourceFactory sourceFactory;
+  private final int requests;
+  private final Deque<Part> parts = new ArrayDeque<>();
+  private volatile Part currentPart;
+  private volatile PageSource currentSource;
+  private boolean currentReturnedPages;
+  private volatile double completedShare;
+
+  /**
+   * Constructor for BisectingPageSource object, split is cut within limits known from previous runs.
+   * @param split The split
+   * @param bisector The bisector of split
+   * @param sourceFactory The factory of sources of split parts
+   * @throws IOException if split can't be cut
+   */
+  public BisectingPageSource(FacebookSplit split, SplitBisector bisector,
+                             PartSourceFactory sourceFactory) throws IOException {
+    this.bisector = bisector;
+    this.sourceFactory = sourceFactory;
+    this.requests = Math.max(split.getObjectIds().size(), 1);
+    List<FacebookSplit> initialParts = bisector.subdivide();
+    initialParts.forEach(part -> parts.add(new Part(part, 1.0 / initialParts.size())));
+  }
+
+  @Nullable
+  @Override
+  public List<StructuredRecord> nextPage() throws IOException {
+    while (true) {
+      if (currentSource == null) {
+        Part part = parts.poll();
+        if (part == null) {
+          return null;
+        }
+        currentPart = part;
+        currentSource = sourceFactory.create(part.split);
+        currentReturnedPages = false;
+      }
+      List<StructuredRecord> page;
+      try {
+        page = currentSource.nextPage();
+      } catch (IOException e) {
+        if (currentReturnedPages || !isTooLarge(e)) {
+          throw e;
+        }
+        List<FacebookSplit> halves = bisector.bisect(currentPart.split);
+        if (halves.isEmpty()) {
+          throw e;
+        }
+        LOG.info("Request of {} is too large, reading it in parts {}.", currentPart.split, halves);
+        for (int i = halves.size() - 1; i >= 0; i--) {
+          parts.addFirst(new Part(halves.get(i), currentPart.share / halves.size()));
+        }
+        closeCurrentSource();
+        continue;
+      }
+      if (page == null) {
+        completedShare += currentPart.share;
+        closeCurrentSource();
+        continue;
+      }
+      currentReturnedPages = true;
+      return page;
+    }
+  }
+
+  private static boolean isTooLarge(IOException e) {
+    for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof APIException) {
+        return Retryer.isTooLarge((APIException) cause);
+      }
+    }
+    return false;
+  }
+
+  private void closeCurrentSource() throws IOException {
+    PageSource source = currentSource;
+    currentSource = null;
+    source.close();
+  }
+
+  /**
+   * Returns number of completed requests of split, requests of cut parts count by their share.
+   */
+  @Override
+  public int getCompletedRequests() {
+    Part part = currentPart;
+    PageSource source = currentSource;
+    double share = completedShare;
+    if (part != null && source != null) {
+      share += part.share * source.getCompletedRequests() / Math.max(part.split.getObjectIds().size(), 1);
+    }
+    return (int) Math.round(share * requests);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (currentSource != null) {
+      closeCurrentSource();
+    }
+  }
+
+  /**
+   * Part of split and its share of split rows.
+   */
+  private static class Part {
+    private final FacebookSplit split;
+    private final double share;
+
+    private Part(FacebookSplit split, double share) {
+      this.split = split;
+      this.share = share;
+    }
+  }
+}
@@ -16,7 +16,6 @@
 
 package io.cdap.plugin.facebook.source.batch;
 
-import com.facebook.ads.sdk.AdsInsights;
 import com.google.common.base.Preconditions;
 import io.cdap.cdap.api.annotation.Description;
 import io.cdap.cdap.api.annotation.Name;
@@ -28,13 +27,26 @@ import io.cdap.cdap.api.dataset.lib.KeyValue;
 import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.cdap.etl.api.PipelineConfigurer;
+import io.cdap.cdap.etl.api.StageMetrics;
+import io.cdap.cdap.etl.api.batch.BatchRuntimeContext;
 import io.cdap.cdap.etl.api.batch.BatchSource;
 import io.cdap.cdap.etl.api.batch.BatchSourceContext;
 import io.cdap.plugin.common.IdUtils;
 import io.cdap.plugin.common.LineageRecorder;
-import io.cdap.plugin.facebook.source.common.AdsInsightsTransformer;
+import io.cdap.plugin.common.batch.JobUtils;
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.SourceConfigHelper;
+import io.cdap.plugin.facebook.source.common.metrics.InsightsMetrics;
+import io.cdap.plugin.facebook.source.common.requests.InsightsRequestFactory;
+import io.cdap.plugin.facebook.source.common.requests.ResponseCache;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.NullWritable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -43,10 +55,21 @@ import java.util.stream.Collectors;
 @Plugin(type = BatchSource.PLUGIN_TYPE)
 @Name(FacebookBatchSource.NAME)
 @Description("Reads data from Facebook Insights API.")
-public class FacebookBatchSource extends BatchSource<NullWritable, AdsInsights, StructuredRecord> {
+public class FacebookBatchSource extends BatchSource<NullWritable, StructuredRecord, StructuredRecord> {
   public static final String NAME = "FacebookAds";
 
+  private static final Logger LOG = LoggerFactory.getLogger(FacebookBatchSource.class);
+
+  private static final long METRICS_FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
   private final FacebookBatchSourceConfig config;
+  private StageMetrics stageMetrics;
+  private InsightsMetrics metrics;
+  private long lastFlushNanos;
+  private Configuration conf;
+  private LocalDate runDate;
+  private LocalDate watermark;
+  private DateRange deltaRange;
 
   public FacebookBatchSource(FacebookBatchSourceConfig config) {
     this.config = config;
@@ -60,8 +83,10 @@ public class FacebookBatchSource extends BatchSource<NullWritable, AdsInsights,
   }
 
   @Override
-  public void prepareRun(BatchSourceContext batchSourceContext) {
+  public void prepareRun(BatchSourceContext batchSourceContext) throws IOException {
     validateConfiguration(batchSourceContext.getFailureCollector());
+    // configuration of the cluster, which is used to access directories of the source by driver
+    conf = JobUtils.createInstance().getConfiguration();
     LineageRecorder lineageRecorder = new LineageRecorder(batchSourceContext, config.referenceName);
     lineageRecorder.createExternalDataset(config.getSchema());
     lineageRecorder.recordRead("Read", "Reading Facebook Insights",
@@ -69,12 +94,114 @@ public class FacebookBatchSource extends BatchSource<NullWritable, AdsInsights,
                                  .map(Schema.Field::getName)
                                  .collect(Collectors.toList()));
 
-    batchSourceContext.setInput(Input.of(config.referenceName, new FacebookInputFormatProvider(config)));
+    evictResponseCache();
+    // resolved once, so planner and readers in other time zones resolve date preset to the same days
+    runDate = LocalDate.now(config.getTimeZone());
+    String runKey = InsightsMetrics.getRunKey(batchSourceContext);
+    if (config.isIncremental()) {
+      batchSourceContext.setInput(Input.of(config.referenceName, prepareIncrementalRun(runKey)));
+    } else {
+      batchSourceContext.setInput(Input.of(config.referenceName,
+                                           new FacebookInputFormatProvider(config, runDate, runKey)));
+    }
+  }
+
+  /**
+   * Resolves range of days, which are requested by incremental run, from configured date preset and watermark of
+   * the previous run.
+   */
+  private FacebookInputFormatProvider prepareIncrementalRun(String runKey) throws IOException {
+    DateRange configuredRange = SourceConfigHelper.resolveDatePreset(config.getDatePreset(), runDate);
+    watermark = createWatermarkStore().read(config.getObjectType(), config.getObjectId());
+    deltaRange = WatermarkStore.getDeltaRange(configuredRange, watermark, config.getLookbackDays());
+    LOG.info("Incremental run of {} '{}' with watermark {} requests {}.", config.getObjectType(),
+             config.getObjectId(), watermark, deltaRange == null ? "nothing" : deltaRange);
+    return new FacebookInputFormatProvider(config, runDate, runKey, deltaRange);
+  }
+
+  private void evictResponseCache() {
+    ResponseCache cache = InsightsRequestFactory.createResponseCache(config, conf);
+    if (cache == null) {
+      return;
+    }
+    try {
+      cache.evict();
+    } catch (IOException e) {
+      LOG.warn("Failed to evict response cache '{}'.", config.getCacheDirectory(), e);
+    }
+  }
+
+  @Override
+  public void onRunFinish(boolean succeeded, BatchSourceContext context) {
+    if (conf == null) {
+      // run failed before it was prepared
+      return;
+    }
+    if (config.getStatsDirectory() != null) {
+      mergeStats();
+    }
+    if (!succeeded || !config.isIncremental() || deltaRange == null) {
+      return;
+    }
+    LocalDate nextWatermark = WatermarkStore.getNextWatermark(deltaRange, watermark, runDate);
+    if (nextWatermark == null || nextWatermark.equals(watermark)) {
+      return;
+    }
+    try {
+      createWatermarkStore().write(config.getObjectType(), config.getObjectId(), nextWatermark);
+    } catch (IOException e) {
+      // extracted days are requested again by next run
+      LOG.warn("Failed to save watermark {} of {} '{}'.", nextWatermark, config.getObjectType(),
+               config.getObjectId(), e);
+    }
+  }
+
+  /**
+   * Merges statistics of splits read by this run, splits of failed run are merged as well.
+   */
+  private void mergeStats() {
+    try {
+      new StatsStore(config.getStatsDirectory(), conf).merge();
+    } catch (IOException e) {
+      // statistics are merged by next run
+      LOG.warn("Failed to merge statistics in '{}'.", config.getStatsDirectory(), e);
+    }
+  }
+
+  private WatermarkStore createWatermarkStore() {
+    return new WatermarkStore(config.getStateDirectory(), conf);
+  }
+
+  @Override
+  public void initialize(BatchRuntimeContext context) throws Exception {
+    super.initialize(context);
+    stageMetrics = context.getMetrics();
+    metrics = InsightsMetrics.forRun(InsightsMetrics.getRunKey(context));
+    lastFlushNanos = System.nanoTime();
+  }
+
+  @Override
+  public void transform(KeyValue<NullWritable, StructuredRecord> input, Emitter<StructuredRecord> emitter) {
+    long startNanos = System.nanoTime();
+    // records are built by record reader
+    emitter.emit(input.getValue());
+    long endNanos = System.nanoTime();
+    metrics.recordTransform(endNanos - startNanos);
+    // record reader and requests record metrics of this stage, they are published periodically
+    if (endNanos - lastFlushNanos >= METRICS_FLUSH_INTERVAL_NANOS) {
+      metrics.flush(stageMetrics);
+      lastFlushNanos = endNanos;
+    }
   }
 
   @Override
-  public void transform(KeyValue<NullWritable, AdsInsights> input, Emitter<StructuredRecord> emitter) {
-    emitter.emit(AdsInsightsTransformer.transform(input.getValue(), config.getSchema()));
+  public void destroy() {
+    if (metrics != null) {
+      metrics.flush(stageMetrics);
+      LOG.info("Facebook Insights read by '{}' in this run and executor: {}.", config.referenceName,
+               metrics.summary());
+    }
+    super.destroy();
   }
 
   private void validateConfiguration(FailureCollector failureCollector) {
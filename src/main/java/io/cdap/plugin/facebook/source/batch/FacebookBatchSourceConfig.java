@@ -22,7 +22,24 @@ import io.cdap.cdap.api.annotation.Macro;
 import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.plugin.facebook.source.common.config.BaseSourceConfig;
-
+import io.cdap.plugin.facebook.source.common.config.ExecutionMode;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import io.cdap.plugin.facebook.source.common.config.QueryPlan;
+import io.cdap.plugin.facebook.source.common.config.TimeSlice;
+import org.apache.hadoop.io.WritableUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import javax.annotation.Nullable;
 
 /**
@@ -31,6 +48,24 @@ import javax.annotation.Nullable;
 public class FacebookBatchSourceConfig extends BaseSourceConfig {
   public static final String PROPERTY_SORTING = "sorting";
   public static final String PROPERTY_SORT_DIRECTION = "sortDirection";
+  public static final String PROPERTY_TIME_SLICE = "timeSlice";
+  public static final String PROPERTY_TIME_ZONE = "timeZone";
+  public static final String PROPERTY_ENTITY_SPLIT = "entitySplit";
+  public static final String PROPERTY_ENTITIES_PER_SPLIT = "entitiesPerSplit";
+  public static final String PROPERTY_PREFETCH_DEPTH = "prefetchDepth";
+  public static final int DEFAULT_PREFETCH_DEPTH = 1;
+  public static final int MAX_PREFETCH_DEPTH = 10;
+  public static final String PROPERTY_MAX_RETRIES = "maxRetries";
+  public static final int DEFAULT_MAX_RETRIES = 5;
+  public static final String PROPERTY_STATE_DIRECTORY = "stateDirectory";
+  public static final String PROPERTY_LOOKBACK_DAYS = "lookbackDays";
+  public static final int DEFAULT_LOOKBACK_DAYS = 7;
+  public static final String PROPERTY_OBJECT_IDS = "objectIds";
+  public static final String PROPERTY_OBJECT_IDS_FILE = "objectIdsFile";
+  public static final String PROPERTY_SUBDIVISION_DIRECTORY = "subdivisionDirectory";
+  public static final String PROPERTY_STATS_DIRECTORY = "statsDirectory";
+  public static final String PROPERTY_TARGET_ROWS_PER_SPLIT = "targetRowsPerSplit";
+  private static final byte READER_PROPERTIES_VERSION = 5;
 
   @Name(PROPERTY_SORTING)
   @Description("Field name to sort results by.")
@@ -44,6 +79,95 @@ public class FacebookBatchSourceConfig extends BaseSourceConfig {
   @Macro
   protected String sortDirection;
 
+  @Name(PROPERTY_TIME_SLICE)
+  @Description("Length of time slices the time range is cut into. Each slice is requested in a separate split.")
+  @Nullable
+  @Macro
+  protected String timeSlice;
+
+  @Name(PROPERTY_TIME_ZONE)
+  @Description("Time zone of the current date, which date presets are resolved from, like 'America/Los_Angeles'. "
+    + "Should be the time zone of the ad account, since the API resolves presets in it. Time zone of the pipeline "
+    + "driver by default.")
+  @Nullable
+  @Macro
+  protected String timeZone;
+
+  @Name(PROPERTY_ENTITY_SPLIT)
+  @Description("Type of child objects to split the object by. Insights of each child are requested in a separate "
+    + "split.")
+  @Nullable
+  @Macro
+  protected String entitySplit;
+
+  @Name(PROPERTY_ENTITIES_PER_SPLIT)
+  @Description("Number of child objects, or average number of listed objects, queried in one split. Requests for "
+    + "objects of a split are sent in batches.")
+  @Nullable
+  @Macro
+  protected Integer entitiesPerSplit;
+
+  @Name(PROPERTY_PREFETCH_DEPTH)
+  @Description("Maximum number of pages fetched in background ahead of the page being read. 0 disables prefetching.")
+  @Nullable
+  @Macro
+  protected Integer prefetchDepth;
+
+  @Name(PROPERTY_MAX_RETRIES)
+  @Description("Maximum number of retries of request failed with temporary error. 0 disables retries.")
+  @Nullable
+  @Macro
+  protected Integer maxRetries;
+
+  @Name(PROPERTY_STATE_DIRECTORY)
+  @Description("Directory where the last extracted date of the object is kept. If set, only days after the last "
+    + "extracted date and lookback days before it are requested, one row per day.")
+  @Nullable
+  @Macro
+  protected String stateDirectory;
+
+  @Name(PROPERTY_LOOKBACK_DAYS)
+  @Description("Number of already extracted days requested again by incremental run, since recent days are "
+    + "restated by attribution.")
+  @Nullable
+  @Macro
+  protected Integer lookbackDays;
+
+  @Name(PROPERTY_OBJECT_IDS)
+  @Description("Comma separated ids of objects of the selected type, which are read instead of the single object. "
+    + "Objects are packed into splits balanced by estimated size.")
+  @Nullable
+  @Macro
+  protected String objectIds;
+
+  @Name(PROPERTY_OBJECT_IDS_FILE)
+  @Description("Path of file with ids of objects of the selected type, one per line, which are read instead of "
+    + "the single object.")
+  @Nullable
+  @Macro
+  protected String objectIdsFile;
+
+  @Name(PROPERTY_SUBDIVISION_DIRECTORY)
+  @Description("Directory where parts of splits, which requests failed as too large and were read in parts, are "
+    + "recorded. Next runs read these splits in the recorded parts right away.")
+  @Nullable
+  @Macro
+  protected String subdivisionDirectory;
+
+  @Name(PROPERTY_STATS_DIRECTORY)
+  @Description("Directory where rows, pages and request time of read objects per day are kept. Statistics are "
+    + "updated at the end of each run.")
+  @Nullable
+  @Macro
+  protected String statsDirectory;
+
+  @Name(PROPERTY_TARGET_ROWS_PER_SPLIT)
+  @Description("Number of rows a split should return, estimated from statistics of previous runs. If set, objects "
+    + "are packed into splits and time slices are sized toward it.")
+  @Nullable
+  @Macro
+  protected Integer targetRowsPerSplit;
+
   public FacebookBatchSourceConfig(String referenceName) {
     super(referenceName);
   }
@@ -64,6 +188,30 @@ public class FacebookBatchSourceConfig extends BaseSourceConfig {
     this.datePreset = builder.datePreset;
     this.breakdown = builder.breakdown;
     this.additionalBreakdown = builder.additionalBreakdown;
+    this.timeSlice = builder.timeSlice;
+    this.timeZone = builder.timeZone;
+    this.entitySplit = builder.entitySplit;
+    this.entitiesPerSplit = builder.entitiesPerSplit;
+    this.prefetchDepth = builder.prefetchDepth;
+    this.maxRetries = builder.maxRetries;
+    this.stateDirectory = builder.stateDirectory;
+    this.lookbackDays = builder.lookbackDays;
+    this.objectIds = builder.objectIds;
+    this.objectIdsFile = builder.objectIdsFile;
+    this.subdivisionDirectory = builder.subdivisionDirectory;
+    this.statsDirectory = builder.statsDirectory;
+    this.targetRowsPerSplit = builder.targetRowsPerSplit;
+    this.cacheDirectory = builder.cacheDirectory;
+    this.cacheTtlHours = builder.cacheTtlHours;
+    this.cacheMaxSizeMb = builder.cacheMaxSizeMb;
+    this.apiEndpoint = builder.apiEndpoint;
+    this.httpTransport = builder.httpTransport;
+    this.connectTimeoutSeconds = builder.connectTimeoutSeconds;
+    this.readTimeoutSeconds = builder.readTimeoutSeconds;
+    this.requestLogLevel = builder.requestLogLevel;
+    this.requestLogSampleRate = builder.requestLogSampleRate;
+    this.executionMode = builder.executionMode;
+    this.schemaMode = builder.schemaMode;
   }
 
   public static Builder builder() {
@@ -83,11 +231,416 @@ public class FacebookBatchSourceConfig extends BaseSourceConfig {
     }
   }
 
+  /**
+   * Adds sorting and, for incremental runs, which replace extracted rows day by day, daily time increment.
+   */
+  @Override
+  protected QueryPlan.Builder createQueryPlan() {
+    return super.createQueryPlan()
+      .setSorting(getSorting())
+      .setTimeIncrement(isIncremental() ? 1 : null);
+  }
+
+  /**
+   * Returns selected TimeSlice.
+   * @return The instance of TimeSlice
+   */
+  public TimeSlice getTimeSlice() {
+    if (Strings.isNullOrEmpty(timeSlice)) {
+      return TimeSlice.None;
+    }
+    return TimeSlice.fromString(timeSlice);
+  }
+
+  /**
+   * Returns time zone, in which the current date is determined.
+   * @return The configured time zone, default time zone of the JVM if it is not set
+   */
+  public ZoneId getTimeZone() {
+    return Strings.isNullOrEmpty(timeZone) ? ZoneId.systemDefault() : ZoneId.of(timeZone);
+  }
+
+  /**
+   * Returns type of child objects to split the object by.
+   * @return The instance of ObjectType, null if object is not split
+   */
+  @Nullable
+  public ObjectType getEntitySplit() {
+    if (Strings.isNullOrEmpty(entitySplit) || "none".equals(entitySplit)) {
+      return null;
+    }
+    return ObjectType.fromString(entitySplit);
+  }
+
+  public int getEntitiesPerSplit() {
+    return entitiesPerSplit == null ? 1 : entitiesPerSplit;
+  }
+
+  public int getPrefetchDepth() {
+    return prefetchDepth == null ? DEFAULT_PREFETCH_DEPTH : prefetchDepth;
+  }
+
+  public int getMaxRetries() {
+    return maxRetries == null ? DEFAULT_MAX_RETRIES : maxRetries;
+  }
+
+  @Nullable
+  public String getStateDirectory() {
+    return Strings.isNullOrEmpty(stateDirectory) ? null : stateDirectory;
+  }
+
+  /**
+   * Returns whether only days, which were not extracted yet, are requested.
+   * @return true if state directory is set
+   */
+  public boolean isIncremental() {
+    return getStateDirectory() != null;
+  }
+
+  public int getLookbackDays() {
+    return lookbackDays == null ? DEFAULT_LOOKBACK_DAYS : lookbackDays;
+  }
+
+  /**
+   * Returns ids of objects listed in properties.
+   * @return The distinct ids in configured order, empty if the single object is read or ids are read from file
+   */
+  public List<String> getObjectIds() {
+    return Strings.isNullOrEmpty(objectIds) ? Collections.emptyList() : parseObjectIds(objectIds);
+  }
+
+  @Nullable
+  public String getObjectIdsFile() {
+    return Strings.isNullOrEmpty(objectIdsFile) ? null : objectIdsFile;
+  }
+
+  @Nullable
+  public String getSubdivisionDirectory() {
+    return Strings.isNullOrEmpty(subdivisionDirectory) ? null : subdivisionDirectory;
+  }
+
+  @Nullable
+  public String getStatsDirectory() {
+    return Strings.isNullOrEmpty(statsDirectory) ? null : statsDirectory;
+  }
+
+  /**
+   * Returns number of rows splits are sized toward.
+   * @return The number of rows, 0 if splits are not sized by statistics
+   */
+  public int getTargetRowsPerSplit() {
+    return targetRowsPerSplit == null ? 0 : targetRowsPerSplit;
+  }
+
+  /**
+   * Returns whether list of objects is read instead of the single object.
+   * @return true if object ids or file of object ids is set
+   */
+  public boolean isMultiObject() {
+    return !getObjectIds().isEmpty() || getObjectIdsFile() != null;
+  }
+
+  /**
+   * Parses ids separated by commas or whitespace, lines starting with '#' are skipped.
+   * @param value The ids
+   * @return The distinct ids in order of appearance
+   */
+  public static List<String> parseObjectIds(String value) {
+    Set<String> ids = new LinkedHashSet<>();
+    for (String line : value.split("\\r?\\n")) {
+      if (line.trim().startsWith("#")) {
+        continue;
+      }
+      for (String id : line.split("[,\\s]+")) {
+        if (!id.isEmpty()) {
+          ids.add(id);
+        }
+      }
+    }
+    return new ArrayList<>(ids);
+  }
+
+  /**
+   * Serializes properties used by record readers to compact versioned binary form, the query is serialized
+   * separately by {@link QueryPlan}. Access token is not included, it is passed in its own property.
+   * @return The bytes
+   */
+  byte[] serializeReaderProperties() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(READER_PROPERTIES_VERSION);
+      WritableUtils.writeString(out, referenceName);
+      WritableUtils.writeString(out, objectType);
+      WritableUtils.writeString(out, adId);
+      WritableUtils.writeString(out, adSetId);
+      WritableUtils.writeString(out, campaignId);
+      WritableUtils.writeString(out, accountId);
+      WritableUtils.writeString(out, executionMode);
+      WritableUtils.writeVInt(out, getPrefetchDepth());
+      WritableUtils.writeVInt(out, getMaxRetries());
+      WritableUtils.writeString(out, cacheDirectory);
+      WritableUtils.writeVInt(out, getCacheTtlHours());
+      WritableUtils.writeVInt(out, getCacheMaxSizeMb());
+      WritableUtils.writeString(out, apiEndpoint);
+      WritableUtils.writeString(out, subdivisionDirectory);
+      WritableUtils.writeString(out, statsDirectory);
+      WritableUtils.writeString(out, httpTransport);
+      WritableUtils.writeVInt(out, getConnectTimeoutSeconds());
+      WritableUtils.writeVInt(out, getReadTimeoutSeconds());
+      WritableUtils.writeString(out, requestLogLevel);
+      out.writeDouble(getRequestLogSampleRate());
+    } catch (IOException e) {
+      // in-memory stream doesn't fail
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Deserializes properties written by {@link #serializeReaderProperties()}.
+   * @param bytes The bytes
+   * @param accessToken The access token
+   * @return The configuration with reader properties set, other properties are not set
+   */
+  static FacebookBatchSourceConfig deserializeReaderProperties(byte[] bytes, String accessToken) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      byte version = in.readByte();
+      if (version != READER_PROPERTIES_VERSION) {
+        throw new IllegalArgumentException(String.format("Unsupported reader properties version %d.", version));
+      }
+      return builder()
+        .setAccessToken(accessToken)
+        .setReferenceName(WritableUtils.readString(in))
+        .setObjectType(WritableUtils.readString(in))
+        .setAdId(WritableUtils.readString(in))
+        .setAdSetId(WritableUtils.readString(in))
+        .setCampaignId(WritableUtils.readString(in))
+        .setAccountId(WritableUtils.readString(in))
+        .setExecutionMode(WritableUtils.readString(in))
+        .setPrefetchDepth(WritableUtils.readVInt(in))
+        .setMaxRetries(WritableUtils.readVInt(in))
+        .setCacheDirectory(WritableUtils.readString(in))
+        .setCacheTtlHours(WritableUtils.readVInt(in))
+        .setCacheMaxSizeMb(WritableUtils.readVInt(in))
+        .setApiEndpoint(WritableUtils.readString(in))
+        .setSubdivisionDirectory(WritableUtils.readString(in))
+        .setStatsDirectory(WritableUtils.readString(in))
+        .setHttpTransport(WritableUtils.readString(in))
+        .setConnectTimeoutSeconds(WritableUtils.readVInt(in))
+        .setReadTimeoutSeconds(WritableUtils.readVInt(in))
+        .setRequestLogLevel(WritableUtils.readString(in))
+        .setRequestLogSampleRate(in.readDouble())
+        .build();
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to read reader properties.", e);
+    }
+  }
+
   @Override
   public void validate(FailureCollector failureCollector) {
     super.validate(failureCollector);
 
     validateSorting(failureCollector);
+    validateTimeSlice(failureCollector);
+    validateTimeZone(failureCollector);
+    validateEntitySplit(failureCollector);
+    validateEntitiesPerSplit(failureCollector);
+    validatePrefetchDepth(failureCollector);
+    validateMaxRetries(failureCollector);
+    validateIncremental(failureCollector);
+    validateObjectIds(failureCollector);
+    validateTargetRowsPerSplit(failureCollector);
+  }
+
+  /**
+   * Single object id is not required when list of objects is read.
+   */
+  @Override
+  protected void validateObjectId(FailureCollector failureCollector) {
+    if (containsMacro(PROPERTY_OBJECT_IDS) || containsMacro(PROPERTY_OBJECT_IDS_FILE) || isMultiObject()) {
+      return;
+    }
+    super.validateObjectId(failureCollector);
+  }
+
+  void validateObjectIds(FailureCollector failureCollector) {
+    if (containsMacro(PROPERTY_OBJECT_IDS) || containsMacro(PROPERTY_OBJECT_IDS_FILE)) {
+      return;
+    }
+    if (!getObjectIds().isEmpty() && getObjectIdsFile() != null) {
+      failureCollector
+        .addFailure("Object ids and file of object ids can't be set both.", "Remove one of them.")
+        .withConfigProperty(PROPERTY_OBJECT_IDS_FILE);
+    }
+    if (!isMultiObject()) {
+      return;
+    }
+    if (!containsMacro(PROPERTY_ENTITY_SPLIT) && !Strings.isNullOrEmpty(entitySplit) && !"none".equals(entitySplit)) {
+      failureCollector
+        .addFailure("List of objects can't be split by entity.", "Set split by entity to 'none'.")
+        .withConfigProperty(PROPERTY_ENTITY_SPLIT);
+    }
+    if (!containsMacro(PROPERTY_STATE_DIRECTORY) && isIncremental()) {
+      failureCollector
+        .addFailure("List of objects can't be extracted incrementally.", "Remove state directory.")
+        .withConfigProperty(PROPERTY_STATE_DIRECTORY);
+    }
+  }
+
+  void validateTargetRowsPerSplit(FailureCollector failureCollector) {
+    if (containsMacro(PROPERTY_TARGET_ROWS_PER_SPLIT) || targetRowsPerSplit == null) {
+      return;
+    }
+    if (targetRowsPerSplit < 1) {
+      failureCollector
+        .addFailure(String.format("'%d' is invalid target number of rows per split.", targetRowsPerSplit),
+                    "Set positive number.")
+        .withConfigProperty(PROPERTY_TARGET_ROWS_PER_SPLIT);
+    }
+    if (!containsMacro(PROPERTY_STATS_DIRECTORY) && getStatsDirectory() == null) {
+      failureCollector
+        .addFailure("Splits can't be sized without statistics.", "Set stats directory.")
+        .withConfigProperty(PROPERTY_STATS_DIRECTORY);
+    }
+  }
+
+  void validateIncremental(FailureCollector failureCollector) {
+    if (!containsMacro(PROPERTY_LOOKBACK_DAYS) && getLookbackDays() < 0) {
+      failureCollector
+        .addFailure(String.format("'%d' is invalid number of lookback days.", getLookbackDays()),
+                    "Set non-negative number.")
+        .withConfigProperty(PROPERTY_LOOKBACK_DAYS);
+    }
+    if (!containsMacro(PROPERTY_STATE_DIRECTORY) && isIncremental()
+      && !containsMacro(PROPERTY_DATE_PRESET) && "lifetime".equals(datePreset)) {
+      failureCollector
+        .addFailure("'lifetime' time range can't be extracted incrementally.", "Select time range with fixed start.")
+        .withConfigProperty(PROPERTY_STATE_DIRECTORY);
+    }
+  }
+
+  void validateMaxRetries(FailureCollector failureCollector) {
+    if (!containsMacro(PROPERTY_MAX_RETRIES) && getMaxRetries() < 0) {
+      failureCollector
+        .addFailure(String.format("'%d' is invalid number of retries.", getMaxRetries()), "Set non-negative number.")
+        .withConfigProperty(PROPERTY_MAX_RETRIES);
+    }
+  }
+
+  void validateEntitiesPerSplit(FailureCollector failureCollector) {
+    if (containsMacro(PROPERTY_ENTITIES_PER_SPLIT)) {
+      return;
+    }
+    if (getEntitiesPerSplit() < 1) {
+      failureCollector
+        .addFailure(String.format("'%d' is invalid number of entities per split.", getEntitiesPerSplit()),
+                    "Set positive number.")
+        .withConfigProperty(PROPERTY_ENTITIES_PER_SPLIT);
+    } else if (getEntitiesPerSplit() > 1 && !containsMacro(PROPERTY_EXECUTION_MODE)) {
+      try {
+        if (getExecutionMode() == ExecutionMode.Async) {
+          failureCollector
+            .addFailure("Asynchronous requests can't be batched.",
+                        "Set entities per split to 1 or use synchronous execution mode.")
+            .withConfigProperty(PROPERTY_ENTITIES_PER_SPLIT);
+        }
+      } catch (IllegalArgumentException ex) {
+        // execution mode is validated separately
+      }
+    }
+  }
+
+  void validatePrefetchDepth(FailureCollector failureCollector) {
+    if (!containsMacro(PROPERTY_PREFETCH_DEPTH)
+      && (getPrefetchDepth() < 0 || getPrefetchDepth() > MAX_PREFETCH_DEPTH)) {
+      failureCollector
+        .addFailure(String.format("'%d' is invalid prefetch depth.", getPrefetchDepth()),
+                    String.format("Set prefetch depth between 0 and %d.", MAX_PREFETCH_DEPTH))
+        .withConfigProperty(PROPERTY_PREFETCH_DEPTH);
+    }
+  }
+
+  void validateTimeZone(FailureCollector failureCollector) {
+    if (containsMacro(PROPERTY_TIME_ZONE)) {
+      return;
+    }
+    try {
+      getTimeZone();
+    } catch (DateTimeException e) {
+      failureCollector
+        .addFailure(String.format("'%s' is invalid time zone.", timeZone), "Enter time zone id like 'Europe/Paris'.")
+        .withConfigProperty(PROPERTY_TIME_ZONE);
+    }
+  }
+
+  void validateTimeSlice(FailureCollector failureCollector) {
+    if (containsMacro(PROPERTY_TIME_SLICE)) {
+      return;
+    }
+    try {
+      if (getTimeSlice() != TimeSlice.None && !containsMacro(PROPERTY_DATE_PRESET) && "lifetime".equals(datePreset)) {
+        failureCollector
+          .addFailure("'lifetime' time range can't be sliced.", "Select time range with fixed start.")
+          .withConfigProperty(PROPERTY_TIME_SLICE);
+      }
+    } catch (IllegalArgumentException ex) {
+      failureCollector
+        .addFailure(ex.getMessage(), "Choose one of 'none', 'day' or 'week'.")
+        .withConfigProperty(PROPERTY_TIME_SLICE);
+    }
+  }
+
+  void validateEntitySplit(FailureCollector failureCollector) {
+    if (containsMacro(PROPERTY_ENTITY_SPLIT)) {
+      return;
+    }
+    ObjectType childType;
+    try {
+      childType = getEntitySplit();
+    } catch (IllegalArgumentException ex) {
+      failureCollector
+        .addFailure(ex.getMessage(), "Choose one of 'none', 'Campaign' or 'Ad Set'.")
+        .withConfigProperty(PROPERTY_ENTITY_SPLIT);
+      return;
+    }
+    if (childType == null) {
+      return;
+    }
+    if (childType != ObjectType.Campaign && childType != ObjectType.AdSet) {
+      failureCollector
+        .addFailure(String.format("Split by '%s' is not supported.", entitySplit), "Choose 'Campaign' or 'Ad Set'.")
+        .withConfigProperty(PROPERTY_ENTITY_SPLIT);
+      return;
+    }
+    if (!containsMacro(PROPERTY_OBJECT_TYPE)) {
+      try {
+        if (!getObjectType().contains(childType)) {
+          failureCollector
+            .addFailure(String.format("'%s' can't be split by '%s'.", objectType, entitySplit),
+                        "Choose type of objects, which belong to selected object.")
+            .withConfigProperty(PROPERTY_ENTITY_SPLIT);
+          return;
+        }
+      } catch (IllegalArgumentException ex) {
+        // object type is validated separately
+        return;
+      }
+    }
+    if (!containsMacro(PROPERTY_LEVEL)) {
+      // results are aggregated per split, so level must not be higher than split objects
+      ObjectType levelType;
+      try {
+        levelType = "default".equals(level) ? null : ObjectType.fromLevel(level);
+      } catch (IllegalArgumentException ex) {
+        levelType = null;
+      }
+      if (levelType == null || (levelType != childType && !childType.contains(levelType))) {
+        failureCollector
+          .addFailure(String.format("Level '%s' can't be used with split by '%s'.", level, entitySplit),
+                      "Set level to type of split objects or lower.")
+          .withConfigProperty(PROPERTY_LEVEL);
+      }
+    }
   }
 
   void validateSorting(FailureCollector failureCollector) {
@@ -124,6 +677,30 @@ public class FacebookBatchSourceConfig extends BaseSourceConfig {
     private String datePreset;
     private String breakdown;
     private String additionalBreakdown;
+    private String timeSlice;
+    private String timeZone;
+    private String entitySplit;
+    private Integer entitiesPerSplit;
+    private Integer prefetchDepth;
+    private Integer maxRetries;
+    private String stateDirectory;
+    private Integer lookbackDays;
+    private String objectIds;
+    private String objectIdsFile;
+    private String subdivisionDirectory;
+    private String statsDirectory;
+    private Integer targetRowsPerSplit;
+    private String cacheDirectory;
+    private Integer cacheTtlHours;
+    private Integer cacheMaxSizeMb;
+    private String apiEndpoint;
+    private String httpTransport;
+    private Integer connectTimeoutSeconds;
+    private Integer readTimeoutSeconds;
+    private String requestLogLevel;
+    private Double requestLogSampleRate;
+    private String executionMode;
+    private String schemaMode;
 
     private Builder() {
 
@@ -204,6 +781,126 @@ public class FacebookBatchSourceConfig extends BaseSourceConfig {
       return this;
     }
 
+    public Builder setTimeSlice(String timeSlice) {
+      this.timeSlice = timeSlice;
+      return this;
+    }
+
+    public Builder setTimeZone(String timeZone) {
+      this.timeZone = timeZone;
+      return this;
+    }
+
+    public Builder setEntitySplit(String entitySplit) {
+      this.entitySplit = entitySplit;
+      return this;
+    }
+
+    public Builder setEntitiesPerSplit(Integer entitiesPerSplit) {
+      this.entitiesPerSplit = entitiesPerSplit;
+      return this;
+    }
+
+    public Builder setPrefetchDepth(Integer prefetchDepth) {
+      this.prefetchDepth = prefetchDepth;
+      return this;
+    }
+
+    public Builder setMaxRetries(Integer maxRetries) {
+      this.maxRetries = maxRetries;
+      return this;
+    }
+
+    public Builder setExecutionMode(String executionMode) {
+      this.executionMode = executionMode;
+      return this;
+    }
+
+    public Builder setSchemaMode(String schemaMode) {
+      this.schemaMode = schemaMode;
+      return this;
+    }
+
+    public Builder setStateDirectory(String stateDirectory) {
+      this.stateDirectory = stateDirectory;
+      return this;
+    }
+
+    public Builder setLookbackDays(Integer lookbackDays) {
+      this.lookbackDays = lookbackDays;
+      return this;
+    }
+
+    public Builder setObjectIds(String objectIds) {
+      this.objectIds = objectIds;
+      return this;
+    }
+
+    public Builder setObjectIdsFile(String objectIdsFile) {
+      this.objectIdsFile = objectIdsFile;
+      return this;
+    }
+
+    public Builder setSubdivisionDirectory(String subdivisionDirectory) {
+      this.subdivisionDirectory = subdivisionDirectory;
+      return this;
+    }
+
+    public Builder setStatsDirectory(String statsDirectory) {
+      this.statsDirectory = statsDirectory;
+      return this;
+    }
+
+    public Builder setTargetRowsPerSplit(Integer targetRowsPerSplit) {
+      this.targetRowsPerSplit = targetRowsPerSplit;
+      return this;
+    }
+
+    public Builder setCacheDirectory(String cacheDirectory) {
+      this.cacheDirectory = cacheDirectory;
+      return this;
+    }
+
+    public Builder setCacheTtlHours(Integer cacheTtlHours) {
+      this.cacheTtlHours = cacheTtlHours;
+      return this;
+    }
+
+    public Builder setCacheMaxSizeMb(Integer cacheMaxSizeMb) {
+      this.cacheMaxSizeMb = cacheMaxSizeMb;
+      return this;
+    }
+
+    public Builder setApiEndpoint(String apiEndpoint) {
+      this.apiEndpoint = apiEndpoint;
+      return this;
+    }
+
+    public Builder setHttpTransport(String httpTransport) {
+      this.httpTransport = httpTransport;
+      return this;
+    }
+
+    public Builder setConnectTimeoutSeconds(Integer connectTimeoutSeconds) {
+      this.connectTimeoutSeconds = connectTimeoutSeconds;
+      return this;
+    }
+
+    public Builder setReadTimeoutSeconds(Integer readTimeoutSeconds) {
+      this.readTimeoutSeconds = readTimeoutSeconds;
+      return this;
+    }
+
+    public Builder setRequestLogLevel(String requestLogLevel) {
+      this.requestLogLevel = requestLogLevel;
+      return this;
+    }
+
+    public Builder setRequestLogSampleRate(Double requestLogSampleRate) {
+      this.requestLogSampleRate = requestLogSampleRate;
+      return this;
+    }
+
     public FacebookBatchSourceConfig build() {
       return new FacebookBatchSourceConfig(this);
     }
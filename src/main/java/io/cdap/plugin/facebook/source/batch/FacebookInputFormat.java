@@ -16,27 +16,37 @@
 
 package io.cdap.plugin.facebook.source.batch;
 
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.InputFormat;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 
-import java.util.Collections;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * InputFormat for mapreduce job, which provides a single split of data.
+ * InputFormat for mapreduce job, which provides splits planned by {@link FacebookSplitPlanner}.
  */
 public class FacebookInputFormat extends InputFormat {
-
   @Override
-  public List<InputSplit> getSplits(JobContext jobContext) {
-    /**
-     * TODO - Modify to Implement optimal split logic.
-     * JIRA - https://issues.cask.co/browse/PLUGIN-371
-     */
-    return Collections.singletonList(new FacebookSplit());
+  public List<InputSplit> getSplits(JobContext jobContext) throws IOException {
+    Configuration conf = jobContext.getConfiguration();
+    FacebookBatchSourceConfig config = FacebookInputFormatProvider.getConfig(conf);
+
+    String timeRange = conf.get(FacebookInputFormatProvider.PROPERTY_TIME_RANGE);
+    if (timeRange == null) {
+      return new ArrayList<>(
+        new FacebookSplitPlanner(config, conf, FacebookInputFormatProvider.getRunDate(conf)).plan());
+    }
+    if (timeRange.isEmpty()) {
+      // incremental run has nothing to read
+      return new ArrayList<>();
+    }
+    return new ArrayList<>(new FacebookSplitPlanner(config, conf, DateRange.parse(timeRange)).plan());
   }
 
   @Override
@@ -19,25 +19,102 @@ package io.cdap.plugin.facebook.source.batch;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
 import io.cdap.cdap.api.data.batch.InputFormatProvider;
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.QueryPlan;
+import io.cdap.plugin.facebook.source.common.metrics.InsightsMetrics;
+import org.apache.hadoop.conf.Configuration;
 
+import java.time.LocalDate;
+import java.util.Base64;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 /**
  * InputFormatProvider used by cdap to provide configurations to mapreduce job.
+ *
+ * Readers get query plan and the few properties they use in compact binary form, so starting a task doesn't parse
+ * the whole configuration. The whole configuration is only parsed once by split planner. Access token is kept in
+ * its own property and out of serialized configuration, but it is still stored in job configuration as plain text.
  */
 public class FacebookInputFormatProvider implements InputFormatProvider {
   public static final String PROPERTY_CONFIG_JSON = "cdap.facebook.ads.config";
+  public static final String PROPERTY_READER_CONFIG = "cdap.facebook.ads.reader.config";
+  public static final String PROPERTY_ACCESS_TOKEN = "cdap.facebook.ads.access.token";
+  public static final String PROPERTY_TIME_RANGE = "cdap.facebook.ads.time.range";
+  public static final String PROPERTY_QUERY_PLAN = "cdap.facebook.ads.query.plan";
+  public static final String PROPERTY_RUN_DATE = "cdap.facebook.ads.run.date";
+  private static final String ACCESS_TOKEN_FIELD = "accessToken";
   private static final Gson gson = new GsonBuilder().create();
   private final Map<String, String> conf;
 
 
-  FacebookInputFormatProvider(FacebookBatchSourceConfig config) {
-    this.conf = new ImmutableMap.Builder<String, String>()
-      .put(PROPERTY_CONFIG_JSON, gson.toJson(config))
+  /**
+   * Creates provider, which reads configured date preset resolved at the given date.
+   * @param config The config
+   * @param runDate The current date of the run, resolved once by the driver so all tasks slice the same days
+   * @param runKey The key of run and stage, which readers and requests record metrics for
+   */
+  FacebookInputFormatProvider(FacebookBatchSourceConfig config, LocalDate runDate, String runKey) {
+    this.conf = createConfiguration(config, runDate, runKey).build();
+  }
+
+  /**
+   * Creates provider, which reads given time range instead of configured date preset, nothing if range is null.
+   */
+  FacebookInputFormatProvider(FacebookBatchSourceConfig config, LocalDate runDate, String runKey,
+                              @Nullable DateRange timeRange) {
+    this.conf = createConfiguration(config, runDate, runKey)
+      .put(PROPERTY_TIME_RANGE, timeRange == null ? "" : timeRange.toString())
       .build();
   }
 
+  private static ImmutableMap.Builder<String, String> createConfiguration(FacebookBatchSourceConfig config,
+                                                                          LocalDate runDate, String runKey) {
+    JsonObject configJson = gson.toJsonTree(config).getAsJsonObject();
+    configJson.remove(ACCESS_TOKEN_FIELD);
+    return new ImmutableMap.Builder<String, String>()
+      .put(PROPERTY_CONFIG_JSON, gson.toJson(configJson))
+      .put(PROPERTY_RUN_DATE, runDate.toString())
+      .put(InsightsMetrics.PROPERTY_RUN_KEY, runKey)
+      .put(PROPERTY_READER_CONFIG, Base64.getEncoder().encodeToString(config.serializeReaderProperties()))
+      .put(PROPERTY_ACCESS_TOKEN, config.getAccessToken())
+      .put(PROPERTY_QUERY_PLAN, Base64.getEncoder().encodeToString(config.getQueryPlan().serialize()));
+  }
+
+  /**
+   * Returns whole configuration, used to plan splits.
+   */
+  static FacebookBatchSourceConfig getConfig(Configuration conf) {
+    JsonObject configJson = gson.fromJson(conf.get(PROPERTY_CONFIG_JSON), JsonObject.class);
+    configJson.addProperty(ACCESS_TOKEN_FIELD, conf.get(PROPERTY_ACCESS_TOKEN));
+    return gson.fromJson(configJson, FacebookBatchSourceConfig.class);
+  }
+
+  /**
+   * Returns configuration with only the properties used by readers set, query is returned by
+   * {@link #getQueryPlan(Configuration)}.
+   */
+  static FacebookBatchSourceConfig getReaderConfig(Configuration conf) {
+    return FacebookBatchSourceConfig.deserializeReaderProperties(
+      Base64.getDecoder().decode(conf.get(PROPERTY_READER_CONFIG)), conf.get(PROPERTY_ACCESS_TOKEN));
+  }
+
+  /**
+   * Returns query plan written to job configuration, so readers don't parse it from config properties again.
+   */
+  public static QueryPlan getQueryPlan(Configuration conf) {
+    return QueryPlan.deserialize(Base64.getDecoder().decode(conf.get(PROPERTY_QUERY_PLAN)));
+  }
+
+  /**
+   * Returns current date of the run, which date preset is resolved at by planner and readers.
+   */
+  public static LocalDate getRunDate(Configuration conf) {
+    return LocalDate.parse(conf.get(PROPERTY_RUN_DATE));
+  }
+
   @Override
   public String getInputFormatClassName() {
     return FacebookInputFormat.class.getName();
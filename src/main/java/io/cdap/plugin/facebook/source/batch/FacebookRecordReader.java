@@ -19,68 +19,251 @@ package io.cdap.plugin.facebook.source.batch;
 import com.facebook.ads.sdk.APIException;
 import com.facebook.ads.sdk.APINodeList;
 import com.facebook.ads.sdk.AdsInsights;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.common.collect.Lists;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.plugin.facebook.source.common.InsightsRecordPlan;
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ExecutionMode;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import io.cdap.plugin.facebook.source.common.config.QueryPlan;
+import io.cdap.plugin.facebook.source.common.config.SourceConfigHelper;
+import io.cdap.plugin.facebook.source.common.metrics.InsightsMetrics;
 import io.cdap.plugin.facebook.source.common.requests.InsightsRequest;
+import io.cdap.plugin.facebook.source.common.requests.InsightsRequestBatch;
 import io.cdap.plugin.facebook.source.common.requests.InsightsRequestFactory;
+import io.cdap.plugin.facebook.source.common.requests.Retryer;
+import io.cdap.plugin.facebook.source.common.requests.StreamingInsightsRequest;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
- * RecordReader implementation, which reads {@link AdsInsights} instances from Facebook Insights using
- * facebook-java-business-sdk.
+ * RecordReader implementation, which reads insights records from Facebook Insights. Synchronous requests of single
+ * object are parsed directly to records, other requests are made using facebook-java-business-sdk. Split, which
+ * requests fail as too large, is read in smaller parts, see {@link SplitBisector}.
  */
-public class FacebookRecordReader extends RecordReader<NullWritable, AdsInsights> {
-  private static final Gson gson = new GsonBuilder().create();
-  private APINodeList<AdsInsights> currentPage;
-  private Iterator<AdsInsights> currentPageIterator;
-  private AdsInsights currentInsight;
+public class FacebookRecordReader extends RecordReader<NullWritable, StructuredRecord> {
+  private static final Logger LOG = LoggerFactory.getLogger(FacebookRecordReader.class);
+  private PageSource pageSource;
+  private FacebookSplit split;
+  private FacebookBatchSourceConfig fbConfig;
+  private SubdivisionStore subdivisionStore;
+  private Subdivision initialSubdivision;
+  private SplitBisector bisector;
+  private StatsStore statsStore;
+  private DateRange statsRange;
+  private long readNanos = -1;
+  private InsightsMetrics metrics;
+  private long startNanos;
+  private long pages;
+  private long rows;
+  private long pageWaitNanos;
+  private SplitProgress progress;
+  private Iterator<StructuredRecord> currentPageIterator;
+  private StructuredRecord currentRecord;
 
   @Override
   public void initialize(InputSplit inputSplit, TaskAttemptContext taskAttemptContext) throws IOException {
     Configuration conf = taskAttemptContext.getConfiguration();
-    String configJson = conf.get(FacebookInputFormatProvider.PROPERTY_CONFIG_JSON);
-    FacebookBatchSourceConfig fbConfig = gson.fromJson(configJson, FacebookBatchSourceConfig.class);
+    FacebookBatchSourceConfig fbConfig = FacebookInputFormatProvider.getReaderConfig(conf);
+    QueryPlan queryPlan = FacebookInputFormatProvider.getQueryPlan(conf);
+    InsightsRecordPlan plan = InsightsRecordPlan.compile(queryPlan.getSchema());
 
-    try {
-      InsightsRequest request = InsightsRequestFactory.createRequest(fbConfig);
+    FacebookSplit split = (FacebookSplit) inputSplit;
+    this.split = split;
+    this.fbConfig = fbConfig;
+    metrics = InsightsMetrics.forRun(conf.get(InsightsMetrics.PROPERTY_RUN_KEY));
+    startNanos = System.nanoTime();
+    LocalDate runDate = FacebookInputFormatProvider.getRunDate(conf);
+    progress = new SplitProgress(split.getObjectIds().size(), split.getTimeRange());
+    Retryer retryer = new Retryer(fbConfig.getMaxRetries(), metrics);
+    initialSubdivision = Subdivision.NONE;
+    if (fbConfig.getSubdivisionDirectory() != null) {
+      subdivisionStore = new SubdivisionStore(fbConfig.getSubdivisionDirectory(), conf);
+      initialSubdivision = readSubdivision();
+    }
+    bisector = new SplitBisector(split, fbConfig, queryPlan, runDate,
+                                 (objectType, objectId, childType, timeRange) ->
+                                   listChildren(fbConfig, conf, queryPlan, retryer, objectType, objectId,
+                                                childType, timeRange),
+                                 initialSubdivision);
+    if (fbConfig.getStatsDirectory() != null) {
+      statsStore = new StatsStore(fbConfig.getStatsDirectory(), conf);
+      statsRange = split.getTimeRange() == null
+        ? SourceConfigHelper.resolveDatePreset(queryPlan.getDatePreset(), runDate) : split.getTimeRange();
+    }
+    pageSource = new BisectingPageSource(split, bisector,
+                                         part -> createPageSource(fbConfig, conf, queryPlan, plan, retryer, part));
+    int prefetchDepth = fbConfig.getPrefetchDepth();
+    if (prefetchDepth > 0) {
+      pageSource = new PrefetchingPageSource(pageSource, prefetchDepth);
+    }
+    currentPageIterator = Collections.emptyIterator();
+  }
 
-      if (fbConfig.getSorting() != null) {
-        request.setParam("sort", fbConfig.getSorting());
+  private static PageSource createPageSource(FacebookBatchSourceConfig fbConfig, Configuration conf,
+                                             QueryPlan queryPlan, InsightsRecordPlan plan, Retryer retryer,
+                                             FacebookSplit split) {
+    if (split.getObjectIds().size() > 1) {
+      List<InsightsRequestBatch> batches = new ArrayList<>();
+      for (List<String> objectIds : Lists.partition(split.getObjectIds(), InsightsRequestBatch.MAX_SIZE)) {
+        InsightsRequestBatch batch = InsightsRequestFactory.createBatch(fbConfig, split.getObjectType(),
+                                                                        objectIds.get(0));
+        objectIds.forEach(objectId -> batch.add(InsightsRequestFactory.createBatchableRequest(
+          fbConfig, conf, queryPlan, split.getObjectType(), objectId, split.getTimeRange())));
+        batches.add(batch);
       }
+      return new BatchPageSource(batches, retryer, plan);
+    }
+    String objectId = split.getObjectIds().isEmpty() ? null : split.getObjectIds().get(0);
+    if (fbConfig.getExecutionMode() == ExecutionMode.Sync) {
+      return new StreamingPageSource(createStreamingRequest(fbConfig, conf, queryPlan, split, objectId), retryer,
+                                     plan, true);
+    }
+    return new SequentialPageSource(createRequest(fbConfig, conf, queryPlan, split, objectId), retryer, plan);
+  }
 
-      currentPage = request.execute();
-      currentPageIterator = currentPage.iterator();
+  private static List<String> listChildren(FacebookBatchSourceConfig fbConfig, Configuration conf,
+                                           QueryPlan queryPlan, Retryer retryer, ObjectType objectType,
+                                           String objectId, ObjectType childType,
+                                           @Nullable DateRange timeRange) throws IOException {
+    InsightsRequest request = InsightsRequestFactory.createChildrenRequest(fbConfig, conf, queryPlan, objectType,
+                                                                           objectId, childType, timeRange);
+    List<String> childIds = new ArrayList<>();
+    try {
+      APINodeList<AdsInsights> page = retryer.call(request::execute);
+      while (page != null) {
+        for (AdsInsights insights : page) {
+          String childId = getObjectId(insights, childType);
+          if (childId != null) {
+            childIds.add(childId);
+          }
+        }
+        APINodeList<AdsInsights> current = page;
+        page = retryer.call(current::nextPage);
+      }
     } catch (APIException e) {
       throw new IOException(e.getMessage(), e);
     }
+    return childIds;
+  }
+
+  @Nullable
+  private static String getObjectId(AdsInsights insights, ObjectType objectType) {
+    switch (objectType) {
+      case Campaign:
+        return insights.getFieldCampaignId();
+      case AdSet:
+        return insights.getFieldAdsetId();
+      case Ad:
+        return insights.getFieldAdId();
+      default:
+        return insights.getFieldAccountId();
+    }
+  }
+
+  /**
+   * Reads subdivision of split objects recorded by previous runs. Split is read without it if it can't be read.
+   */
+  private Subdivision readSubdivision() {
+    try {
+      return subdivisionStore.read(getSplitObjectType(), getSplitObjectIds());
+    } catch (IOException | IllegalArgumentException e) {
+      LOG.warn("Failed to read subdivision of split {}.", split, e);
+      return Subdivision.NONE;
+    }
+  }
+
+  /**
+   * Records subdivision of split objects, if split was cut further than recorded by previous runs.
+   */
+  private void writeSubdivision() {
+    Subdivision subdivision = bisector.getSubdivision();
+    if (subdivision.equals(initialSubdivision)) {
+      return;
+    }
+    try {
+      subdivisionStore.write(getSplitObjectType(), getSplitObjectIds(), subdivision);
+    } catch (IOException e) {
+      // split is cut again by next run
+      LOG.warn("Failed to save subdivision {} of split {}.", subdivision, split, e);
+    }
+  }
+
+  /**
+   * Records statistics of completely read split, which are merged into statistics of objects at the end of run.
+   */
+  private void recordStats() {
+    try {
+      statsStore.recordSplit(getSplitObjectType(), getSplitObjectIds(), statsRange, rows, pages,
+                             TimeUnit.NANOSECONDS.toMillis(readNanos));
+    } catch (IOException e) {
+      // next runs size splits by the statistics of previous runs
+      LOG.warn("Failed to record statistics of split {}.", split, e);
+    }
+  }
+
+  private ObjectType getSplitObjectType() {
+    return split.getObjectType() == null ? fbConfig.getObjectType() : split.getObjectType();
+  }
+
+  private List<String> getSplitObjectIds() {
+    return split.getObjectIds().isEmpty() ? Collections.singletonList(fbConfig.getObjectId()) : split.getObjectIds();
+  }
+
+  private static InsightsRequest createRequest(FacebookBatchSourceConfig fbConfig, Configuration conf,
+                                               QueryPlan queryPlan, FacebookSplit split, @Nullable String objectId) {
+    return objectId == null
+      ? InsightsRequestFactory.createRequest(fbConfig, conf, queryPlan, fbConfig.getObjectType(),
+                                             fbConfig.getObjectId(), split.getTimeRange())
+      : InsightsRequestFactory.createRequest(fbConfig, conf, queryPlan, split.getObjectType(), objectId,
+                                             split.getTimeRange());
+  }
+
+  private static StreamingInsightsRequest createStreamingRequest(FacebookBatchSourceConfig fbConfig,
+                                                                 Configuration conf, QueryPlan queryPlan,
+                                                                 FacebookSplit split, @Nullable String objectId) {
+    return objectId == null
+      ? InsightsRequestFactory.createStreamingRequest(fbConfig, conf, queryPlan, fbConfig.getObjectType(),
+                                                      fbConfig.getObjectId(), split.getTimeRange())
+      : InsightsRequestFactory.createStreamingRequest(fbConfig, conf, queryPlan, split.getObjectType(), objectId,
+                                                      split.getTimeRange());
   }
 
   @Override
   public boolean nextKeyValue() throws IOException {
-    if (!currentPageIterator.hasNext()) {
-      try {
-        // switch page
-        APINodeList<AdsInsights> nextPage = currentPage.nextPage();
-        if (nextPage != null) {
-          currentPage = nextPage;
-          currentPageIterator = currentPage.iterator();
-          return nextKeyValue();
-        }
-      } catch (APIException e) {
-        throw new IOException(e.getMessage(), e);
+    while (!currentPageIterator.hasNext()) {
+      // switch page
+      long waitStartNanos = System.nanoTime();
+      List<StructuredRecord> nextPage = pageSource.nextPage();
+      if (nextPage == null) {
+        progress.onEnd();
+        readNanos = System.nanoTime() - startNanos;
+        return false;
       }
-      return false;
-    } else {
-      currentInsight = currentPageIterator.next();
-      return true;
+      long waitNanos = System.nanoTime() - waitStartNanos;
+      metrics.recordPage(nextPage.size(), waitNanos);
+      pages++;
+      rows += nextPage.size();
+      pageWaitNanos += waitNanos;
+      progress.onPage(nextPage, pageSource.getCompletedRequests());
+      currentPageIterator = nextPage.iterator();
     }
+    currentRecord = currentPageIterator.next();
+    return true;
   }
 
   @Override
@@ -89,17 +272,28 @@ public class FacebookRecordReader extends RecordReader<NullWritable, AdsInsights
   }
 
   @Override
-  public AdsInsights getCurrentValue() {
-    return currentInsight;
+  public StructuredRecord getCurrentValue() {
+    return currentRecord;
   }
 
   @Override
   public float getProgress() {
-    return 0;
+    return progress == null ? 0 : progress.getProgress();
   }
 
   @Override
-  public void close() {
-
+  public void close() throws IOException {
+    if (pageSource != null) {
+      pageSource.close();
+      if (subdivisionStore != null) {
+        writeSubdivision();
+      }
+      if (statsStore != null && statsRange != null && readNanos >= 0) {
+        recordStats();
+      }
+      LOG.info("Read split {}: {} rows in {} pages in {} ms, {} ms waited for pages.", split, rows, pages,
+               TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+               TimeUnit.NANOSECONDS.toMillis(pageWaitNanos));
+    }
   }
 }
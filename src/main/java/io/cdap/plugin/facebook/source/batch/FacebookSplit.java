@@ -16,25 +16,154 @@
 
 package io.cdap.plugin.facebook.source.batch;
 
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
 import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
 import org.apache.hadoop.mapreduce.InputSplit;
 
 import java.io.DataInput;
 import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
 
 /**
- * A no-op split.
+ * A split, which holds the objects and the slice of configured time range to be queried.
+ * Split without objects queries the configured object, split without time range queries the whole configured
+ * date preset.
+ *
+ * Splits are serialized to compact versioned binary form: variable length numbers, no field names and the query
+ * itself is written to job configuration once, see {@link FacebookInputFormatProvider}.
  */
 public class FacebookSplit extends InputSplit implements Writable {
+  private static final byte FORMAT_VERSION = 1;
+  private static final byte HAS_OBJECTS = 1;
+  private static final byte HAS_TIME_RANGE = 2;
+
+  private ObjectType objectType;
+  private List<String> objectIds = Collections.emptyList();
+  private DateRange timeRange;
+
   public FacebookSplit() {
   }
 
+  public FacebookSplit(@Nullable DateRange timeRange) {
+    this(null, Collections.emptyList(), timeRange);
+  }
+
+  /**
+   * Constructor for FacebookSplit object.
+   * @param objectType The type of objects to query, configured object is queried if not set
+   * @param objectIds The ids of objects to query
+   * @param timeRange The time range to query, configured date preset is queried if not set
+   */
+  public FacebookSplit(@Nullable ObjectType objectType, List<String> objectIds, @Nullable DateRange timeRange) {
+    this.objectType = objectType;
+    this.objectIds = objectIds;
+    this.timeRange = timeRange;
+  }
+
+  @Nullable
+  public ObjectType getObjectType() {
+    return objectType;
+  }
+
+  public List<String> getObjectIds() {
+    return objectIds;
+  }
+
+  @Nullable
+  public DateRange getTimeRange() {
+    return timeRange;
+  }
+
   @Override
-  public void readFields(DataInput dataInput) {
+  public void readFields(DataInput dataInput) throws IOException {
+    byte version = dataInput.readByte();
+    if (version != FORMAT_VERSION) {
+      throw new IOException(String.format("Unsupported split format version %d.", version));
+    }
+    byte flags = dataInput.readByte();
+    if ((flags & HAS_OBJECTS) != 0) {
+      objectType = ObjectType.values()[dataInput.readByte()];
+      int count = WritableUtils.readVInt(dataInput);
+      objectIds = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        objectIds.add(readObjectId(dataInput));
+      }
+    } else {
+      objectType = null;
+      objectIds = Collections.emptyList();
+    }
+    if ((flags & HAS_TIME_RANGE) != 0) {
+      LocalDate since = LocalDate.ofEpochDay(WritableUtils.readVLong(dataInput));
+      timeRange = new DateRange(since, since.plusDays(WritableUtils.readVInt(dataInput)));
+    } else {
+      timeRange = null;
+    }
   }
 
   @Override
-  public void write(DataOutput dataOutput) {
+  public void write(DataOutput dataOutput) throws IOException {
+    dataOutput.writeByte(FORMAT_VERSION);
+    dataOutput.writeByte((objectType != null ? HAS_OBJECTS : 0) | (timeRange != null ? HAS_TIME_RANGE : 0));
+    if (objectType != null) {
+      dataOutput.writeByte(objectType.ordinal());
+      WritableUtils.writeVInt(dataOutput, objectIds.size());
+      for (String objectId : objectIds) {
+        writeObjectId(dataOutput, objectId);
+      }
+    }
+    if (timeRange != null) {
+      WritableUtils.writeVLong(dataOutput, timeRange.getSince().toEpochDay());
+      WritableUtils.writeVInt(dataOutput, timeRange.getDays() - 1);
+    }
+  }
+
+  /**
+   * Writes id as variable length number if it is numeric, as Graph API ids are, otherwise as string.
+   * Negative length marks the number.
+   */
+  private static void writeObjectId(DataOutput dataOutput, String objectId) throws IOException {
+    if (isNumericId(objectId)) {
+      WritableUtils.writeVInt(dataOutput, -1);
+      WritableUtils.writeVLong(dataOutput, Long.parseLong(objectId));
+    } else {
+      byte[] bytes = objectId.getBytes(StandardCharsets.UTF_8);
+      WritableUtils.writeVInt(dataOutput, bytes.length);
+      dataOutput.write(bytes);
+    }
+  }
+
+  private static String readObjectId(DataInput dataInput) throws IOException {
+    int length = WritableUtils.readVInt(dataInput);
+    if (length < 0) {
+      return Long.toString(WritableUtils.readVLong(dataInput));
+    }
+    byte[] bytes = new byte[length];
+    dataInput.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Checks that id is read back as the same string: digits without leading zeros, fitting into long.
+   */
+  private static boolean isNumericId(String objectId) {
+    int length = objectId.length();
+    if (length == 0 || length > 18 || (objectId.charAt(0) == '0' && length > 1)) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (objectId.charAt(i) < '0' || objectId.charAt(i) > '9') {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
@@ -46,4 +175,10 @@ public class FacebookSplit extends InputSplit implements Writable {
   public String[] getLocations() {
     return new String[0];
   }
+
+  @Override
+  public String toString() {
+    String objects = objectType == null ? "configured object" : objectType + " " + objectIds;
+    return objects + (timeRange == null ? "" : " " + timeRange);
+  }
 }
@@ -0,0 +1,269 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import com.facebook.ads.sdk.APIException;
+import com.facebook.ads.sdk.APINodeList;
+import com.facebook.ads.sdk.AdsInsights;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ExecutionMode;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import io.cdap.plugin.facebook.source.common.config.SourceConfigHelper;
+import io.cdap.plugin.facebook.source.common.config.TimeSlice;
+import io.cdap.plugin.facebook.source.common.requests.InsightsRequest;
+import io.cdap.plugin.facebook.source.common.requests.InsightsRequestFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Plans splits for configured object. Configured time range is cut into slices and configured object is split by
+ * its child objects, one split per group of children and slice. Configured list of objects is packed into groups
+ * of balanced estimated size, one split per group and slice. If target rows per split is set, length of slices and
+ * number of groups are chosen from rows of objects observed by previous runs, see {@link StatsStore}.
+ */
+public class FacebookSplitPlanner {
+  private static final Logger LOG = LoggerFactory.getLogger(FacebookSplitPlanner.class);
+  private final FacebookBatchSourceConfig config;
+  private final DateRange dateRange;
+  private final boolean explicitRange;
+  private final Configuration conf;
+
+  /**
+   * Creates planner of configured date preset resolved to dates at given day.
+   * @param conf The job configuration, which is used to access files of objects and statistics
+   */
+  public FacebookSplitPlanner(FacebookBatchSourceConfig config, Configuration conf, LocalDate today) {
+    this.config = config;
+    this.conf = conf;
+    this.dateRange = SourceConfigHelper.resolveDatePreset(config.getDatePreset(), today);
+    this.explicitRange = false;
+  }
+
+  /**
+   * Creates planner of given time range, which is requested instead of configured date preset.
+   * @param conf The job configuration, which is used to access files of objects and statistics
+   */
+  public FacebookSplitPlanner(FacebookBatchSourceConfig config, Configuration conf, DateRange timeRange) {
+    this.config = config;
+    this.conf = conf;
+    this.dateRange = timeRange;
+    this.explicitRange = true;
+  }
+
+  /**
+   * Plans splits.
+   * @return the list of splits, at least one
+   * @throws IOException if child objects can't be listed
+   */
+  public List<FacebookSplit> plan() throws IOException {
+    if (config.isMultiObject()) {
+      return planObjects();
+    }
+    ObjectType childType = config.getEntitySplit();
+    Set<String> childIds = childType == null ? Collections.emptySet() : listChildren(childType, dateRange);
+    if (childIds.isEmpty()) {
+      // object is not split or nothing was delivered in time range, query configured object to produce the same
+      // output as without split
+      Map<String, Double> rowsPerDay = readRowsPerDay(config.getObjectType(),
+                                                      Collections.singletonList(config.getObjectId()));
+      List<FacebookSplit> splits = new ArrayList<>();
+      planTimeRanges(rowsPerDay == null ? null : rowsPerDay.get(config.getObjectId()))
+        .forEach(timeRange -> splits.add(new FacebookSplit(timeRange)));
+      return splits;
+    }
+
+    Map<String, Double> rowsPerDay = readRowsPerDay(childType, childIds);
+    if (rowsPerDay != null) {
+      return planGroups(childType, rowsPerDay);
+    }
+    List<DateRange> timeRanges = planTimeRanges(null);
+    List<FacebookSplit> splits = new ArrayList<>();
+    for (List<String> group : Lists.partition(new ArrayList<>(childIds), getObjectsPerSplit())) {
+      timeRanges.forEach(timeRange -> splits.add(new FacebookSplit(childType, group, timeRange)));
+    }
+    return splits;
+  }
+
+  /**
+   * Packs configured objects into as many splits per time range as are needed to hold configured number of objects
+   * per split on average.
+   */
+  private List<FacebookSplit> planObjects() throws IOException {
+    List<String> objectIds = readObjectIds();
+    if (objectIds.isEmpty()) {
+      throw new IOException("List of objects is empty.");
+    }
+    Map<String, Double> rowsPerDay = readRowsPerDay(config.getObjectType(), objectIds);
+    if (rowsPerDay != null) {
+      return planGroups(config.getObjectType(), rowsPerDay);
+    }
+    int objectsPerSplit = getObjectsPerSplit();
+    int groupCount = (objectIds.size() + objectsPerSplit - 1) / objectsPerSplit;
+    Map<String, Long> sizes;
+    if (groupCount == objectIds.size()) {
+      // each object gets split of its own
+      sizes = new LinkedHashMap<>();
+      objectIds.forEach(objectId -> sizes.put(objectId, 1L));
+    } else {
+      sizes = new ObjectSizeEstimator(config, conf, dateRange).estimate(objectIds);
+    }
+    return planGroups(config.getObjectType(), sizes, groupCount, planTimeRanges(null));
+  }
+
+  /**
+   * Packs objects into as many splits per time range as are needed to return target rows per split, time range is
+   * sliced first if rows of all objects in a slice exceed target.
+   */
+  private List<FacebookSplit> planGroups(ObjectType objectType, Map<String, Double> rowsPerDay) {
+    double totalRowsPerDay = rowsPerDay.values().stream().mapToDouble(Double::doubleValue).sum();
+    List<DateRange> timeRanges = planTimeRanges(totalRowsPerDay);
+    DateRange longestRange = timeRanges.get(0) == null ? dateRange : timeRanges.get(0);
+    int days = longestRange == null ? 1 : longestRange.getDays();
+    int groupCount = (int) Math.ceil(totalRowsPerDay * days / config.getTargetRowsPerSplit());
+    if (config.getExecutionMode() == ExecutionMode.Async) {
+      // asynchronous requests can't be batched
+      groupCount = rowsPerDay.size();
+    }
+    groupCount = Math.max(1, Math.min(groupCount, rowsPerDay.size()));
+    Map<String, Long> sizes = new LinkedHashMap<>();
+    // objects without rows still cost a request
+    rowsPerDay.forEach((objectId, rows) -> sizes.put(objectId, 1 + Math.round(rows * days)));
+    return planGroups(objectType, sizes, groupCount, timeRanges);
+  }
+
+  /**
+   * Asynchronous requests can't be batched, so each object gets split of its own in asynchronous mode.
+   */
+  private int getObjectsPerSplit() {
+    return config.getExecutionMode() == ExecutionMode.Async ? 1 : config.getEntitiesPerSplit();
+  }
+
+  private static List<FacebookSplit> planGroups(ObjectType objectType, Map<String, Long> sizes,
+                                                int groupCount, List<DateRange> timeRanges) {
+    List<FacebookSplit> splits = new ArrayList<>();
+    for (List<String> group : ObjectPacker.pack(sizes, groupCount)) {
+      timeRanges.forEach(timeRange -> splits.add(new FacebookSplit(objectType, group, timeRange)));
+    }
+    return splits;
+  }
+
+  /**
+   * Reads average rows per day of objects observed by previous runs, objects not read yet are assumed to be of
+   * average size of the others.
+   * @return The rows per day in order of given ids, null if splits are not sized by statistics or no object was read
+   */
+  @Nullable
+  private Map<String, Double> readRowsPerDay(ObjectType objectType, Collection<String> objectIds) {
+    if (config.getTargetRowsPerSplit() == 0 || config.getStatsDirectory() == null) {
+      return null;
+    }
+    StatsStore store = new StatsStore(config.getStatsDirectory(), conf);
+    Map<String, Double> rowsPerDay = new LinkedHashMap<>();
+    double knownRows = 0;
+    int known = 0;
+    for (String objectId : objectIds) {
+      ObjectStats stats;
+      try {
+        stats = store.read(objectType, objectId);
+      } catch (IOException | RuntimeException e) {
+        LOG.warn("Failed to read statistics of {} '{}'.", objectType, objectId, e);
+        stats = null;
+      }
+      rowsPerDay.put(objectId, stats == null ? null : stats.getRowsPerDay());
+      if (stats != null) {
+        knownRows += stats.getRowsPerDay();
+        known++;
+      }
+    }
+    if (known == 0) {
+      return null;
+    }
+    double averageRows = knownRows / known;
+    rowsPerDay.replaceAll((objectId, rows) -> rows == null ? averageRows : rows);
+    return rowsPerDay;
+  }
+
+  private List<String> readObjectIds() throws IOException {
+    if (config.getObjectIdsFile() == null) {
+      return config.getObjectIds();
+    }
+    Path path = new Path(config.getObjectIdsFile());
+    try (InputStream in = path.getFileSystem(conf).open(path)) {
+      return FacebookBatchSourceConfig.parseObjectIds(new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Returns time ranges to query, single null range stands for the whole configured date preset. Slices are as long
+   * as target rows per split allows, if rows per day are known.
+   * @param rowsPerDay The rows per day of all objects of split, null if not known
+   */
+  private List<DateRange> planTimeRanges(@Nullable Double rowsPerDay) {
+    TimeSlice timeSlice = config.getTimeSlice();
+    if (timeSlice == TimeSlice.None || dateRange == null) {
+      return Collections.singletonList(explicitRange ? dateRange : null);
+    }
+    int days = timeSlice.getDays();
+    if (rowsPerDay != null && rowsPerDay > 0) {
+      days = (int) Math.max(1, Math.min(config.getTargetRowsPerSplit() / rowsPerDay, dateRange.getDays()));
+    }
+    return dateRange.slice(days);
+  }
+
+  /**
+   * Lists ids of child objects, which have insights in time range. Children without delivery produce no rows and
+   * are skipped.
+   */
+  private Set<String> listChildren(ObjectType childType, @Nullable DateRange dateRange) throws IOException {
+    InsightsRequest request = InsightsRequestFactory.createChildrenRequest(config, conf, childType, dateRange);
+    Set<String> childIds = new LinkedHashSet<>();
+    try {
+      APINodeList<AdsInsights> page = request.execute();
+      while (page != null) {
+        for (AdsInsights insights : page) {
+          String childId = childType == ObjectType.Campaign ? insights.getFieldCampaignId()
+            : insights.getFieldAdsetId();
+          if (childId != null) {
+            childIds.add(childId);
+          }
+        }
+        page = page.nextPage();
+      }
+    } catch (APIException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+    return childIds;
+  }
+}
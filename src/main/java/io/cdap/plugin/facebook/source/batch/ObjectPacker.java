@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Packs objects into groups of balanced total size by longest processing time first rule: objects are taken from
+ * the largest one and each is put into the group with the smallest total so far. Total of the largest group is at
+ * most 4/3 of the optimal one, so a single huge object gets a group of its own instead of delaying others.
+ */
+public class ObjectPacker {
+
+  private ObjectPacker() {
+  }
+
+  /**
+   * Packs objects into groups.
+   * @param sizes The estimated sizes of objects, in order of configuration
+   * @param groupCount The maximum number of groups
+   * @return The non-empty groups, the largest first
+   */
+  public static List<List<String>> pack(Map<String, Long> sizes, int groupCount) {
+    if (groupCount < 1) {
+      throw new IllegalArgumentException("Number of groups must be positive.");
+    }
+    List<Map.Entry<String, Long>> objects = new ArrayList<>(sizes.entrySet());
+    // stable sort keeps configured order of objects of the same size
+    objects.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+    PriorityQueue<Group> groups = new PriorityQueue<>(
+      Comparator.comparingLong((Group group) -> group.size).thenComparingInt(group -> group.index));
+    for (int i = 0; i < Math.min(groupCount, objects.size()); i++) {
+      groups.add(new Group(i));
+    }
+    for (Map.Entry<String, Long> object : objects) {
+      Group smallest = groups.poll();
+      smallest.objectIds.add(object.getKey());
+      smallest.size += object.getValue();
+      groups.add(smallest);
+    }
+    return groups.stream()
+      .sorted(Comparator.comparingLong((Group group) -> group.size).reversed().thenComparingInt(group -> group.index))
+      .map(group -> group.objectIds)
+      .collect(Collectors.toList());
+  }
+
+  private static class Group {
+    private final int index;
+    private final List<String> objectIds = new ArrayList<>();
+    private long size;
+
+    private Group(int index) {
+      this.index = index;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import com.facebook.ads.sdk.APIException;
+import com.facebook.ads.sdk.APINodeList;
+import com.facebook.ads.sdk.AdsInsights;
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import io.cdap.plugin.facebook.source.common.requests.InsightsRequest;
+import io.cdap.plugin.facebook.source.common.requests.InsightsRequestFactory;
+import io.cdap.plugin.facebook.source.common.requests.Retryer;
+import org.apache.hadoop.conf.Configuration;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+
+/**
+ * Estimates relative sizes of configured objects by numbers of their children at query level, which had delivery
+ * in time range. Rows of every child are multiplied by the same days and breakdowns, so the numbers compare
+ * objects well enough to balance splits, while counting them costs a page per {@link #PAGE_SIZE} children.
+ */
+public class ObjectSizeEstimator {
+  static final int PAGE_SIZE = 500;
+  /**
+   * Objects with more children are as large as needed to get a split of their own.
+   */
+  static final int MAX_PAGES = 10;
+  private static final int THREADS = 8;
+
+  private final FacebookBatchSourceConfig config;
+  private final Configuration conf;
+  private final DateRange dateRange;
+
+  public ObjectSizeEstimator(FacebookBatchSourceConfig config, Configuration conf, @Nullable DateRange dateRange) {
+    this.config = config;
+    this.conf = conf;
+    this.dateRange = dateRange;
+  }
+
+  /**
+   * Estimates sizes of objects of configured type.
+   * @param objectIds The ids of objects
+   * @return The sizes in order of given ids, all equal if query level is not below configured type
+   * @throws IOException if children of any object can't be counted
+   */
+  public Map<String, Long> estimate(List<String> objectIds) throws IOException {
+    ObjectType objectType = config.getObjectType();
+    ObjectType levelType = config.getQueryPlan().getLevel() == null
+      ? null : ObjectType.fromLevel(config.getQueryPlan().getLevel());
+    Map<String, Long> sizes = new LinkedHashMap<>();
+    if (levelType == null || !objectType.contains(levelType)) {
+      // each object returns rows of itself only
+      objectIds.forEach(objectId -> sizes.put(objectId, 1L));
+      return sizes;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(THREADS, objectIds.size()));
+    try {
+      Map<String, Future<Long>> counts = new LinkedHashMap<>();
+      for (String objectId : objectIds) {
+        counts.put(objectId, executor.submit(() -> countChildren(objectType, objectId, levelType)));
+      }
+      for (Map.Entry<String, Future<Long>> count : counts.entrySet()) {
+        sizes.put(count.getKey(), count.getValue().get());
+      }
+    } catch (ExecutionException e) {
+      throw new IOException(String.format("Failed to estimate size of objects: %s", e.getCause().getMessage()),
+                            e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while estimating size of objects.");
+    } finally {
+      executor.shutdownNow();
+    }
+    return sizes;
+  }
+
+  private long countChildren(ObjectType objectType, String objectId, ObjectType childType) throws APIException {
+    Retryer retryer = new Retryer(config.getMaxRetries());
+    InsightsRequest request = InsightsRequestFactory.createChildrenRequest(config, conf, objectType, objectId,
+                                                                           childType, dateRange);
+    request.setParam("limit", PAGE_SIZE);
+    // request itself costs as much as a child
+    long count = 1;
+    APINodeList<AdsInsights> page = retryer.call(request::execute);
+    for (int pages = 1; page != null; pages++) {
+      count += page.size();
+      if (pages == MAX_PAGES) {
+        break;
+      }
+      APINodeList<AdsInsights> current = page;
+      page = retryer.call(current::nextPage);
+    }
+    return count;
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+/**
+ * Average rows, pages and request time of one day of object, observed by previous runs.
+ */
+public class ObjectStats {
+  private final double rowsPerDay;
+  private final double pagesPerDay;
+  private final double millisPerDay;
+
+  public ObjectStats(double rowsPerDay, double pagesPerDay, double millisPerDay) {
+    this.rowsPerDay = rowsPerDay;
+    this.pagesPerDay = pagesPerDay;
+    this.millisPerDay = millisPerDay;
+  }
+
+  public double getRowsPerDay() {
+    return rowsPerDay;
+  }
+
+  public double getPagesPerDay() {
+    return pagesPerDay;
+  }
+
+  public double getMillisPerDay() {
+    return millisPerDay;
+  }
+}
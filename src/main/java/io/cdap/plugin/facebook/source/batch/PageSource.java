@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Source of consecutive pages of insights response, parsed to records.
+ */
+public interface PageSource extends Closeable {
+
+  /**
+   * Returns next page of response.
+   * @return the page, null if all pages were returned
+   * @throws IOException if page can't be fetched
+   */
+  @Nullable
+  List<StructuredRecord> nextPage() throws IOException;
+
+  /**
+   * Returns number of requests, which pages were all fetched. Sources of single request don't count it, as they are
+   * complete once they return all pages.
+   * @return the number of completed requests
+   */
+  default int getCompletedRequests() {
+    return 0;
+  }
+}
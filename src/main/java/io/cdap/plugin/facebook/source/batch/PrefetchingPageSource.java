@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Fetches pages of wrapped source in background thread, so next pages are requested while the current one is
+ * being read. At most 'depth' pages are fetched ahead, fetching blocks until consumer takes a page.
+ * Wrapped source is used and closed only by the background thread, so it is never accessed concurrently.
+ */
+public class PrefetchingPageSource implements PageSource {
+  private static final Logger LOG = LoggerFactory.getLogger(PrefetchingPageSource.class);
+  private static final Object END = new Object();
+  static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+  private final PageSource delegate;
+  private final BlockingQueue<Object> queue;
+  private final Thread fetcher;
+  private volatile IOException closeFailure;
+  private boolean exhausted;
+
+  /**
+   * Constructor for PrefetchingPageSource object, starts fetching pages.
+   * @param delegate The source to fetch pages from
+   * @param depth The maximum number of pages fetched ahead, must be positive
+   */
+  public PrefetchingPageSource(PageSource delegate, int depth) {
+    if (depth <= 0) {
+      throw new IllegalArgumentException("Prefetch depth must be positive.");
+    }
+    this.delegate = delegate;
+    this.queue = new ArrayBlockingQueue<>(depth);
+    this.fetcher = new Thread(this::fetch, "facebook-insights-prefetch");
+    this.fetcher.setDaemon(true);
+    this.fetcher.start();
+  }
+
+  private void fetch() {
+    try {
+      List<StructuredRecord> page;
+      do {
+        page = delegate.nextPage();
+        queue.put(page == null ? END : page);
+      } while (page != null);
+    } catch (InterruptedException e) {
+      // source is closed
+      Thread.currentThread().interrupt();
+    } catch (IOException | RuntimeException e) {
+      try {
+        queue.put(e);
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+    } finally {
+      try {
+        delegate.close();
+      } catch (IOException e) {
+        closeFailure = e;
+      }
+    }
+  }
+
+  @Nullable
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<StructuredRecord> nextPage() throws IOException {
+    if (exhausted) {
+      return null;
+    }
+    Object item;
+    try {
+      item = queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for next page.");
+    }
+    if (item == END) {
+      exhausted = true;
+      return null;
+    }
+    if (item instanceof IOException) {
+      exhausted = true;
+      throw new IOException(((IOException) item).getMessage(), (IOException) item);
+    }
+    if (item instanceof RuntimeException) {
+      exhausted = true;
+      throw (RuntimeException) item;
+    }
+    return (List<StructuredRecord>) item;
+  }
+
+  /**
+   * Returns number of completed requests of wrapped source, which may count requests of pages fetched ahead.
+   */
+  @Override
+  public int getCompletedRequests() {
+    return delegate.getCompletedRequests();
+  }
+
+  /**
+   * Stops fetching and waits until background thread closes wrapped source. If thread is blocked in a request,
+   * which doesn't respond to interruption, the source is closed by the thread once the request returns.
+   */
+  @Override
+  public void close() throws IOException {
+    fetcher.interrupt();
+    try {
+      fetcher.join(CLOSE_TIMEOUT_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for prefetch to stop.");
+    }
+    if (fetcher.isAlive()) {
+      LOG.warn("Prefetch didn't stop in {} ms, source is closed once its current request returns.",
+               CLOSE_TIMEOUT_MILLIS);
+      return;
+    }
+    if (closeFailure != null) {
+      throw closeFailure;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import com.facebook.ads.sdk.APIException;
+import com.facebook.ads.sdk.APINodeList;
+import com.facebook.ads.sdk.AdsInsights;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.plugin.facebook.source.common.AdsInsightsTransformer;
+import io.cdap.plugin.facebook.source.common.InsightsRecordPlan;
+import io.cdap.plugin.facebook.source.common.requests.InsightsRequest;
+import io.cdap.plugin.facebook.source.common.requests.Retryer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Fetches pages of SDK request in caller thread, next page is requested only when it is asked for. Failed page is
+ * requested again from the cursor of the previous page.
+ */
+public class SequentialPageSource implements PageSource {
+  private final InsightsRequest request;
+  private final Retryer retryer;
+  private final InsightsRecordPlan plan;
+  private APINodeList<AdsInsights> currentPage;
+  private boolean exhausted;
+
+  public SequentialPageSource(InsightsRequest request, Retryer retryer, InsightsRecordPlan plan) {
+    this.request = request;
+    this.retryer = retryer;
+    this.plan = plan;
+  }
+
+  @Nullable
+  @Override
+  public List<StructuredRecord> nextPage() throws IOException {
+    if (exhausted) {
+      return null;
+    }
+    try {
+      if (currentPage == null) {
+        currentPage = retryer.callFirst(request::execute);
+      } else {
+        currentPage = retryer.call(currentPage::nextPage);
+      }
+    } catch (APIException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+    exhausted = currentPage == null;
+    return exhausted ? null : transform(currentPage, plan);
+  }
+
+  @Override
+  public void close() {
+
+  }
+
+  static List<StructuredRecord> transform(APINodeList<AdsInsights> page, InsightsRecordPlan plan) {
+    List<StructuredRecord> records = new ArrayList<>(page.size());
+    for (AdsInsights insights : page) {
+      records.add(AdsInsightsTransformer.transform(insights, plan));
+    }
+    return records;
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import com.google.common.collect.Lists;
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ExecutionMode;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import io.cdap.plugin.facebook.source.common.config.QueryPlan;
+import io.cdap.plugin.facebook.source.common.config.SourceConfigHelper;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Cuts split, which requests failed as too large, into smaller parts returning the same rows. Time range is halved
+ * first if rows are returned per day, then objects are halved. Single object is replaced by its children if rows are
+ * aggregated at their level or below. Limits of parts are collected to {@link Subdivision}, so next runs may cut the
+ * split the same way before any request fails. Asynchronous requests can't be batched, so in asynchronous mode objects
+ * are cut into parts of single object right away.
+ */
+public class SplitBisector {
+
+  /**
+   * Lists ids of children of object, which have insights in time range.
+   */
+  public interface ChildLister {
+
+    /**
+     * Lists children.
+     * @param objectType The type of object
+     * @param objectId The id of object
+     * @param childType The type of children
+     * @param timeRange The time range, null if date preset is requested
+     * @return The ids of children
+     * @throws IOException if children can't be listed
+     */
+    List<String> list(ObjectType objectType, String objectId, ObjectType childType,
+                      @Nullable DateRange timeRange) throws IOException;
+  }
+
+  private final FacebookSplit split;
+  private final ObjectType configuredType;
+  private final String configuredId;
+  private final ObjectType levelType;
+  private final boolean dailyRows;
+  private final boolean singleObjectParts;
+  private final DateRange presetRange;
+  private final ChildLister childLister;
+  private Subdivision subdivision;
+
+  /**
+   * Constructor for SplitBisector object.
+   * @param split The split, which is cut
+   * @param config The configuration of source
+   * @param plan The query plan of source
+   * @param today The current date, which date preset is resolved at
+   * @param childLister The lister of children of objects
+   * @param subdivision The limits of parts known from previous runs
+   */
+  public SplitBisector(FacebookSplit split, FacebookBatchSourceConfig config, QueryPlan plan, LocalDate today,
+                       ChildLister childLister, Subdivision subdivision) {
+    this.split = split;
+    this.configuredType = config.getObjectType();
+    this.configuredId = config.getObjectId();
+    this.levelType = plan.getLevel() == null ? null : ObjectType.fromLevel(plan.getLevel());
+    // rows aggregated over the whole range differ from rows of its parts
+    this.dailyRows = Integer.valueOf(1).equals(plan.getTimeIncrement());
+    this.singleObjectParts = config.getExecutionMode() == ExecutionMode.Async;
+    this.presetRange = SourceConfigHelper.resolveDatePreset(plan.getDatePreset(), today);
+    this.childLister = childLister;
+    this.subdivision = subdivision;
+  }
+
+  /**
+   * Returns limits of parts the split was cut into, including the ones known from previous runs.
+   */
+  public Subdivision getSubdivision() {
+    return subdivision;
+  }
+
+  /**
+   * Cuts split into parts within limits known from previous runs.
+   * @return The parts in order they are read, the split itself if it is not cut
+   * @throws IOException if children of object can't be listed
+   */
+  public List<FacebookSplit> subdivide() throws IOException {
+    List<FacebookSplit> objectParts = new ArrayList<>();
+    for (FacebookSplit part : partition(split, getMaxObjects(subdivision.getMaxObjects()))) {
+      FacebookSplit children = subdivision.getChildType() == null ? null : replaceByChildren(part);
+      if (children == null || children.getObjectType() != subdivision.getChildType()) {
+        objectParts.add(part);
+      } else {
+        objectParts.addAll(partition(children, getMaxObjects(subdivision.getMaxChildren())));
+      }
+    }
+    List<FacebookSplit> parts = new ArrayList<>();
+    for (FacebookSplit part : objectParts) {
+      DateRange timeRange = getTimeRange(part);
+      if (!dailyRows || subdivision.getMaxDays() == 0 || timeRange == null
+        || timeRange.getDays() <= subdivision.getMaxDays()) {
+        parts.add(part);
+        continue;
+      }
+      for (DateRange slice : timeRange.slice(subdivision.getMaxDays())) {
+        parts.add(new FacebookSplit(part.getObjectType(), part.getObjectIds(), slice));
+      }
+    }
+    return parts;
+  }
+
+  /**
+   * Cuts part of split, which request failed as too large, into two smaller parts.
+   * @param part The part of split
+   * @return The parts in order they are read, empty if part can't be cut
+   * @throws IOException if children of object can't be listed
+   */
+  public List<FacebookSplit> bisect(FacebookSplit part) throws IOException {
+    DateRange timeRange = getTimeRange(part);
+    if (dailyRows && timeRange != null && timeRange.getDays() > 1) {
+      int firstDays = (timeRange.getDays() + 1) / 2;
+      LocalDate firstUntil = timeRange.getSince().plusDays(firstDays - 1);
+      subdivision = subdivision.withMaxDays(firstDays);
+      return Arrays.asList(
+        new FacebookSplit(part.getObjectType(), part.getObjectIds(), new DateRange(timeRange.getSince(), firstUntil)),
+        new FacebookSplit(part.getObjectType(), part.getObjectIds(),
+                          new DateRange(firstUntil.plusDays(1), timeRange.getUntil())));
+    }
+    List<String> objectIds = part.getObjectIds();
+    if (objectIds.size() > 1) {
+      int firstSize = getMaxObjects((objectIds.size() + 1) / 2);
+      if (isChild(part)) {
+        subdivision = subdivision.withMaxChildren(firstSize);
+      } else {
+        subdivision = subdivision.withMaxObjects(firstSize);
+      }
+      return partition(part, firstSize);
+    }
+    FacebookSplit children = isChild(part) ? null : replaceByChildren(part);
+    if (children == null) {
+      return Collections.emptyList();
+    }
+    subdivision = subdivision.withChildType(children.getObjectType());
+    if (!singleObjectParts) {
+      return Collections.singletonList(children);
+    }
+    subdivision = subdivision.withMaxChildren(1);
+    return partition(children, 1);
+  }
+
+  /**
+   * Returns maximum number of objects of part, which is 1 in asynchronous mode regardless of given limit.
+   */
+  private int getMaxObjects(int limit) {
+    return singleObjectParts ? 1 : limit;
+  }
+
+  /**
+   * Returns part, which requests children of single object of given part instead of it.
+   * @return The part, null if object has no children with insights or rows are aggregated above children level
+   */
+  @Nullable
+  private FacebookSplit replaceByChildren(FacebookSplit part) throws IOException {
+    if (part.getObjectIds().size() > 1) {
+      return null;
+    }
+    ObjectType objectType = getObjectType(part);
+    ObjectType childType = objectType.getChildType();
+    if (childType == null || levelType == null || !objectType.contains(levelType)) {
+      return null;
+    }
+    String objectId = part.getObjectIds().isEmpty() ? configuredId : part.getObjectIds().get(0);
+    List<String> childIds = childLister.list(objectType, objectId, childType, part.getTimeRange());
+    return childIds.isEmpty() ? null : new FacebookSplit(childType, childIds, part.getTimeRange());
+  }
+
+  private static List<FacebookSplit> partition(FacebookSplit part, int maxObjects) {
+    if (maxObjects == 0 || part.getObjectIds().size() <= maxObjects) {
+      return Collections.singletonList(part);
+    }
+    List<FacebookSplit> parts = new ArrayList<>();
+    for (List<String> group : Lists.partition(part.getObjectIds(), maxObjects)) {
+      parts.add(new FacebookSplit(part.getObjectType(), new ArrayList<>(group), part.getTimeRange()));
+    }
+    return parts;
+  }
+
+  /**
+   * Checks if part requests children of object of split, which replaced it.
+   */
+  private boolean isChild(FacebookSplit part) {
+    return getObjectType(part) != getObjectType(split);
+  }
+
+  private ObjectType getObjectType(FacebookSplit part) {
+    return part.getObjectType() == null ? configuredType : part.getObjectType();
+  }
+
+  /**
+   * Returns time range of part, date preset is resolved to dates if possible.
+   */
+  @Nullable
+  private DateRange getTimeRange(FacebookSplit part) {
+    return part.getTimeRange() == null ? presetRange : part.getTimeRange();
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Estimates progress of split, which is read by one request per object. Progress of the current request is
+ * estimated from the share of the time range already read, if rows are returned per day. Otherwise it is
+ * estimated from pages read against average number of pages of completed requests.
+ */
+public class SplitProgress {
+  static final String DATE_FIELD = "date_start";
+  /**
+   * Number of pages, after which request of unknown size is estimated to be half read.
+   */
+  static final int HALF_READ_PAGES = 4;
+
+  private final int requests;
+  private final DateRange timeRange;
+  private int completedRequests;
+  private long completedRequestsPages;
+  private long requestPages;
+  private LocalDate lastDate;
+  private volatile float progress;
+
+  /**
+   * Constructor for SplitProgress object.
+   * @param requests The number of requests split is read by
+   * @param timeRange The time range of split, null if date preset is requested
+   */
+  public SplitProgress(int requests, @Nullable DateRange timeRange) {
+    this.requests = Math.max(requests, 1);
+    this.timeRange = timeRange;
+  }
+
+  /**
+   * Accounts page read by record reader.
+   * @param page The records of page
+   * @param completedRequests The number of requests, which pages were all fetched
+   */
+  public void onPage(List<StructuredRecord> page, int completedRequests) {
+    if (completedRequests > this.completedRequests) {
+      this.completedRequestsPages += requestPages;
+      this.completedRequests = completedRequests;
+      requestPages = 0;
+      lastDate = null;
+    }
+    requestPages++;
+    if (!page.isEmpty()) {
+      LocalDate date = getDate(page.get(page.size() - 1));
+      if (date != null && (lastDate == null || date.isAfter(lastDate))) {
+        lastDate = date;
+      }
+    }
+    float estimate = Math.min(this.completedRequests + getRequestProgress(), requests) / requests;
+    progress = Math.max(progress, Math.min(estimate, 1));
+  }
+
+  /**
+   * Marks all pages of split as read.
+   */
+  public void onEnd() {
+    progress = 1;
+  }
+
+  public float getProgress() {
+    return progress;
+  }
+
+  private float getRequestProgress() {
+    // rows are returned per day only if dates differ, rows of one day are returned after rows of previous days
+    if (timeRange != null && lastDate != null && lastDate.isAfter(timeRange.getSince())) {
+      return (float) ChronoUnit.DAYS.between(timeRange.getSince(), lastDate) / timeRange.getDays();
+    }
+    if (completedRequests > 0) {
+      float averagePages = (float) completedRequestsPages / completedRequests;
+      return Math.min(requestPages / averagePages, 0.99f);
+    }
+    // nothing is known about the size of response, progress approaches completion of request with every page
+    return (float) requestPages / (requestPages + HALF_READ_PAGES);
+  }
+
+  @Nullable
+  private static LocalDate getDate(StructuredRecord record) {
+    if (record.getSchema().getField(DATE_FIELD) == null) {
+      return null;
+    }
+    Object value = record.get(DATE_FIELD);
+    if (value instanceof String) {
+      return LocalDate.parse((String) value);
+    }
+    if (value instanceof Integer) {
+      return LocalDate.ofEpochDay((Integer) value);
+    }
+    return null;
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import com.google.common.io.ByteStreams;
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+/**
+ * Keeps rows, pages and request time of objects per day, one file per object in stats directory. Readers record
+ * statistics of their splits to pending files, which are merged into files of objects at the end of run. Split
+ * statistics are shared evenly by its objects and days. Directory may be on any file system supported by Hadoop.
+ */
+public class StatsStore {
+  private static final Logger LOG = LoggerFactory.getLogger(StatsStore.class);
+  /**
+   * Number of the most recent days kept per object.
+   */
+  static final int RETAINED_DAYS = 90;
+  private static final String PENDING_DIRECTORY = "pending";
+
+  private final Path directory;
+  private final Configuration conf;
+
+  public StatsStore(String directory, Configuration conf) {
+    this.directory = new Path(directory);
+    this.conf = conf;
+  }
+
+  /**
+   * Records statistics of completely read split, they are merged into statistics of objects by {@link #merge()}.
+   * @param objectType The type of split objects
+   * @param objectIds The ids of split objects
+   * @param timeRange The time range of split
+   * @param rows The number of rows read
+   * @param pages The number of pages read
+   * @param millis The time spent reading split
+   * @throws IOException if statistics can't be written
+   */
+  public void recordSplit(ObjectType objectType, List<String> objectIds, DateRange timeRange, long rows, long pages,
+                          long millis) throws IOException {
+    StringBuilder split = new StringBuilder()
+      .append(String.join(",", objectType.getLevel(), timeRange.toString(), Long.toString(rows),
+                          Long.toString(pages), Long.toString(millis)))
+      .append('\n');
+    objectIds.forEach(objectId -> split.append(objectId).append('\n'));
+    Path pendingDirectory = new Path(directory, PENDING_DIRECTORY);
+    String name = UUID.randomUUID().toString();
+    // file is hidden from merge until it is complete
+    Path tempPath = new Path(pendingDirectory, "_" + name);
+    FileSystem fileSystem = tempPath.getFileSystem(conf);
+    fileSystem.mkdirs(pendingDirectory);
+    try (OutputStream out = fileSystem.create(tempPath, false)) {
+      out.write(split.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    if (!fileSystem.rename(tempPath, new Path(pendingDirectory, name))) {
+      throw new IOException(String.format("Failed to rename '%s'.", tempPath));
+    }
+  }
+
+  /**
+   * Merges pending statistics of splits into statistics of objects. Statistics of day recorded by run replace the
+   * ones recorded by previous runs.
+   * @throws IOException if statistics can't be read or written
+   */
+  public void merge() throws IOException {
+    Path pendingDirectory = new Path(directory, PENDING_DIRECTORY);
+    FileSystem fileSystem = pendingDirectory.getFileSystem(conf);
+    if (!fileSystem.exists(pendingDirectory)) {
+      return;
+    }
+    FileStatus[] pendingFiles = fileSystem.listStatus(pendingDirectory,
+                                                      path -> !path.getName().startsWith("_"));
+    Map<String, Map<LocalDate, double[]>> objectDays = new HashMap<>();
+    for (FileStatus pendingFile : pendingFiles) {
+      try {
+        addSplit(read(fileSystem, pendingFile.getPath()), objectDays);
+      } catch (RuntimeException e) {
+        LOG.warn("Skipping invalid split statistics '{}'.", pendingFile.getPath(), e);
+      }
+    }
+    for (Map.Entry<String, Map<LocalDate, double[]>> object : objectDays.entrySet()) {
+      Path path = new Path(directory, object.getKey());
+      TreeMap<LocalDate, double[]> days = readDays(fileSystem, path);
+      days.putAll(object.getValue());
+      while (days.size() > RETAINED_DAYS) {
+        days.pollFirstEntry();
+      }
+      writeDays(fileSystem, path, days);
+    }
+    for (FileStatus pendingFile : pendingFiles) {
+      fileSystem.delete(pendingFile.getPath(), false);
+    }
+  }
+
+  /**
+   * Shares statistics of split evenly by its objects and days.
+   */
+  private static void addSplit(String split, Map<String, Map<LocalDate, double[]>> objectDays) {
+    String[] lines = split.split("\n");
+    String[] header = lines[0].split(",");
+    DateRange timeRange = DateRange.parse(header[1]);
+    double share = 1.0 / (lines.length - 1) / timeRange.getDays();
+    double[] total = {Double.parseDouble(header[2]), Double.parseDouble(header[3]), Double.parseDouble(header[4])};
+    for (int i = 1; i < lines.length; i++) {
+      Map<LocalDate, double[]> days = objectDays.computeIfAbsent(header[0] + "_" + lines[i], key -> new HashMap<>());
+      for (DateRange day : timeRange.slice(1)) {
+        double[] dayStats = days.computeIfAbsent(day.getSince(), key -> new double[total.length]);
+        for (int stat = 0; stat < total.length; stat++) {
+          dayStats[stat] += total[stat] * share;
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads average statistics of one day of object.
+   * @param objectType The type of object
+   * @param objectId The id of object
+   * @return The statistics, null if object was not read yet
+   * @throws IOException if statistics can't be read
+   */
+  @Nullable
+  public ObjectStats read(ObjectType objectType, String objectId) throws IOException {
+    Path path = new Path(directory, objectType.getLevel() + "_" + objectId);
+    TreeMap<LocalDate, double[]> days = readDays(path.getFileSystem(conf), path);
+    if (days.isEmpty()) {
+      return null;
+    }
+    double[] total = new double[3];
+    for (double[] dayStats : days.values()) {
+      for (int stat = 0; stat < total.length; stat++) {
+        total[stat] += dayStats[stat];
+      }
+    }
+    return new ObjectStats(total[0] / days.size(), total[1] / days.size(), total[2] / days.size());
+  }
+
+  private static TreeMap<LocalDate, double[]> readDays(FileSystem fileSystem, Path path) throws IOException {
+    TreeMap<LocalDate, double[]> days = new TreeMap<>();
+    if (!fileSystem.exists(path)) {
+      return days;
+    }
+    for (String line : read(fileSystem, path).split("\n")) {
+      if (line.isEmpty()) {
+        continue;
+      }
+      String[] values = line.split(",");
+      days.put(LocalDate.parse(values[0]),
+               new double[]{Double.parseDouble(values[1]), Double.parseDouble(values[2]),
+                 Double.parseDouble(values[3])});
+    }
+    return days;
+  }
+
+  private static void writeDays(FileSystem fileSystem, Path path, Map<LocalDate, double[]> days) throws IOException {
+    List<String> lines = new ArrayList<>();
+    days.forEach((day, stats) -> lines.add(String.format("%s,%s,%s,%s", day, stats[0], stats[1], stats[2])));
+    Path tempPath = path.suffix(".tmp");
+    try (OutputStream out = fileSystem.create(tempPath, true)) {
+      out.write(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+    // rename doesn't replace existing file on all file systems
+    fileSystem.delete(path, false);
+    if (!fileSystem.rename(tempPath, path)) {
+      throw new IOException(String.format("Failed to rename '%s' to '%s'.", tempPath, path));
+    }
+  }
+
+  private static String read(FileSystem fileSystem, Path path) throws IOException {
+    try (InputStream in = fileSystem.open(path)) {
+      return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import com.facebook.ads.sdk.APIException;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.plugin.facebook.source.common.InsightsPage;
+import io.cdap.plugin.facebook.source.common.InsightsRecordPlan;
+import io.cdap.plugin.facebook.source.common.requests.Retryer;
+import io.cdap.plugin.facebook.source.common.requests.StreamingInsightsRequest;
+
+import java.io.IOException;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Fetches pages of streaming request in caller thread, pages are parsed to records while they are received.
+ * Failed page is requested again from the cursor of the previous page.
+ */
+public class StreamingPageSource implements PageSource {
+  private final StreamingInsightsRequest request;
+  private final Retryer retryer;
+  private final InsightsRecordPlan plan;
+  private final boolean cutTooLarge;
+  private String after;
+  private boolean exhausted;
+
+  /**
+   * Constructor for StreamingPageSource object.
+   * @param request The request
+   * @param retryer The retryer of failed pages
+   * @param plan The plan of records
+   * @param cutTooLarge Whether caller cuts request failed as too large, see {@link Retryer#callFirst}, so read
+   *                    timeout of the first page is not retried
+   */
+  public StreamingPageSource(StreamingInsightsRequest request, Retryer retryer, InsightsRecordPlan plan,
+                             boolean cutTooLarge) {
+    this.request = request;
+    this.retryer = retryer;
+    this.plan = plan;
+    this.cutTooLarge = cutTooLarge;
+  }
+
+  @Nullable
+  @Override
+  public List<StructuredRecord> nextPage() throws IOException {
+    if (exhausted) {
+      return null;
+    }
+    InsightsPage page;
+    try {
+      page = after == null && cutTooLarge
+        ? retryer.callFirst(() -> request.execute(null, plan))
+        : retryer.call(() -> request.execute(after, plan));
+    } catch (APIException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+    after = page.getAfter();
+    exhausted = after == null;
+    return page.getRecords();
+  }
+
+  @Override
+  public void close() {
+
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+/**
+ * Limits of requests, which split is read by after its requests failed as too large. Objects are requested in groups
+ * of at most {@link #getMaxObjects()}, single object is replaced by its children of {@link #getChildType()} requested
+ * in groups of at most {@link #getMaxChildren()} and time range is requested in slices of at most
+ * {@link #getMaxDays()} days. Zero limit means no limit.
+ */
+public class Subdivision {
+  public static final Subdivision NONE = new Subdivision(0, 0, null, 0);
+
+  private final int maxDays;
+  private final int maxObjects;
+  private final ObjectType childType;
+  private final int maxChildren;
+
+  public Subdivision(int maxDays, int maxObjects, @Nullable ObjectType childType, int maxChildren) {
+    this.maxDays = maxDays;
+    this.maxObjects = maxObjects;
+    this.childType = childType;
+    this.maxChildren = maxChildren;
+  }
+
+  public int getMaxDays() {
+    return maxDays;
+  }
+
+  public int getMaxObjects() {
+    return maxObjects;
+  }
+
+  @Nullable
+  public ObjectType getChildType() {
+    return childType;
+  }
+
+  public int getMaxChildren() {
+    return maxChildren;
+  }
+
+  /**
+   * Returns subdivision, which requests at most given number of days.
+   */
+  public Subdivision withMaxDays(int days) {
+    return new Subdivision(min(maxDays, days), maxObjects, childType, maxChildren);
+  }
+
+  /**
+   * Returns subdivision, which requests at most given number of objects.
+   */
+  public Subdivision withMaxObjects(int objects) {
+    return new Subdivision(maxDays, min(maxObjects, objects), childType, maxChildren);
+  }
+
+  /**
+   * Returns subdivision, which replaces single object by its children of given type.
+   */
+  public Subdivision withChildType(ObjectType childType) {
+    return new Subdivision(maxDays, maxObjects, childType, maxChildren);
+  }
+
+  /**
+   * Returns subdivision, which requests at most given number of children.
+   */
+  public Subdivision withMaxChildren(int children) {
+    return new Subdivision(maxDays, maxObjects, childType, min(maxChildren, children));
+  }
+
+  private static int min(int limit, int value) {
+    return limit == 0 ? value : Math.min(limit, value);
+  }
+
+  /**
+   * Parses subdivision in the format returned by {@link #toString()}.
+   * @param value The string in 'maxDays,maxObjects,childLevel,maxChildren' format, child level may be empty
+   * @return The subdivision
+   */
+  public static Subdivision parse(String value) {
+    String[] parts = value.trim().split(",", -1);
+    if (parts.length != 4) {
+      throw new IllegalArgumentException(String.format("'%s' is invalid subdivision.", value));
+    }
+    return new Subdivision(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                           parts[2].isEmpty() ? null : ObjectType.fromLevel(parts[2]), Integer.parseInt(parts[3]));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    Subdivision that = (Subdivision) o;
+    return maxDays == that.maxDays && maxObjects == that.maxObjects && childType == that.childType
+      && maxChildren == that.maxChildren;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(maxDays, maxObjects, childType, maxChildren);
+  }
+
+  @Override
+  public String toString() {
+    return maxDays + "," + maxObjects + "," + (childType == null ? "" : childType.getLevel()) + "," + maxChildren;
+  }
+}
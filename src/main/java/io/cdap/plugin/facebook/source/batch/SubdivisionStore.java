@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps subdivisions of splits, which were too large to be read by single request, so next runs read them by
+ * smaller requests right away. Subdivision is kept per objects of split, one file per object or list of objects.
+ * Directory may be on any file system supported by Hadoop.
+ */
+public class SubdivisionStore {
+  private final Path directory;
+  private final Configuration conf;
+
+  public SubdivisionStore(String directory, Configuration conf) {
+    this.directory = new Path(directory);
+    this.conf = conf;
+  }
+
+  /**
+   * Reads subdivision of objects.
+   * @param objectType The type of objects
+   * @param objectIds The ids of objects
+   * @return The subdivision, {@link Subdivision#NONE} if objects were not subdivided
+   * @throws IOException if subdivision can't be read
+   */
+  public Subdivision read(ObjectType objectType, List<String> objectIds) throws IOException {
+    Path path = getPath(objectType, objectIds);
+    FileSystem fileSystem = path.getFileSystem(conf);
+    if (!fileSystem.exists(path)) {
+      return Subdivision.NONE;
+    }
+    try (InputStream in = fileSystem.open(path)) {
+      return Subdivision.parse(new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Writes subdivision of objects, replacing the previous one. Splits of the same objects may write concurrently,
+   * subdivision written last is kept.
+   * @param objectType The type of objects
+   * @param objectIds The ids of objects
+   * @param subdivision The subdivision
+   * @throws IOException if subdivision can't be written
+   */
+  public void write(ObjectType objectType, List<String> objectIds, Subdivision subdivision) throws IOException {
+    Path path = getPath(objectType, objectIds);
+    Path tempPath = path.suffix("." + UUID.randomUUID() + ".tmp");
+    FileSystem fileSystem = path.getFileSystem(conf);
+    fileSystem.mkdirs(directory);
+    try (OutputStream out = fileSystem.create(tempPath, true)) {
+      out.write(subdivision.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    // rename doesn't replace existing file on all file systems
+    fileSystem.delete(path, false);
+    if (!fileSystem.rename(tempPath, path)) {
+      fileSystem.delete(tempPath, false);
+      throw new IOException(String.format("Failed to rename '%s' to '%s'.", tempPath, path));
+    }
+  }
+
+  private Path getPath(ObjectType objectType, List<String> objectIds) {
+    if (objectIds.size() == 1) {
+      return new Path(directory, objectType.getLevel() + "_" + objectIds.get(0));
+    }
+    // lists are named by hash of ids, the same list is planned in any order
+    List<String> sortedIds = new ArrayList<>(objectIds);
+    Collections.sort(sortedIds);
+    String hash = Hashing.murmur3_128().hashString(String.join(",", sortedIds), StandardCharsets.UTF_8).toString();
+    return new Path(directory, objectType.getLevel() + "s_" + hash);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import com.google.common.io.ByteStreams;
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the last date fully extracted by incremental runs, one file per object in state directory. Directory may
+ * be on any file system supported by Hadoop.
+ */
+public class WatermarkStore {
+  private final Path directory;
+  private final Configuration conf;
+
+  public WatermarkStore(String directory, Configuration conf) {
+    this.directory = new Path(directory);
+    this.conf = conf;
+  }
+
+  /**
+   * Reads watermark of given object.
+   * @param objectType The type of object
+   * @param objectId The id of object
+   * @return The last extracted date, null if object was not extracted yet
+   * @throws IOException if watermark can't be read
+   */
+  @Nullable
+  public LocalDate read(ObjectType objectType, String objectId) throws IOException {
+    Path path = getPath(objectType, objectId);
+    FileSystem fileSystem = path.getFileSystem(conf);
+    if (!fileSystem.exists(path)) {
+      return null;
+    }
+    try (InputStream in = fileSystem.open(path)) {
+      return LocalDate.parse(new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8).trim());
+    }
+  }
+
+  /**
+   * Writes watermark of given object, replacing the previous one.
+   * @param objectType The type of object
+   * @param objectId The id of object
+   * @param date The last extracted date
+   * @throws IOException if watermark can't be written
+   */
+  public void write(ObjectType objectType, String objectId, LocalDate date) throws IOException {
+    Path path = getPath(objectType, objectId);
+    Path tempPath = path.suffix(".tmp");
+    FileSystem fileSystem = path.getFileSystem(conf);
+    fileSystem.mkdirs(directory);
+    try (OutputStream out = fileSystem.create(tempPath, true)) {
+      out.write(date.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    // rename doesn't replace existing file on all file systems
+    fileSystem.delete(path, false);
+    if (!fileSystem.rename(tempPath, path)) {
+      throw new IOException(String.format("Failed to rename '%s' to '%s'.", tempPath, path));
+    }
+  }
+
+  private Path getPath(ObjectType objectType, String objectId) {
+    return new Path(directory, objectType.getLevel() + "_" + objectId);
+  }
+
+  /**
+   * Returns part of configured range, which is requested by incremental run. These are days after watermark and
+   * lookback days before it, since recent days are restated by attribution.
+   * @param configured The configured range
+   * @param watermark The last extracted date, null if object was not extracted yet
+   * @param lookbackDays The number of extracted days requested again
+   * @return The range, null if there is nothing to request
+   */
+  @Nullable
+  static DateRange getDeltaRange(DateRange configured, @Nullable LocalDate watermark, int lookbackDays) {
+    if (watermark == null) {
+      return configured;
+    }
+    LocalDate since = watermark.plusDays(1).minusDays(lookbackDays);
+    if (since.isBefore(configured.getSince())) {
+      since = configured.getSince();
+    }
+    if (since.isAfter(configured.getUntil())) {
+      return null;
+    }
+    return new DateRange(since, configured.getUntil());
+  }
+
+  /**
+   * Returns watermark after successful run. Current day is not complete yet, so it is not included.
+   * @param deltaRange The range requested by run
+   * @param watermark The watermark before run, null if object was not extracted yet
+   * @param today The current date
+   * @return The new watermark, null if no complete day was extracted
+   */
+  @Nullable
+  static LocalDate getNextWatermark(DateRange deltaRange, @Nullable LocalDate watermark, LocalDate today) {
+    LocalDate extractedUntil = deltaRange.getUntil().isBefore(today) ? deltaRange.getUntil() : today.minusDays(1);
+    if (extractedUntil.isBefore(deltaRange.getSince())) {
+      return watermark;
+    }
+    if (watermark != null && watermark.isAfter(extractedUntil)) {
+      return watermark;
+    }
+    return extractedUntil;
+  }
+}
@@ -17,70 +17,52 @@
 package io.cdap.plugin.facebook.source.common;
 
 import com.facebook.ads.sdk.AdsInsights;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import io.cdap.cdap.api.data.format.StructuredRecord;
-import io.cdap.cdap.api.data.schema.Schema;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.Map;
+import javax.annotation.Nullable;
 
 /**
  * This is helper class for transforming {@link AdsInsights} instance to {@link StructuredRecord}.
  */
 public class AdsInsightsTransformer {
   /**
-   * Transforms {@link AdsInsights} instance to {@link StructuredRecord} instance accordingly to given schema.
+   * Transforms {@link AdsInsights} instance to {@link StructuredRecord} instance accordingly to given plan.
    */
-  public static StructuredRecord transform(AdsInsights insights, Schema schema) {
-    StructuredRecord.Builder builder = StructuredRecord.builder(schema);
-    JsonObject insightsJson = insights.getRawResponseAsJsonObject();
-    insightsJson.entrySet().forEach(entry -> {
-      if (schemaContainsField(schema, entry.getKey())) {
-        Schema fieldSchema = schema.getField(entry.getKey()).getSchema();
-
-        if (fieldSchema.isNullable()) {
-          fieldSchema = fieldSchema.getNonNullable();
-        }
-
-        /**
-         * TODO - https://issues.cask.co/browse/PLUGIN-365
-         * Implement support for other types like Integer, Double , timestamp
-         */
-        switch (fieldSchema.getType()) {
-          case STRING:
-            builder.set(entry.getKey(), entry.getValue().getAsJsonPrimitive().getAsString());
-            break;
-          case RECORD:
-            builder.set(entry.getKey(), fromJsonObject(fieldSchema, entry.getValue().getAsJsonObject()));
-            break;
-          case ARRAY:
-            Schema componentSchema = fieldSchema.getComponentSchema();
-            List<StructuredRecord> records = StreamSupport
-              .stream(entry.getValue().getAsJsonArray().spliterator(), false)
-              .map(jsonElement -> fromJsonObject(componentSchema, jsonElement.getAsJsonObject()))
-              .collect(Collectors.toList());
-            builder.set(entry.getKey(), records);
-            break;
-        }
-      }
-    });
-
-    return builder.build();
+  public static StructuredRecord transform(AdsInsights insights, InsightsRecordPlan plan) {
+    return fromJsonObject(plan, insights.getRawResponseAsJsonObject());
   }
 
-  private static StructuredRecord fromJsonObject(Schema schema, JsonObject object) {
-    StructuredRecord.Builder builder = StructuredRecord.builder(schema);
-    object.entrySet().forEach(entry -> {
-      String fieldName = SchemaHelper.fieldNameToSchemaName(entry.getKey());
-      if (schemaContainsField(schema, fieldName)) {
-        builder.set(fieldName, entry.getValue().getAsJsonPrimitive().getAsString());
+  private static StructuredRecord fromJsonObject(InsightsRecordPlan plan, JsonObject object) {
+    StructuredRecord.Builder builder = StructuredRecord.builder(plan.getSchema());
+    for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+      InsightsRecordPlan.FieldMapping mapping = plan.get(entry.getKey());
+      if (mapping != null && !entry.getValue().isJsonNull()) {
+        builder.set(mapping.getName(), toValue(mapping, entry.getValue()));
       }
-    });
+    }
     return builder.build();
   }
 
-  private static boolean schemaContainsField(Schema schema, String fieldName) {
-    return schema.getFields().stream().anyMatch(field -> field.getName().equals(fieldName));
+  @Nullable
+  private static Object toValue(InsightsRecordPlan.FieldMapping mapping, JsonElement element) {
+    switch (mapping.getKind()) {
+      case RECORD:
+        return fromJsonObject(mapping.getNested(), element.getAsJsonObject());
+      case ARRAY:
+        JsonArray array = element.getAsJsonArray();
+        List<StructuredRecord> records = new ArrayList<>(array.size());
+        for (JsonElement item : array) {
+          records.add(fromJsonObject(mapping.getNested(), item.getAsJsonObject()));
+        }
+        return records;
+      default:
+        return mapping.getConverter().convert(element.getAsJsonPrimitive().getAsString());
+    }
   }
 }
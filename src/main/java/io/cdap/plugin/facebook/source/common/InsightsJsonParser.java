@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Parses insights response page token by token, setting values directly to records. Produces the same records
+ * as {@link AdsInsightsTransformer} does for {@link com.facebook.ads.sdk.AdsInsights} objects.
+ */
+public class InsightsJsonParser {
+  private static final JsonParser jsonParser = new JsonParser();
+
+  /**
+   * Parses page of insights response.
+   * <p>
+   * Response has the following format:
+   * {"data": [{...}, {...}], "paging": {"cursors": {"before": "...", "after": "..."}, "next": "..."}}
+   * @param reader The reader of response body
+   * @param plan The compiled schema of records
+   * @return The page
+   * @throws IOException if response can't be read or parsed
+   */
+  public static InsightsPage parsePage(Reader reader, InsightsRecordPlan plan) throws IOException {
+    List<StructuredRecord> records = new ArrayList<>();
+    String after = null;
+    boolean hasNext = false;
+
+    JsonReader json = new JsonReader(reader);
+    json.beginObject();
+    while (json.hasNext()) {
+      switch (json.nextName()) {
+        case "data":
+          json.beginArray();
+          while (json.hasNext()) {
+            records.add(readRecord(json, plan));
+          }
+          json.endArray();
+          break;
+        case "paging":
+          json.beginObject();
+          while (json.hasNext()) {
+            switch (json.nextName()) {
+              case "cursors":
+                after = readAfterCursor(json);
+                break;
+              case "next":
+                hasNext = true;
+                json.skipValue();
+                break;
+              default:
+                json.skipValue();
+            }
+          }
+          json.endObject();
+          break;
+        default:
+          json.skipValue();
+      }
+    }
+    json.endObject();
+
+    // cursors are returned for the last page too, only 'next' link tells if there are more pages
+    return new InsightsPage(records, hasNext ? after : null);
+  }
+
+  @Nullable
+  private static String readAfterCursor(JsonReader json) throws IOException {
+    String after = null;
+    json.beginObject();
+    while (json.hasNext()) {
+      if ("after".equals(json.nextName())) {
+        after = readString(json);
+      } else {
+        json.skipValue();
+      }
+    }
+    json.endObject();
+    return after;
+  }
+
+  private static StructuredRecord readRecord(JsonReader json, InsightsRecordPlan plan) throws IOException {
+    StructuredRecord.Builder builder = StructuredRecord.builder(plan.getSchema());
+    json.beginObject();
+    while (json.hasNext()) {
+      InsightsRecordPlan.FieldMapping mapping = plan.get(json.nextName());
+      if (mapping == null) {
+        json.skipValue();
+        continue;
+      }
+      switch (mapping.getKind()) {
+        case RECORD:
+          builder.set(mapping.getName(), readNestedRecord(json, mapping.getNested()));
+          break;
+        case ARRAY:
+          builder.set(mapping.getName(), readNestedRecords(json, mapping.getNested()));
+          break;
+        default:
+          builder.set(mapping.getName(), readValue(json, mapping));
+      }
+    }
+    json.endObject();
+    return builder.build();
+  }
+
+  @Nullable
+  private static List<StructuredRecord> readNestedRecords(JsonReader json, InsightsRecordPlan plan)
+    throws IOException {
+    if (json.peek() == JsonToken.NULL) {
+      json.nextNull();
+      return null;
+    }
+    List<StructuredRecord> records = new ArrayList<>();
+    json.beginArray();
+    while (json.hasNext()) {
+      records.add(readNestedRecord(json, plan));
+    }
+    json.endArray();
+    return records;
+  }
+
+  @Nullable
+  private static StructuredRecord readNestedRecord(JsonReader json, InsightsRecordPlan plan) throws IOException {
+    if (json.peek() == JsonToken.NULL) {
+      json.nextNull();
+      return null;
+    }
+    StructuredRecord.Builder builder = StructuredRecord.builder(plan.getSchema());
+    json.beginObject();
+    while (json.hasNext()) {
+      InsightsRecordPlan.FieldMapping mapping = plan.get(json.nextName());
+      if (mapping != null) {
+        builder.set(mapping.getName(), readValue(json, mapping));
+      } else {
+        json.skipValue();
+      }
+    }
+    json.endObject();
+    return builder.build();
+  }
+
+  @Nullable
+  private static Object readValue(JsonReader json, InsightsRecordPlan.FieldMapping mapping) throws IOException {
+    String value = readString(json);
+    return value == null ? null : mapping.getConverter().convert(value);
+  }
+
+  @Nullable
+  private static String readString(JsonReader json) throws IOException {
+    switch (json.peek()) {
+      case NULL:
+        json.nextNull();
+        return null;
+      case BOOLEAN:
+        return String.valueOf(json.nextBoolean());
+      case BEGIN_OBJECT:
+      case BEGIN_ARRAY:
+        return jsonParser.parse(json).toString();
+      default:
+        // numbers are returned as they are written in response
+        return json.nextString();
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Page of insights response, parsed to records.
+ */
+public class InsightsPage {
+  private final List<StructuredRecord> records;
+  private final String after;
+
+  /**
+   * Constructor for InsightsPage object.
+   * @param records The records of page
+   * @param after The cursor of next page, null if this page is the last one
+   */
+  public InsightsPage(List<StructuredRecord> records, @Nullable String after) {
+    this.records = records;
+    this.after = after;
+  }
+
+  public List<StructuredRecord> getRecords() {
+    return records;
+  }
+
+  @Nullable
+  public String getAfter() {
+    return after;
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common;
+
+import io.cdap.cdap.api.data.schema.Schema;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Output schema compiled to a hashed lookup from api field name to the schema field it is written to, together
+ * with the way value is converted and the plan of nested records. Plan is compiled once per task, so records are
+ * built without scanning schema fields or renaming api fields for every value.
+ */
+public class InsightsRecordPlan {
+  private final Schema schema;
+  private final Map<String, FieldMapping> mappings;
+
+  private InsightsRecordPlan(Schema schema, Map<String, FieldMapping> mappings) {
+    this.schema = schema;
+    this.mappings = mappings;
+  }
+
+  /**
+   * Compiles plan of records of given schema.
+   * @param schema The schema of insights records
+   * @return The plan
+   */
+  public static InsightsRecordPlan compile(Schema schema) {
+    return compile(schema, false);
+  }
+
+  private static InsightsRecordPlan compile(Schema schema, boolean nested) {
+    Map<String, FieldMapping> mappings = new HashMap<>();
+    for (Schema.Field field : schema.getFields()) {
+      FieldMapping mapping = createMapping(field, nested);
+      if (mapping == null) {
+        continue;
+      }
+      mappings.put(field.getName(), mapping);
+      if (nested) {
+        // fields of nested records are renamed, since some of api names are not valid schema names
+        for (String apiName : SchemaHelper.schemaNameToFieldNames(field.getName())) {
+          mappings.put(apiName, mapping);
+        }
+      }
+    }
+    return new InsightsRecordPlan(schema, mappings);
+  }
+
+  @Nullable
+  private static FieldMapping createMapping(Schema.Field field, boolean nested) {
+    Schema fieldSchema = field.getSchema().isNullable() ? field.getSchema().getNonNullable() : field.getSchema();
+    if (nested) {
+      // values of nested records are always set as strings
+      return new FieldMapping(field.getName(), Kind.VALUE, value -> value, null);
+    }
+    if (fieldSchema.getLogicalType() == Schema.LogicalType.DATE) {
+      return new FieldMapping(field.getName(), Kind.VALUE, ValueParser::parseEpochDay, null);
+    }
+    switch (fieldSchema.getType()) {
+      case LONG:
+        return new FieldMapping(field.getName(), Kind.VALUE, ValueParser::parseLong, null);
+      case DOUBLE:
+        return new FieldMapping(field.getName(), Kind.VALUE, ValueParser::parseDouble, null);
+      case STRING:
+        return new FieldMapping(field.getName(), Kind.VALUE, value -> value, null);
+      case RECORD:
+        return new FieldMapping(field.getName(), Kind.RECORD, null, compile(fieldSchema, true));
+      case ARRAY:
+        return new FieldMapping(field.getName(), Kind.ARRAY, null, compile(fieldSchema.getComponentSchema(), true));
+      default:
+        return null;
+    }
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Returns mapping of given api field.
+   * @param apiName The name of field in api response
+   * @return The mapping, null if field is not part of schema
+   */
+  @Nullable
+  public FieldMapping get(String apiName) {
+    return mappings.get(apiName);
+  }
+
+  /**
+   * Kind of value schema field holds.
+   */
+  public enum Kind {
+    VALUE,
+    RECORD,
+    ARRAY
+  }
+
+  /**
+   * Converts string representation of api value to the value of schema field.
+   */
+  public interface Converter {
+    Object convert(String value);
+  }
+
+  /**
+   * Mapping of api field to schema field.
+   */
+  public static class FieldMapping {
+    private final String name;
+    private final Kind kind;
+    private final Converter converter;
+    private final InsightsRecordPlan nested;
+
+    private FieldMapping(String name, Kind kind, @Nullable Converter converter, @Nullable InsightsRecordPlan nested) {
+      this.name = name;
+      this.kind = kind;
+      this.converter = converter;
+      this.nested = nested;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * Returns converter of {@link Kind#VALUE} fields.
+     */
+    public Converter getConverter() {
+      return converter;
+    }
+
+    /**
+     * Returns plan of the record or of array elements for {@link Kind#RECORD} and {@link Kind#ARRAY} fields.
+     */
+    public InsightsRecordPlan getNested() {
+      return nested;
+    }
+  }
+}
@@ -16,23 +16,37 @@
 
 package io.cdap.plugin.facebook.source.common;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.plugin.facebook.source.common.config.Breakdowns;
+import io.cdap.plugin.facebook.source.common.config.SchemaMode;
 import io.cdap.plugin.facebook.source.common.exceptions.IllegalInsightsFieldException;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Helper class to map Facebook Insights fields sets to final {@link Schema}.
  */
 public class SchemaHelper {
+  private static final int SCHEMA_CACHE_SIZE = 100;
+
+  /**
+   * Schemas built for the same fields, breakdowns and schema mode, so configs of the same pipeline share one
+   * schema instance.
+   */
+  private static final Cache<List<Object>, Schema> SCHEMA_CACHE = CacheBuilder.newBuilder()
+    .maximumSize(SCHEMA_CACHE_SIZE)
+    .build();
+
   /**
    * Returns selected Schema.
    * @param fields The fields
@@ -40,6 +54,31 @@ public class SchemaHelper {
    * @return The instance of Schema
    */
   public static Schema buildSchema(List<String> fields, Breakdowns breakdowns) {
+    return buildSchema(fields, breakdowns, SchemaMode.Strings);
+  }
+
+  /**
+   * Returns selected Schema.
+   * @param fields The fields
+   * @param breakdowns The breakdowns
+   * @param schemaMode The types of fields
+   * @return The instance of Schema
+   */
+  public static Schema buildSchema(List<String> fields, Breakdowns breakdowns, SchemaMode schemaMode) {
+    List<Object> key = Arrays.asList(
+      ImmutableList.copyOf(fields),
+      breakdowns == null ? null : ImmutableList.copyOf(breakdowns.getBreakdowns()),
+      breakdowns == null ? null : ImmutableList.copyOf(breakdowns.getActionBreakdowns()),
+      schemaMode);
+    Schema schema = SCHEMA_CACHE.getIfPresent(key);
+    if (schema == null) {
+      schema = createSchema(fields, breakdowns, schemaMode);
+      SCHEMA_CACHE.put(key, schema);
+    }
+    return schema;
+  }
+
+  private static Schema createSchema(List<String> fields, Breakdowns breakdowns, SchemaMode schemaMode) {
     Set<String> schemaFields = Sets.newHashSet(fields);
     // ensure that fields introduced by breakdowns added to schema
     if (breakdowns != null) {
@@ -60,7 +99,7 @@ public class SchemaHelper {
     }
     return Schema.recordOf(
       "FacebookAdsInsights",
-      schemaFields.stream().map(SchemaHelper::fromName).collect(Collectors.toList()));
+      schemaFields.stream().map(name -> fromName(name, schemaMode)).collect(Collectors.toList()));
   }
 
   private static final Map<String, String> API_FIELD_NAME_TO_SCHEMA_NAME = ImmutableMap.<String, String>builder()
@@ -72,36 +111,42 @@ public class SchemaHelper {
     .put("7d_view", "view_7d")
     .build();
 
-  static Schema createAddActionStatsSchema() {
-    return Schema.recordOf(
-      UUID.randomUUID().toString().replace("-", ""),
-      Schema.Field.of("click_1d", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("view_1d", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("click_28d", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("view_28d", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("click_7d", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("view_7d", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_canvas_component_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_canvas_component_name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_carousel_card_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_carousel_card_name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_converted_product_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_destination", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_device", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_event_channel", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_link_click_destination", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_location_code", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_reaction", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_target_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_type", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_video_asset_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_video_sound", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("action_video_type", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("inline", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("interactive_component_sticker_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("interactive_component_sticker_response", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("value", Schema.nullableOf(Schema.of(Schema.Type.STRING)))
-    );
+  /**
+   * Schema of action stats records shared by all action stats fields. Record name is fixed, so structurally equal
+   * schemas are equal and have the same fingerprint in every run.
+   */
+  private static final Schema ACTION_STATS_SCHEMA = Schema.recordOf(
+    "ActionStats",
+    Schema.Field.of("click_1d", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("view_1d", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("click_28d", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("view_28d", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("click_7d", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("view_7d", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_canvas_component_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_canvas_component_name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_carousel_card_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_carousel_card_name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_converted_product_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_destination", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_device", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_event_channel", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_link_click_destination", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_location_code", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_reaction", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_target_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_type", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_video_asset_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_video_sound", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("action_video_type", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("inline", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("interactive_component_sticker_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("interactive_component_sticker_response", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("value", Schema.nullableOf(Schema.of(Schema.Type.STRING)))
+  );
+
+  static Schema getActionStatsSchema() {
+    return ACTION_STATS_SCHEMA;
   }
 
   /**
@@ -113,6 +158,38 @@ public class SchemaHelper {
     return API_FIELD_NAME_TO_SCHEMA_NAME.getOrDefault(fieldName, fieldName);
   }
 
+  /**
+   * Returns api field names, which are renamed to given schema field name.
+   */
+  static List<String> schemaNameToFieldNames(String schemaName) {
+    return API_FIELD_NAME_TO_SCHEMA_NAME.entrySet().stream()
+      .filter(entry -> entry.getValue().equals(schemaName))
+      .map(Map.Entry::getKey)
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns selected Field.
+   * @param name the name
+   * @param schemaMode the types of fields
+   * @return the field of Schema, counts are longs, money and ratios are doubles and dates are dates in typed mode
+   */
+  public static Schema.Field fromName(String name, SchemaMode schemaMode) {
+    Schema.Field field = fromName(name);
+    if (schemaMode == SchemaMode.Typed) {
+      if (LONG_FIELDS.contains(name)) {
+        return Schema.Field.of(name, Schema.nullableOf(Schema.of(Schema.Type.LONG)));
+      }
+      if (DOUBLE_FIELDS.contains(name)) {
+        return Schema.Field.of(name, Schema.nullableOf(Schema.of(Schema.Type.DOUBLE)));
+      }
+      if (DATE_FIELDS.contains(name)) {
+        return Schema.Field.of(name, Schema.nullableOf(Schema.of(Schema.LogicalType.DATE)));
+      }
+    }
+    return field;
+  }
+
   /**
    * Returns selected Field.
    * @param name the name
@@ -255,7 +332,7 @@ public class SchemaHelper {
         return Schema.Field.of(name, Schema.nullableOf(Schema.of(Schema.Type.STRING)));
       case "actions_results":
       case "cost_per_action_result":
-        return Schema.Field.of(name, Schema.nullableOf(createAddActionStatsSchema()));
+        return Schema.Field.of(name, Schema.nullableOf(getActionStatsSchema()));
       case "action_values":
       case "actions":
       case "ad_click_actions":
@@ -339,12 +416,93 @@ public class SchemaHelper {
       case "video_time_watched_actions":
       case "website_ctr":
       case "website_purchase_roas":
-        return Schema.Field.of(name, Schema.nullableOf(Schema.arrayOf(createAddActionStatsSchema())));
+        return Schema.Field.of(name, Schema.nullableOf(Schema.arrayOf(getActionStatsSchema())));
       default:
         throw new IllegalInsightsFieldException(name);
     }
   }
 
+  /**
+   * Counts, which are integer numbers in typed schema.
+   */
+  private static final Set<String> LONG_FIELDS = ImmutableSet.of(
+    "app_store_clicks",
+    "call_to_action_clicks",
+    "card_views",
+    "clicks",
+    "deeplink_clicks",
+    "earned_impression",
+    "estimated_ad_recallers",
+    "full_view_impressions",
+    "full_view_reach",
+    "impressions",
+    "impressions_auto_refresh",
+    "impressions_gross",
+    "inline_link_clicks",
+    "inline_post_engagement",
+    "instant_experience_clicks_to_open",
+    "instant_experience_clicks_to_start",
+    "instant_experience_outbound_clicks",
+    "newsfeed_clicks",
+    "newsfeed_impressions",
+    "reach",
+    "total_actions",
+    "total_unique_actions",
+    "unique_clicks",
+    "unique_impressions",
+    "unique_inline_link_clicks",
+    "website_clicks"
+  );
+
+  /**
+   * Money amounts and ratios, which are decimal numbers in typed schema.
+   */
+  private static final Set<String> DOUBLE_FIELDS = ImmutableSet.of(
+    "actions_per_impression",
+    "canvas_avg_view_percent",
+    "canvas_avg_view_time",
+    "cost_per_estimated_ad_recallers",
+    "cost_per_inline_link_click",
+    "cost_per_inline_post_engagement",
+    "cost_per_total_action",
+    "cost_per_unique_click",
+    "cost_per_unique_inline_link_click",
+    "cpc",
+    "cpm",
+    "cpp",
+    "ctr",
+    "estimated_ad_recall_rate",
+    "frequency",
+    "inline_link_click_ctr",
+    "social_spend",
+    "spend",
+    "today_spend",
+    "total_action_value",
+    "unique_ctr",
+    "unique_inline_link_click_ctr",
+    "unique_link_clicks_ctr"
+  );
+
+  /**
+   * Dates, which are dates in typed schema.
+   */
+  private static final Set<String> DATE_FIELDS = ImmutableSet.of(
+    "date_start",
+    "date_stop"
+  );
+
+  /**
+   * Fields, which identify the row of insights rather than measure it, together with breakdown fields.
+   */
+  private static final Set<String> KEY_FIELDS = ImmutableSet.of(
+    "date_start",
+    "date_stop",
+    "account_id",
+    "campaign_id",
+    "adset_id",
+    "ad_id"
+  );
+
   /**
    * Breakdowns that will directly introduce field in schema.
    */
@@ -459,6 +617,15 @@ public class SchemaHelper {
     }
   );
 
+  /**
+   * Checks if field identifies the row: it is a date, an object id or a breakdown value.
+   * @param fieldName The field name
+   * @return true if field is part of the row key
+   */
+  public static boolean isKeyField(String fieldName) {
+    return KEY_FIELDS.contains(fieldName) || breakdownsWithFields.contains(fieldName);
+  }
+
   /**
    * Checks if filed name is valid to be passed to "filed" parameter.
    * <p>
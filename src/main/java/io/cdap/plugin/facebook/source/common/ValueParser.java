@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common;
+
+import java.time.LocalDate;
+
+/**
+ * Parses numbers and dates, which API returns as strings. Plain decimal numbers are parsed without intermediate
+ * objects, values in other formats fall back to JDK parsers.
+ */
+public class ValueParser {
+  /**
+   * Maximum number of significant digits, which fit to double mantissa exactly.
+   */
+  private static final int MAX_EXACT_DIGITS = 15;
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+    1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  /**
+   * Parses integer number.
+   * @param value The string representation of number
+   * @return The number
+   * @throws NumberFormatException if value is not an integer number
+   */
+  public static long parseLong(String value) {
+    return Long.parseLong(value);
+  }
+
+  /**
+   * Parses decimal number.
+   * <p>
+   * Numbers with at most 15 significant digits and 22 fraction digits are computed as a single division of exact
+   * integer mantissa by exact power of ten, which gives correctly rounded result, others are parsed by JDK.
+   * @param value The string representation of number
+   * @return The number
+   * @throws NumberFormatException if value is not a number
+   */
+  public static double parseDouble(String value) {
+    int length = value.length();
+    int index = 0;
+    boolean negative = false;
+    if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+      negative = value.charAt(0) == '-';
+      index++;
+    }
+
+    long mantissa = 0;
+    int significantDigits = 0;
+    int scale = 0;
+    boolean hasDigits = false;
+    boolean hasPoint = false;
+    for (; index < length; index++) {
+      char c = value.charAt(index);
+      if (c >= '0' && c <= '9') {
+        hasDigits = true;
+        if (mantissa != 0 || c != '0') {
+          significantDigits++;
+        }
+        if (significantDigits > MAX_EXACT_DIGITS) {
+          return Double.parseDouble(value);
+        }
+        mantissa = mantissa * 10 + (c - '0');
+        if (hasPoint) {
+          scale++;
+        }
+      } else if (c == '.' && !hasPoint) {
+        hasPoint = true;
+      } else {
+        // exponent, special values and malformed numbers
+        return Double.parseDouble(value);
+      }
+    }
+    if (!hasDigits || scale >= POWERS_OF_TEN.length) {
+      return Double.parseDouble(value);
+    }
+
+    double result = scale == 0 ? (double) mantissa : mantissa / POWERS_OF_TEN[scale];
+    return negative ? -result : result;
+  }
+
+  /**
+   * Parses ISO date.
+   * @param value The date in 'yyyy-MM-dd' format
+   * @return The number of days since epoch
+   * @throws java.time.DateTimeException if value is not a valid date
+   */
+  public static int parseEpochDay(String value) {
+    if (value.length() == 10 && value.charAt(4) == '-' && value.charAt(7) == '-') {
+      int year = parseDigits(value, 0, 4);
+      int month = parseDigits(value, 5, 7);
+      int day = parseDigits(value, 8, 10);
+      if (year >= 0 && month >= 0 && day >= 0) {
+        return (int) LocalDate.of(year, month, day).toEpochDay();
+      }
+    }
+    return (int) LocalDate.parse(value).toEpochDay();
+  }
+
+  private static int parseDigits(String value, int start, int end) {
+    int result = 0;
+    for (int index = start; index < end; index++) {
+      char c = value.charAt(index);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      result = result * 10 + (c - '0');
+    }
+    return result;
+  }
+}
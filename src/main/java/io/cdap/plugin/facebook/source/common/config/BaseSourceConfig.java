@@ -30,6 +30,9 @@ import io.cdap.plugin.facebook.source.common.SchemaHelper;
 import io.cdap.plugin.facebook.source.common.exceptions.IllegalBreakdownException;
 import io.cdap.plugin.facebook.source.common.exceptions.IllegalInsightsFieldException;
 
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -52,6 +55,22 @@ public class BaseSourceConfig extends ReferencePluginConfig {
   public static final String PROPERTY_DATE_PRESET = "datePreset";
   public static final String PROPERTY_BREAKDOWN = "breakdown";
   public static final String PROPERTY_ADDITIONAL_BREAKDOWN = "additionalBreakdown";
+  public static final String PROPERTY_EXECUTION_MODE = "executionMode";
+  public static final String PROPERTY_SCHEMA_MODE = "schemaMode";
+  public static final String PROPERTY_CACHE_DIRECTORY = "cacheDirectory";
+  public static final String PROPERTY_CACHE_TTL_HOURS = "cacheTtlHours";
+  public static final int DEFAULT_CACHE_TTL_HOURS = 24;
+  public static final String PROPERTY_CACHE_MAX_SIZE_MB = "cacheMaxSizeMb";
+  public static final int DEFAULT_CACHE_MAX_SIZE_MB = 1024;
+  public static final String PROPERTY_API_ENDPOINT = "apiEndpoint";
+  public static final String PROPERTY_HTTP_TRANSPORT = "httpTransport";
+  public static final String PROPERTY_CONNECT_TIMEOUT_SECONDS = "connectTimeoutSeconds";
+  public static final int DEFAULT_CONNECT_TIMEOUT_SECONDS = 60;
+  public static final String PROPERTY_READ_TIMEOUT_SECONDS = "readTimeoutSeconds";
+  public static final int DEFAULT_READ_TIMEOUT_SECONDS = 600;
+  public static final String PROPERTY_REQUEST_LOG_LEVEL = "requestLogLevel";
+  public static final String PROPERTY_REQUEST_LOG_SAMPLE_RATE = "requestLogSampleRate";
+  public static final double DEFAULT_REQUEST_LOG_SAMPLE_RATE = 0.01;
 
   @Name(PROPERTY_ACCESS_TOKEN)
   @Description("Access Token.")
@@ -120,13 +139,87 @@ public class BaseSourceConfig extends ReferencePluginConfig {
   @Macro
   protected String additionalBreakdown;
 
+  @Name(PROPERTY_EXECUTION_MODE)
+  @Description("Execution mode. Synchronous requests return results immediately, asynchronous requests start report "
+    + "job and fetch results when it is completed.")
+  @Nullable
+  @Macro
+  protected String executionMode;
+
+  @Name(PROPERTY_SCHEMA_MODE)
+  @Description("Types of output fields. In typed mode counts are longs, money amounts and ratios are doubles and "
+    + "dates are dates, other fields are strings.")
+  @Nullable
+  @Macro
+  protected String schemaMode;
+
+  @Name(PROPERTY_CACHE_DIRECTORY)
+  @Description("Directory where responses for explicit time ranges are cached. Responses for ranges older than "
+    + "attribution window never expire. Must not be shared by sources with different credentials.")
+  @Nullable
+  @Macro
+  protected String cacheDirectory;
+
+  @Name(PROPERTY_CACHE_TTL_HOURS)
+  @Description("Number of hours cached responses, which include recent days, are used for.")
+  @Nullable
+  @Macro
+  protected Integer cacheTtlHours;
+
+  @Name(PROPERTY_CACHE_MAX_SIZE_MB)
+  @Description("Maximum size of response cache in megabytes. Least recently used responses are evicted at the "
+    + "start of the run.")
+  @Nullable
+  @Macro
+  protected Integer cacheMaxSizeMb;
+
+  @Name(PROPERTY_API_ENDPOINT)
+  @Description("Base url of Graph API requests are sent to, 'https://graph.facebook.com' by default. Can point to "
+    + "proxy or to local fake of the API in tests.")
+  @Nullable
+  @Macro
+  protected String apiEndpoint;
+
+  @Name(PROPERTY_HTTP_TRANSPORT)
+  @Description("How requests are sent: 'pooled' keeps connections to the API alive in a pool shared by all splits "
+    + "of the executor, 'jdk' uses JDK http client. Both request gzip compressed responses.")
+  @Nullable
+  @Macro
+  protected String httpTransport;
+
+  @Name(PROPERTY_CONNECT_TIMEOUT_SECONDS)
+  @Description("Number of seconds to wait for connection to the API, 60 by default.")
+  @Nullable
+  @Macro
+  protected Integer connectTimeoutSeconds;
+
+  @Name(PROPERTY_READ_TIMEOUT_SECONDS)
+  @Description("Number of seconds to wait for data of response, 600 by default.")
+  @Nullable
+  @Macro
+  protected Integer readTimeoutSeconds;
+
+  @Name(PROPERTY_REQUEST_LOG_LEVEL)
+  @Description("Which API requests are logged: 'off', 'failures' or 'requests', which logs failed requests and "
+    + "sample of successful ones. Logged fields include object, time range, page, status and latency, access token "
+    + "is redacted. Default is 'failures'.")
+  @Nullable
+  @Macro
+  protected String requestLogLevel;
+
+  @Name(PROPERTY_REQUEST_LOG_SAMPLE_RATE)
+  @Description("Fraction of successful requests logged at 'requests' level, from 0 to 1, 0.01 by default.")
+  @Nullable
+  @Macro
+  protected Double requestLogSampleRate;
+
   /*
   Most likely unique delimiter that helps avoid problems with unescaped symbols in complex filters
   */
   public static final String FILTERING_DELIMITER = "%!delim@%";
   private static final Gson gson = new GsonBuilder().create();
 
-  private transient Schema schema = null;
+  private transient QueryPlan queryPlan = null;
 
   public BaseSourceConfig(String referenceName) {
     super(referenceName);
@@ -176,10 +269,112 @@ public class BaseSourceConfig extends ReferencePluginConfig {
    * @return instance of Schema
    */
   public Schema getSchema() {
-    if (schema == null) {
-      schema = SchemaHelper.buildSchema(getFields(), getBreakdown());
+    return getQueryPlan().getSchema();
+  }
+
+  /**
+   * Returns query resolved from properties, properties are parsed on the first call only.
+   * @return The instance of QueryPlan
+   */
+  public QueryPlan getQueryPlan() {
+    if (queryPlan == null) {
+      queryPlan = createQueryPlan().build();
+    }
+    return queryPlan;
+  }
+
+  /**
+   * Creates builder of query plan with values of properties, subclasses add properties of their own.
+   */
+  protected QueryPlan.Builder createQueryPlan() {
+    return QueryPlan.builder()
+      .setFields(getFields())
+      .setBreakdowns(getBreakdown())
+      .setFiltering(getFiltering())
+      .setLevel(getLevel())
+      .setDatePreset(getDatePreset())
+      .setSchemaMode(getSchemaMode());
+  }
+
+  /**
+   * Returns selected ExecutionMode.
+   * @return The instance of ExecutionMode
+   */
+  public ExecutionMode getExecutionMode() {
+    if (Strings.isNullOrEmpty(executionMode)) {
+      return ExecutionMode.Sync;
+    }
+    return ExecutionMode.fromString(executionMode);
+  }
+
+  /**
+   * Returns selected SchemaMode.
+   * @return The instance of SchemaMode
+   */
+  public SchemaMode getSchemaMode() {
+    if (Strings.isNullOrEmpty(schemaMode)) {
+      return SchemaMode.Strings;
     }
-    return schema;
+    return SchemaMode.fromString(schemaMode);
+  }
+
+  @Nullable
+  public String getCacheDirectory() {
+    return Strings.isNullOrEmpty(cacheDirectory) ? null : cacheDirectory;
+  }
+
+  public int getCacheTtlHours() {
+    return cacheTtlHours == null ? DEFAULT_CACHE_TTL_HOURS : cacheTtlHours;
+  }
+
+  public int getCacheMaxSizeMb() {
+    return cacheMaxSizeMb == null ? DEFAULT_CACHE_MAX_SIZE_MB : cacheMaxSizeMb;
+  }
+
+  /**
+   * Returns base url of Graph API.
+   * @return The url without trailing slash, null if default endpoint is used
+   */
+  @Nullable
+  public String getApiEndpoint() {
+    if (Strings.isNullOrEmpty(apiEndpoint)) {
+      return null;
+    }
+    return apiEndpoint.endsWith("/") ? apiEndpoint.substring(0, apiEndpoint.length() - 1) : apiEndpoint;
+  }
+
+  /**
+   * Returns selected HttpTransportMode.
+   * @return The instance of HttpTransportMode
+   */
+  public HttpTransportMode getHttpTransportMode() {
+    if (Strings.isNullOrEmpty(httpTransport)) {
+      return HttpTransportMode.Pooled;
+    }
+    return HttpTransportMode.fromString(httpTransport);
+  }
+
+  public int getConnectTimeoutSeconds() {
+    return connectTimeoutSeconds == null ? DEFAULT_CONNECT_TIMEOUT_SECONDS : connectTimeoutSeconds;
+  }
+
+  public int getReadTimeoutSeconds() {
+    return readTimeoutSeconds == null ? DEFAULT_READ_TIMEOUT_SECONDS : readTimeoutSeconds;
+  }
+
+  /**
+   * Returns selected RequestLogLevel.
+   * @return The instance of RequestLogLevel
+   */
+  public RequestLogLevel getRequestLogLevel() {
+    if (Strings.isNullOrEmpty(requestLogLevel)) {
+      return RequestLogLevel.Failures;
+    }
+    return RequestLogLevel.fromString(requestLogLevel);
+  }
+
+  public double getRequestLogSampleRate() {
+    return requestLogSampleRate == null ? DEFAULT_REQUEST_LOG_SAMPLE_RATE : requestLogSampleRate;
   }
 
   public String getLevel() {
@@ -227,8 +422,11 @@ public class BaseSourceConfig extends ReferencePluginConfig {
       if (!Strings.isNullOrEmpty(additionalBreakdown) && !"none".equals(additionalBreakdown)) {
         AdsInsights.EnumActionBreakdowns additionalActionBreakdown =
           SourceConfigHelper.actionBreakdownFromString(additionalBreakdown);
-        if (result.isJoinableWithAction() && result.getActionBreakdowns().contains(additionalActionBreakdown)) {
-          result.getActionBreakdowns().add(additionalActionBreakdown);
+        if (result.isJoinableWithAction() && !result.getActionBreakdowns().contains(additionalActionBreakdown)) {
+          // lists of parsed breakdowns may be immutable
+          List<AdsInsights.EnumActionBreakdowns> actionBreakdowns = new ArrayList<>(result.getActionBreakdowns());
+          actionBreakdowns.add(additionalActionBreakdown);
+          result = new Breakdowns(result.getBreakdowns(), actionBreakdowns, true);
         }
       }
       return result;
@@ -264,9 +462,111 @@ public class BaseSourceConfig extends ReferencePluginConfig {
     validateFields(failureCollector);
     validateFiltering(failureCollector);
     validateDatePreset(failureCollector);
+    validateExecutionMode(failureCollector);
+    validateSchemaMode(failureCollector);
+    validateCache(failureCollector);
+    validateApiEndpoint(failureCollector);
+    validateHttpTransport(failureCollector);
+    validateRequestLogging(failureCollector);
+  }
+
+  void validateRequestLogging(FailureCollector failureCollector) {
+    if (!containsMacro(PROPERTY_REQUEST_LOG_LEVEL)) {
+      try {
+        getRequestLogLevel();
+      } catch (IllegalArgumentException ex) {
+        failureCollector
+          .addFailure(ex.getMessage(), "Choose one of 'off', 'failures' or 'requests'.")
+          .withConfigProperty(PROPERTY_REQUEST_LOG_LEVEL);
+      }
+    }
+    if (!containsMacro(PROPERTY_REQUEST_LOG_SAMPLE_RATE)
+      && (getRequestLogSampleRate() < 0 || getRequestLogSampleRate() > 1)) {
+      failureCollector
+        .addFailure(String.format("'%s' is invalid request log sample rate.", getRequestLogSampleRate()),
+                    "Set number from 0 to 1.")
+        .withConfigProperty(PROPERTY_REQUEST_LOG_SAMPLE_RATE);
+    }
+  }
+
+  void validateHttpTransport(FailureCollector failureCollector) {
+    if (!containsMacro(PROPERTY_HTTP_TRANSPORT)) {
+      try {
+        getHttpTransportMode();
+      } catch (IllegalArgumentException ex) {
+        failureCollector
+          .addFailure(ex.getMessage(), "Choose one of 'pooled' or 'jdk'.")
+          .withConfigProperty(PROPERTY_HTTP_TRANSPORT);
+      }
+    }
+    if (!containsMacro(PROPERTY_CONNECT_TIMEOUT_SECONDS) && getConnectTimeoutSeconds() <= 0) {
+      failureCollector
+        .addFailure(String.format("'%d' is invalid connect timeout.", getConnectTimeoutSeconds()),
+                    "Set positive number.")
+        .withConfigProperty(PROPERTY_CONNECT_TIMEOUT_SECONDS);
+    }
+    if (!containsMacro(PROPERTY_READ_TIMEOUT_SECONDS) && getReadTimeoutSeconds() <= 0) {
+      failureCollector
+        .addFailure(String.format("'%d' is invalid read timeout.", getReadTimeoutSeconds()), "Set positive number.")
+        .withConfigProperty(PROPERTY_READ_TIMEOUT_SECONDS);
+    }
+  }
+
+  void validateApiEndpoint(FailureCollector failureCollector) {
+    if (containsMacro(PROPERTY_API_ENDPOINT) || getApiEndpoint() == null) {
+      return;
+    }
+    try {
+      URL url = new URL(getApiEndpoint());
+      if (!"http".equals(url.getProtocol()) && !"https".equals(url.getProtocol())) {
+        throw new MalformedURLException(String.format("Unsupported protocol '%s'.", url.getProtocol()));
+      }
+    } catch (MalformedURLException e) {
+      failureCollector
+        .addFailure(String.format("'%s' is invalid API endpoint: %s", apiEndpoint, e.getMessage()),
+                    "Enter http or https url, for example 'https://graph.facebook.com'.")
+        .withConfigProperty(PROPERTY_API_ENDPOINT);
+    }
+  }
+
+  void validateCache(FailureCollector failureCollector) {
+    if (!containsMacro(PROPERTY_CACHE_TTL_HOURS) && getCacheTtlHours() < 0) {
+      failureCollector
+        .addFailure(String.format("'%d' is invalid cache ttl.", getCacheTtlHours()), "Set non-negative number.")
+        .withConfigProperty(PROPERTY_CACHE_TTL_HOURS);
+    }
+    if (!containsMacro(PROPERTY_CACHE_MAX_SIZE_MB) && getCacheMaxSizeMb() <= 0) {
+      failureCollector
+        .addFailure(String.format("'%d' is invalid cache size.", getCacheMaxSizeMb()), "Set positive number.")
+        .withConfigProperty(PROPERTY_CACHE_MAX_SIZE_MB);
+    }
+  }
+
+  void validateSchemaMode(FailureCollector failureCollector) {
+    if (!containsMacro(PROPERTY_SCHEMA_MODE)) {
+      try {
+        getSchemaMode();
+      } catch (IllegalArgumentException ex) {
+        failureCollector
+          .addFailure(ex.getMessage(), "Choose one of 'strings' or 'typed'.")
+          .withConfigProperty(PROPERTY_SCHEMA_MODE);
+      }
+    }
+  }
+
+  void validateExecutionMode(FailureCollector failureCollector) {
+    if (!containsMacro(PROPERTY_EXECUTION_MODE)) {
+      try {
+        getExecutionMode();
+      } catch (IllegalArgumentException ex) {
+        failureCollector
+          .addFailure(ex.getMessage(), "Choose one of 'sync' or 'async'.")
+          .withConfigProperty(PROPERTY_EXECUTION_MODE);
+      }
+    }
   }
 
-  void validateObjectId(FailureCollector failureCollector) {
+  protected void validateObjectId(FailureCollector failureCollector) {
     if (!containsMacro(PROPERTY_OBJECT_TYPE)) {
       switch (getObjectType()) {
         case Campaign:
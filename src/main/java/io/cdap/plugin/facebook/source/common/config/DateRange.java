@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.config;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents closed range of dates, which is passed to Facebook Insights API as 'time_range' parameter.
+ */
+public class DateRange {
+  private final LocalDate since;
+  private final LocalDate until;
+
+  /**
+   * Constructor for DateRange object.
+   * @param since The first day of range, inclusive
+   * @param until The last day of range, inclusive
+   */
+  public DateRange(LocalDate since, LocalDate until) {
+    if (until.isBefore(since)) {
+      throw new IllegalArgumentException(String.format("'%s' is after '%s'", since, until));
+    }
+    this.since = since;
+    this.until = until;
+  }
+
+  public LocalDate getSince() {
+    return since;
+  }
+
+  public LocalDate getUntil() {
+    return until;
+  }
+
+  /**
+   * Returns number of days in range.
+   * @return the number of days, at least one
+   */
+  public int getDays() {
+    return (int) ChronoUnit.DAYS.between(since, until) + 1;
+  }
+
+  /**
+   * Cuts range to consecutive slices of given length, the last slice may be shorter.
+   * @param days The slice length in days
+   * @return the list of slices
+   */
+  public List<DateRange> slice(int days) {
+    if (days <= 0) {
+      throw new IllegalArgumentException("Slice length must be positive.");
+    }
+    List<DateRange> slices = new ArrayList<>();
+    LocalDate sliceStart = since;
+    while (!sliceStart.isAfter(until)) {
+      LocalDate sliceEnd = sliceStart.plusDays(days - 1);
+      if (sliceEnd.isAfter(until)) {
+        sliceEnd = until;
+      }
+      slices.add(new DateRange(sliceStart, sliceEnd));
+      sliceStart = sliceEnd.plusDays(1);
+    }
+    return slices;
+  }
+
+  /**
+   * Parses range in the format returned by {@link #toString()}.
+   * @param value The string in 'since..until' format
+   * @return The range
+   */
+  public static DateRange parse(String value) {
+    int separator = value.indexOf("..");
+    if (separator < 0) {
+      throw new IllegalArgumentException(String.format("'%s' is invalid date range.", value));
+    }
+    return new DateRange(LocalDate.parse(value.substring(0, separator)),
+                         LocalDate.parse(value.substring(separator + 2)));
+  }
+
+  /**
+   * Returns value of 'time_range' request parameter.
+   * @return The json string
+   */
+  public String toTimeRangeParam() {
+    return String.format("{\"since\":\"%s\",\"until\":\"%s\"}", since, until);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DateRange that = (DateRange) o;
+    return since.equals(that.since) && until.equals(that.until);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(since, until);
+  }
+
+  @Override
+  public String toString() {
+    return since + ".." + until;
+  }
+}
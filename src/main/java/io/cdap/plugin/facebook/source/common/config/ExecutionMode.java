@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.config;
+
+import java.util.Arrays;
+
+/**
+ * Defines how insights are requested: synchronously or by asynchronous report job.
+ */
+public enum ExecutionMode {
+  Sync("sync"),
+  Async("async");
+
+  private String stringValue;
+
+  ExecutionMode(String stringValue) {
+    this.stringValue = stringValue;
+  }
+
+  /**
+   * Returns selected ExecutionMode.
+   * @param value The value
+   * @return The instance of ExecutionMode
+   */
+  public static ExecutionMode fromString(String value) {
+    return Arrays.stream(ExecutionMode.values())
+      .filter(type -> type.stringValue.equals(value))
+      .findFirst()
+      .orElseThrow(() -> new IllegalArgumentException(String.format("'%s' is invalid ExecutionMode.", value)));
+  }
+}
@@ -17,20 +17,54 @@
 package io.cdap.plugin.facebook.source.common.config;
 
 import java.util.Arrays;
+import javax.annotation.Nullable;
 
 /**
  * Convenience enum to map UI selections to meaningful values.
  */
 public enum ObjectType {
-  Campaign("Campaign"),
-  Ad("Ad"),
-  AdSet("Ad Set"),
-  Account("Account");
+  Campaign("Campaign", "campaign", 1),
+  Ad("Ad", "ad", 3),
+  AdSet("Ad Set", "adset", 2),
+  Account("Account", "account", 0);
 
   private String stringValue;
+  private String level;
+  private int depth;
 
-  ObjectType(String stringValue) {
+  ObjectType(String stringValue, String level, int depth) {
     this.stringValue = stringValue;
+    this.level = level;
+    this.depth = depth;
+  }
+
+  /**
+   * Returns value of 'level' request parameter, which aggregates results on objects of this type.
+   * @return The level
+   */
+  public String getLevel() {
+    return level;
+  }
+
+  /**
+   * Checks if objects of this type hold objects of the given type, e.g. account holds campaigns.
+   * @param other The other type
+   * @return true if other type is lower in objects hierarchy
+   */
+  public boolean contains(ObjectType other) {
+    return depth < other.depth;
+  }
+
+  /**
+   * Returns type of objects directly held by objects of this type, e.g. campaigns of account.
+   * @return The type, null for ads, which hold no objects
+   */
+  @Nullable
+  public ObjectType getChildType() {
+    return Arrays.stream(ObjectType.values())
+      .filter(type -> type.depth == depth + 1)
+      .findFirst()
+      .orElse(null);
   }
 
   /**
@@ -44,4 +78,16 @@ public enum ObjectType {
       .findFirst()
       .orElseThrow(() -> new IllegalArgumentException(String.format("'%s' is invalid ObjectType.", value)));
   }
+
+  /**
+   * Returns ObjectType aggregated by given level.
+   * @param level The level
+   * @return The instance of ObjectType
+   */
+  public static ObjectType fromLevel(String level) {
+    return Arrays.stream(ObjectType.values())
+      .filter(type -> type.level.equals(level))
+      .findFirst()
+      .orElseThrow(() -> new IllegalArgumentException(String.format("'%s' is invalid level.", level)));
+  }
 }
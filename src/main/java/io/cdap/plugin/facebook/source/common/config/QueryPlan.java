@@ -0,0 +1,311 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.config;
+
+import com.facebook.ads.sdk.AdsInsights;
+import com.google.common.collect.ImmutableList;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.facebook.source.common.SchemaHelper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+/**
+ * Insights query resolved from source configuration once: fields, breakdowns, filtering json, level, date preset,
+ * sorting and time increment. Plan is immutable, so it is shared by requests of a task and written to job
+ * configuration once, instead of being parsed again from config strings by every reader.
+ */
+public class QueryPlan {
+  private static final byte FORMAT_VERSION = 1;
+
+  private final List<String> fields;
+  private final List<String> requestFields;
+  private final Breakdowns breakdowns;
+  private final String filtering;
+  private final String level;
+  private final String datePreset;
+  private final String sorting;
+  private final Integer timeIncrement;
+  private final SchemaMode schemaMode;
+
+  private QueryPlan(Builder builder) {
+    this.fields = ImmutableList.copyOf(builder.fields);
+    this.requestFields = ImmutableList.copyOf(
+      fields.stream().filter(SchemaHelper::isValidForFieldsParameter).collect(Collectors.toList()));
+    this.breakdowns = builder.breakdowns == null ? null : new Breakdowns(
+      ImmutableList.copyOf(builder.breakdowns.getBreakdowns()),
+      ImmutableList.copyOf(builder.breakdowns.getActionBreakdowns()),
+      builder.breakdowns.isJoinableWithAction());
+    this.filtering = builder.filtering;
+    this.level = builder.level == null || "default".equals(builder.level) ? null : builder.level;
+    this.datePreset = builder.datePreset;
+    this.sorting = builder.sorting;
+    this.timeIncrement = builder.timeIncrement;
+    this.schemaMode = builder.schemaMode;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns all configured fields, including the ones which are returned without being requested.
+   */
+  public List<String> getFields() {
+    return fields;
+  }
+
+  /**
+   * Returns fields to be passed in 'fields' parameter.
+   */
+  public List<String> getRequestFields() {
+    return requestFields;
+  }
+
+  /**
+   * Returns breakdowns, which lists can't be modified.
+   * @return The breakdowns, null if insights are not broken down
+   */
+  @Nullable
+  public Breakdowns getBreakdowns() {
+    return breakdowns;
+  }
+
+  /**
+   * Returns value of 'filtering' parameter.
+   * @return The json string, null if insights are not filtered
+   */
+  @Nullable
+  public String getFiltering() {
+    return filtering;
+  }
+
+  /**
+   * Returns value of 'level' parameter.
+   * @return The level, null if default level of object is queried
+   */
+  @Nullable
+  public String getLevel() {
+    return level;
+  }
+
+  public String getDatePreset() {
+    return datePreset;
+  }
+
+  @Nullable
+  public String getSorting() {
+    return sorting;
+  }
+
+  @Nullable
+  public Integer getTimeIncrement() {
+    return timeIncrement;
+  }
+
+  public SchemaMode getSchemaMode() {
+    return schemaMode;
+  }
+
+  /**
+   * Returns output schema of the query.
+   */
+  public Schema getSchema() {
+    return SchemaHelper.buildSchema(fields, breakdowns, schemaMode);
+  }
+
+  /**
+   * Serializes plan to compact versioned binary form.
+   * @return The bytes
+   */
+  public byte[] serialize() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      write(out);
+    } catch (IOException e) {
+      // in-memory stream doesn't fail
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Deserializes plan written by {@link #serialize()}.
+   * @param bytes The bytes
+   * @return The plan
+   */
+  public static QueryPlan deserialize(byte[] bytes) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      return read(in);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to read query plan.", e);
+    }
+  }
+
+  private void write(DataOutput out) throws IOException {
+    out.writeByte(FORMAT_VERSION);
+    out.writeInt(fields.size());
+    for (String field : fields) {
+      out.writeUTF(field);
+    }
+    out.writeBoolean(breakdowns != null);
+    if (breakdowns != null) {
+      out.writeInt(breakdowns.getBreakdowns().size());
+      for (AdsInsights.EnumBreakdowns breakdown : breakdowns.getBreakdowns()) {
+        out.writeUTF(breakdown.name());
+      }
+      out.writeInt(breakdowns.getActionBreakdowns().size());
+      for (AdsInsights.EnumActionBreakdowns breakdown : breakdowns.getActionBreakdowns()) {
+        out.writeUTF(breakdown.name());
+      }
+      out.writeBoolean(breakdowns.isJoinableWithAction());
+    }
+    writeString(out, filtering);
+    writeString(out, level);
+    writeString(out, datePreset);
+    writeString(out, sorting);
+    out.writeInt(timeIncrement == null ? 0 : timeIncrement);
+    out.writeUTF(schemaMode.name());
+  }
+
+  private static QueryPlan read(DataInput in) throws IOException {
+    byte version = in.readByte();
+    if (version != FORMAT_VERSION) {
+      throw new IOException(String.format("Unsupported query plan format version %d.", version));
+    }
+    Builder builder = builder();
+    int fieldCount = in.readInt();
+    List<String> fields = new ArrayList<>(fieldCount);
+    for (int i = 0; i < fieldCount; i++) {
+      fields.add(in.readUTF());
+    }
+    builder.setFields(fields);
+    if (in.readBoolean()) {
+      int breakdownCount = in.readInt();
+      List<AdsInsights.EnumBreakdowns> breakdowns = new ArrayList<>(breakdownCount);
+      for (int i = 0; i < breakdownCount; i++) {
+        breakdowns.add(AdsInsights.EnumBreakdowns.valueOf(in.readUTF()));
+      }
+      int actionBreakdownCount = in.readInt();
+      List<AdsInsights.EnumActionBreakdowns> actionBreakdowns = new ArrayList<>(actionBreakdownCount);
+      for (int i = 0; i < actionBreakdownCount; i++) {
+        actionBreakdowns.add(AdsInsights.EnumActionBreakdowns.valueOf(in.readUTF()));
+      }
+      builder.setBreakdowns(new Breakdowns(breakdowns, actionBreakdowns, in.readBoolean()));
+    }
+    builder.setFiltering(readString(in));
+    builder.setLevel(readString(in));
+    builder.setDatePreset(readString(in));
+    builder.setSorting(readString(in));
+    int timeIncrement = in.readInt();
+    builder.setTimeIncrement(timeIncrement == 0 ? null : timeIncrement);
+    builder.setSchemaMode(SchemaMode.valueOf(in.readUTF()));
+    return builder.build();
+  }
+
+  /**
+   * Writes nullable string of any length, unlike {@link DataOutput#writeUTF(String)}, which is limited to 64 KB.
+   */
+  private static void writeString(DataOutput out, @Nullable String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  @Nullable
+  private static String readString(DataInput in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Builder for QueryPlan.
+   */
+  public static class Builder {
+    private List<String> fields = new ArrayList<>();
+    private Breakdowns breakdowns;
+    private String filtering;
+    private String level;
+    private String datePreset;
+    private String sorting;
+    private Integer timeIncrement;
+    private SchemaMode schemaMode = SchemaMode.Strings;
+
+    public Builder setFields(List<String> fields) {
+      this.fields = fields;
+      return this;
+    }
+
+    public Builder setBreakdowns(@Nullable Breakdowns breakdowns) {
+      this.breakdowns = breakdowns;
+      return this;
+    }
+
+    public Builder setFiltering(@Nullable String filtering) {
+      this.filtering = filtering;
+      return this;
+    }
+
+    public Builder setLevel(@Nullable String level) {
+      this.level = level;
+      return this;
+    }
+
+    public Builder setDatePreset(String datePreset) {
+      this.datePreset = datePreset;
+      return this;
+    }
+
+    public Builder setSorting(@Nullable String sorting) {
+      this.sorting = sorting;
+      return this;
+    }
+
+    public Builder setTimeIncrement(@Nullable Integer timeIncrement) {
+      this.timeIncrement = timeIncrement;
+      return this;
+    }
+
+    public Builder setSchemaMode(SchemaMode schemaMode) {
+      this.schemaMode = schemaMode;
+      return this;
+    }
+
+    public QueryPlan build() {
+      return new QueryPlan(this);
+    }
+  }
+}
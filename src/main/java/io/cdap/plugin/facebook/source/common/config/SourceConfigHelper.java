@@ -21,11 +21,15 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import io.cdap.plugin.facebook.source.common.exceptions.IllegalBreakdownException;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 
 /**
  * Class with helper methods to parse input configuration.
@@ -452,6 +456,73 @@ public class SourceConfigHelper {
     return validDatePresets.contains(datePreset);
   }
 
+  /**
+   * Resolves date preset to the concrete range of dates, the same way Facebook Insights API does.
+   * @param datePreset The date preset
+   * @param today The current date
+   * @return The instance of DateRange or null for 'lifetime' preset, which has no fixed start
+   */
+  @Nullable
+  public static DateRange resolveDatePreset(String datePreset, LocalDate today) {
+    switch (datePreset) {
+      case "today":
+        return new DateRange(today, today);
+      case "yesterday":
+        return new DateRange(today.minusDays(1), today.minusDays(1));
+      case "this_week_sun_today":
+        return new DateRange(today.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY)), today);
+      case "this_week_mon_today":
+        return new DateRange(today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), today);
+      case "last_week_sun_sat": {
+        LocalDate weekStart = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY)).minusWeeks(1);
+        return new DateRange(weekStart, weekStart.plusDays(6));
+      }
+      case "last_week_mon_sun": {
+        LocalDate weekStart = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(1);
+        return new DateRange(weekStart, weekStart.plusDays(6));
+      }
+      case "this_month":
+        return new DateRange(today.withDayOfMonth(1), today);
+      case "last_month": {
+        LocalDate monthStart = today.withDayOfMonth(1).minusMonths(1);
+        return new DateRange(monthStart, monthStart.with(TemporalAdjusters.lastDayOfMonth()));
+      }
+      case "this_quarter": {
+        int firstMonthOfQuarter = (today.getMonthValue() - 1) / 3 * 3 + 1;
+        return new DateRange(LocalDate.of(today.getYear(), firstMonthOfQuarter, 1), today);
+      }
+      case "last_3d":
+        return lastDays(today, 3);
+      case "last_7d":
+        return lastDays(today, 7);
+      case "last_14d":
+        return lastDays(today, 14);
+      case "last_28d":
+        return lastDays(today, 28);
+      case "last_30d":
+        return lastDays(today, 30);
+      case "last_90d":
+        return lastDays(today, 90);
+      case "this_year":
+        return new DateRange(today.withDayOfYear(1), today);
+      case "last_year": {
+        LocalDate yearStart = today.withDayOfYear(1).minusYears(1);
+        return new DateRange(yearStart, yearStart.with(TemporalAdjusters.lastDayOfYear()));
+      }
+      case "lifetime":
+        return null;
+      default:
+        throw new IllegalArgumentException(String.format("'%s' is not a valid date preset", datePreset));
+    }
+  }
+
+  /**
+   * 'last_Nd' presets do not include current day.
+   */
+  private static DateRange lastDays(LocalDate today, int days) {
+    return new DateRange(today.minusDays(days), today.minusDays(1));
+  }
+
   private static final List<String> validOperators = ImmutableList.of(
     "EQUAL", "NOT_EQUAL", "GREATER_THAN", "GREATER_THAN_OR_EQUAL", "LESS_THAN", "LESS_THAN_OR_EQUAL",
     "IN_RANGE", "NOT_IN_RANGE", "CONTAIN", "NOT_CONTAIN", "NOT_IN", "STARTS_WITH", "ANY", "ALL", "AFTER",
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.config;
+
+import java.util.Arrays;
+
+/**
+ * Length of time slices the configured date range is cut into, each slice is requested separately.
+ */
+public enum TimeSlice {
+  None("none", 0),
+  Day("day", 1),
+  Week("week", 7);
+
+  private String stringValue;
+  private int days;
+
+  TimeSlice(String stringValue, int days) {
+    this.stringValue = stringValue;
+    this.days = days;
+  }
+
+  public int getDays() {
+    return days;
+  }
+
+  /**
+   * Returns selected TimeSlice.
+   * @param value The value
+   * @return The instance of TimeSlice
+   */
+  public static TimeSlice fromString(String value) {
+    return Arrays.stream(TimeSlice.values())
+      .filter(type -> type.stringValue.equals(value))
+      .findFirst()
+      .orElseThrow(() -> new IllegalArgumentException(String.format("'%s' is invalid TimeSlice.", value)));
+  }
+}
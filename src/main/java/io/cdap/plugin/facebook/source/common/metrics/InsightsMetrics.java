@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.metrics;
+
+import com.google.common.primitives.Ints;
+import io.cdap.cdap.etl.api.StageContext;
+import io.cdap.cdap.etl.api.StageMetrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects metrics of a run of source stage in this JVM. Record reader and requests, which have no access to stage
+ * metrics, record to the collector of their run and stage, and the stage publishes it to {@link StageMetrics}, since
+ * both run in the same task. Collectors are kept per run, so other pipelines and later runs in a long-lived executor
+ * don't share counters.
+ */
+public class InsightsMetrics {
+  /**
+   * Job configuration property, which holds key of run and stage, see {@link #getRunKey(StageContext)}.
+   */
+  public static final String PROPERTY_RUN_KEY = "cdap.facebook.ads.metrics.run";
+
+  public static final String API_CALLS = "api.calls";
+  public static final String API_BYTES = "api.bytes";
+  public static final String API_LATENCY_MS = "api.latency.ms";
+  public static final String API_LATENCY_P50_MS = "api.latency.p50.ms";
+  public static final String API_LATENCY_P95_MS = "api.latency.p95.ms";
+  public static final String API_LATENCY_P99_MS = "api.latency.p99.ms";
+  public static final String CACHE_HITS = "api.cache.hits";
+  public static final String THROTTLE_WAIT_MS = "throttle.wait.ms";
+  public static final String RETRIES = "retries";
+  public static final String RETRY_WAIT_MS = "retry.wait.ms";
+  public static final String PAGES = "pages";
+  public static final String PAGE_ROWS = "page.rows";
+  public static final String PAGE_WAIT_MS = "page.wait.ms";
+  public static final String TRANSFORM_US = "transform.us";
+
+  /**
+   * Counters in the order of {@link #totals()}.
+   */
+  private static final String[] COUNTERS = {API_CALLS, API_BYTES, API_LATENCY_MS, CACHE_HITS, THROTTLE_WAIT_MS,
+    RETRIES, RETRY_WAIT_MS, PAGES, PAGE_ROWS, PAGE_WAIT_MS, TRANSFORM_US};
+  private static final ConcurrentMap<String, InsightsMetrics> RUNS = new ConcurrentHashMap<>();
+
+  private final LongAdder apiCalls = new LongAdder();
+  private final LongAdder apiBytes = new LongAdder();
+  private final LongAdder apiLatencyMillis = new LongAdder();
+  private final LatencyHistogram apiLatency = new LatencyHistogram();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder throttleWaitNanos = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder retryWaitMillis = new LongAdder();
+  private final LongAdder pages = new LongAdder();
+  private final LongAdder pageRows = new LongAdder();
+  private final LongAdder pageWaitNanos = new LongAdder();
+  private final LongAdder transformNanos = new LongAdder();
+
+  // values published by the previous flush
+  private final long[] flushed = new long[COUNTERS.length];
+  private long[] flushedLatencies = new long[LatencyHistogram.BUCKETS];
+
+  /**
+   * Returns key of the current run of stage, which is the same in driver and all tasks of the run.
+   * @param context The context of stage
+   * @return The key of run and stage
+   */
+  public static String getRunKey(StageContext context) {
+    return String.join(":", context.getNamespace(), context.getPipelineName(), context.getStageName(),
+                       Long.toString(context.getLogicalStartTime()));
+  }
+
+  /**
+   * Returns metrics of given run of stage.
+   * @param runKey The key returned by {@link #getRunKey(StageContext)}
+   * @return The metrics shared by all tasks of the run of stage in this JVM
+   */
+  public static InsightsMetrics forRun(String runKey) {
+    return RUNS.computeIfAbsent(runKey, key -> new InsightsMetrics());
+  }
+
+  /**
+   * Records response received from API.
+   * @param latencyMillis The time until response status was received
+   * @param bytes The size of response body
+   */
+  public void recordApiCall(long latencyMillis, long bytes) {
+    apiCalls.increment();
+    apiLatencyMillis.add(latencyMillis);
+    apiLatency.record(latencyMillis);
+    apiBytes.add(bytes);
+  }
+
+  public void recordCacheHit() {
+    cacheHits.increment();
+  }
+
+  public void recordThrottleWait(long nanos) {
+    throttleWaitNanos.add(nanos);
+  }
+
+  public void recordRetry(long waitMillis) {
+    retries.increment();
+    retryWaitMillis.add(waitMillis);
+  }
+
+  /**
+   * Records page passed to record reader.
+   * @param rows The number of rows in page
+   * @param waitNanos The time reader waited for page
+   */
+  public void recordPage(int rows, long waitNanos) {
+    pages.increment();
+    pageRows.add(rows);
+    pageWaitNanos.add(waitNanos);
+  }
+
+  public void recordTransform(long nanos) {
+    transformNanos.add(nanos);
+  }
+
+  /**
+   * Publishes values recorded since the previous flush.
+   * @param metrics The metrics of stage
+   */
+  public synchronized void flush(StageMetrics metrics) {
+    long[] current = totals();
+    for (int i = 0; i < COUNTERS.length; i++) {
+      long delta = current[i] - flushed[i];
+      if (delta > 0) {
+        metrics.count(COUNTERS[i], Ints.saturatedCast(delta));
+      }
+      flushed[i] = current[i];
+    }
+
+    long[] latencies = apiLatency.snapshot();
+    long[] window = new long[latencies.length];
+    for (int i = 0; i < latencies.length; i++) {
+      window[i] = latencies[i] - flushedLatencies[i];
+    }
+    flushedLatencies = latencies;
+    if (LatencyHistogram.percentile(window, 100) > 0) {
+      metrics.gauge(API_LATENCY_P50_MS, LatencyHistogram.percentile(window, 50));
+      metrics.gauge(API_LATENCY_P95_MS, LatencyHistogram.percentile(window, 95));
+      metrics.gauge(API_LATENCY_P99_MS, LatencyHistogram.percentile(window, 99));
+    }
+  }
+
+  /**
+   * Returns summary of all values recorded for the run of stage in this JVM.
+   * @return The human readable summary
+   */
+  public String summary() {
+    long[] latencies = apiLatency.snapshot();
+    return String.format(
+      "%d API calls (%d bytes, latency p50 %d ms, p95 %d ms, p99 %d ms), %d cache hits, %d ms throttled, "
+        + "%d retries (%d ms), %d pages of %d rows, %d ms waited for pages, %d us in transform",
+      apiCalls.sum(), apiBytes.sum(), LatencyHistogram.percentile(latencies, 50),
+      LatencyHistogram.percentile(latencies, 95), LatencyHistogram.percentile(latencies, 99), cacheHits.sum(),
+      TimeUnit.NANOSECONDS.toMillis(throttleWaitNanos.sum()), retries.sum(), retryWaitMillis.sum(), pages.sum(),
+      pageRows.sum(), TimeUnit.NANOSECONDS.toMillis(pageWaitNanos.sum()),
+      TimeUnit.NANOSECONDS.toMicros(transformNanos.sum()));
+  }
+
+  private long[] totals() {
+    return new long[]{
+      apiCalls.sum(),
+      apiBytes.sum(),
+      apiLatencyMillis.sum(),
+      cacheHits.sum(),
+      TimeUnit.NANOSECONDS.toMillis(throttleWaitNanos.sum()),
+      retries.sum(),
+      retryWaitMillis.sum(),
+      pages.sum(),
+      pageRows.sum(),
+      TimeUnit.NANOSECONDS.toMillis(pageWaitNanos.sum()),
+      TimeUnit.NANOSECONDS.toMicros(transformNanos.sum())
+    };
+  }
+}
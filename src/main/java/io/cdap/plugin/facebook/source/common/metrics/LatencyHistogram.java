@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in buckets of powers of two milliseconds. Percentiles are upper bounds of
+ * buckets, so they are exact within factor of two, which is enough to tell fast responses from slow ones.
+ */
+public class LatencyHistogram {
+  /**
+   * Bucket i holds latencies up to 2^i milliseconds, the last bucket holds all longer latencies.
+   */
+  static final int BUCKETS = 20;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  /**
+   * Records latency.
+   * @param millis The latency in milliseconds
+   */
+  public void record(long millis) {
+    counts.incrementAndGet(bucketOf(millis));
+  }
+
+  /**
+   * Returns number of latencies recorded in each bucket.
+   * @return The array of counts
+   */
+  public long[] snapshot() {
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Returns percentile of latencies counted in buckets.
+   * @param counts The counts of buckets
+   * @param percentile The percentile between 0 and 100
+   * @return The upper bound of bucket percentile falls into in milliseconds, 0 if nothing was counted
+   */
+  public static long percentile(long[] counts, double percentile) {
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(total * percentile / 100);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank && seen > 0) {
+        return 1L << i;
+      }
+    }
+    return 1L << (counts.length - 1);
+  }
+
+  static int bucketOf(long millis) {
+    if (millis <= 1) {
+      return 0;
+    }
+    // smallest i with millis <= 2^i
+    int bucket = 64 - Long.numberOfLeadingZeros(millis - 1);
+    return Math.min(bucket, BUCKETS - 1);
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import com.facebook.ads.sdk.APIException;
+import com.facebook.ads.sdk.APINodeList;
+import com.facebook.ads.sdk.APIRequest;
+import com.facebook.ads.sdk.AdReportRun;
+import com.facebook.ads.sdk.AdsInsights;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes insights request as asynchronous report job. Job is started by one of 'getInsightsAsync' requests,
+ * polled until it is completed, then its results are paged through like results of synchronous request.
+ */
+public class AsyncInsightsRequestWrapper implements InsightsRequest {
+  private static final Logger LOG = LoggerFactory.getLogger(AsyncInsightsRequestWrapper.class);
+
+  static final String STATUS_COMPLETED = "Job Completed";
+  static final String STATUS_FAILED = "Job Failed";
+  static final String STATUS_SKIPPED = "Job Skipped";
+
+  private static final long INITIAL_POLL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(2);
+  private static final long MAX_POLL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+  private static final long MAX_WAIT_MILLIS = TimeUnit.HOURS.toMillis(2);
+
+  private final APIRequest<AdReportRun> request;
+  private final List<String> fields = new ArrayList<>();
+  private final long initialPollIntervalMillis;
+  private final long maxPollIntervalMillis;
+  private final long maxWaitMillis;
+
+  AsyncInsightsRequestWrapper(APIRequest<AdReportRun> request) {
+    this(request, INITIAL_POLL_INTERVAL_MILLIS, MAX_POLL_INTERVAL_MILLIS, MAX_WAIT_MILLIS);
+  }
+
+  AsyncInsightsRequestWrapper(APIRequest<AdReportRun> request, long initialPollIntervalMillis,
+                              long maxPollIntervalMillis, long maxWaitMillis) {
+    this.request = request;
+    this.initialPollIntervalMillis = initialPollIntervalMillis;
+    this.maxPollIntervalMillis = maxPollIntervalMillis;
+    this.maxWaitMillis = maxWaitMillis;
+  }
+
+  @Override
+  public void requestField(String fieldName) {
+    request.requestField(fieldName);
+    fields.add(fieldName);
+  }
+
+  @Override
+  public void setParam(String paramName, Object value) {
+    request.setParam(paramName, value);
+  }
+
+  @Override
+  public void setBreakdowns(List<AdsInsights.EnumBreakdowns> breakdowns) {
+    setParam("breakdowns", breakdowns);
+  }
+
+  @Override
+  public void setActionBreakdowns(List<AdsInsights.EnumActionBreakdowns> breakdowns) {
+    setParam("action_breakdowns", breakdowns);
+  }
+
+  @Override
+  public APINodeList<AdsInsights> execute() throws APIException {
+    // every 'getInsightsAsync' request returns started report run
+    AdReportRun run = (AdReportRun) request.execute();
+    run = waitForCompletion(run);
+
+    AdReportRun.APIRequestGetInsights resultsRequest = run.getInsights();
+    fields.forEach(resultsRequest::requestField);
+    return resultsRequest.execute();
+  }
+
+  private AdReportRun waitForCompletion(AdReportRun run) throws APIException {
+    long startTime = System.currentTimeMillis();
+    long pollInterval = initialPollIntervalMillis;
+    while (true) {
+      String status = run.getFieldAsyncStatus();
+      if (STATUS_COMPLETED.equals(status)) {
+        LOG.debug("Report run '{}' completed in {} ms.", run.getId(), System.currentTimeMillis() - startTime);
+        return run;
+      }
+      if (STATUS_FAILED.equals(status) || STATUS_SKIPPED.equals(status)) {
+        throw new APIException(String.format("Report run '%s' finished with status '%s'.", run.getId(), status));
+      }
+      if (System.currentTimeMillis() - startTime > maxWaitMillis) {
+        throw new APIException(String.format("Report run '%s' is not completed in %d seconds, last status '%s'.",
+                                             run.getId(), TimeUnit.MILLISECONDS.toSeconds(maxWaitMillis), status));
+      }
+      LOG.debug("Report run '{}' has status '{}', {}% completed.", run.getId(), status,
+                run.getFieldAsyncPercentCompletion());
+
+      try {
+        Thread.sleep(pollInterval);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new APIException(e);
+      }
+      pollInterval = Math.min(pollInterval * 2, maxPollIntervalMillis);
+      run = run.fetch();
+    }
+  }
+}
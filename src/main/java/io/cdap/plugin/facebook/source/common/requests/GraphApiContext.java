@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import com.facebook.ads.sdk.APIContext;
+import io.cdap.plugin.facebook.source.common.metrics.InsightsMetrics;
+
+import javax.annotation.Nullable;
+
+/**
+ * API context, which identifies the rate limited object requests are throttled by.
+ */
+public class GraphApiContext extends APIContext {
+  private final String throttleKey;
+  private ResponseCache responseCache;
+  private InsightsMetrics metrics;
+  private String endpointBase;
+  private HttpTransport transport;
+  private RequestLogger requestLogger;
+
+  /**
+   * Constructor for GraphApiContext object.
+   * @param accessToken The access token
+   * @param throttleKey The id of object, which requests share rate limit of
+   */
+  public GraphApiContext(String accessToken, String throttleKey) {
+    super(accessToken);
+    this.throttleKey = throttleKey;
+  }
+
+  public String getThrottleKey() {
+    return throttleKey;
+  }
+
+  /**
+   * Returns cache of responses to GET requests.
+   * @return The cache, null if responses are not cached
+   */
+  @Nullable
+  public ResponseCache getResponseCache() {
+    return responseCache;
+  }
+
+  public void setResponseCache(@Nullable ResponseCache responseCache) {
+    this.responseCache = responseCache;
+  }
+
+  /**
+   * Returns metrics API calls are recorded to.
+   * @return The metrics, null if calls are not recorded
+   */
+  @Nullable
+  public InsightsMetrics getMetrics() {
+    return metrics;
+  }
+
+  public void setMetrics(@Nullable InsightsMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns transport requests are sent by.
+   * @return The transport, null if default transport is used
+   */
+  @Nullable
+  public HttpTransport getTransport() {
+    return transport;
+  }
+
+  public void setTransport(@Nullable HttpTransport transport) {
+    this.transport = transport;
+  }
+
+  /**
+   * Returns logger of requests made with this context.
+   * @return The logger, null if requests are not logged
+   */
+  @Nullable
+  public RequestLogger getRequestLogger() {
+    return requestLogger;
+  }
+
+  public void setRequestLogger(@Nullable RequestLogger requestLogger) {
+    this.requestLogger = requestLogger;
+  }
+
+  /**
+   * Returns base url of Graph API, SDK requests are sent to it as well.
+   */
+  @Override
+  public String getEndpointBase() {
+    return endpointBase == null ? super.getEndpointBase() : endpointBase;
+  }
+
+  /**
+   * Sets base url of Graph API.
+   * @param endpointBase The url without trailing slash, null to use default endpoint
+   */
+  public void setEndpointBase(@Nullable String endpointBase) {
+    this.endpointBase = endpointBase;
+  }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import com.facebook.ads.sdk.APIContext;
+import com.facebook.ads.sdk.APIException;
+import com.facebook.ads.sdk.APIRequest;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonPrimitive;
+import io.cdap.plugin.facebook.source.common.metrics.InsightsMetrics;
+import io.cdap.plugin.facebook.source.common.throttling.Throttlers;
+import io.cdap.plugin.facebook.source.common.throttling.TokenBucketThrottler;
+import io.cdap.plugin.facebook.source.common.throttling.UsageHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Executes Graph API requests of facebook-java-business-sdk. Requests made with {@link GraphApiContext} are paced
+ * by throttler of context object, which is updated with usage reported in response headers, and cacheable GET
+ * requests are served from response cache of context if it is set. Requests are sent by {@link HttpTransport} of
+ * context, pooled transport shared by the JVM is used by default.
+ * Requests uploading files are delegated to default SDK executor.
+ */
+public class GraphRequestExecutor implements APIRequest.IRequestExecutor {
+  private static final Gson gson = new GsonBuilder().create();
+  private static boolean installed;
+
+  private final APIRequest.IRequestExecutor defaultExecutor = new APIRequest.DefaultRequestExecutor();
+
+  /**
+   * Makes SDK to execute all requests of this JVM with GraphRequestExecutor.
+   */
+  public static synchronized void install() {
+    if (!installed) {
+      APIRequest.changeRequestExecutor(new GraphRequestExecutor());
+      installed = true;
+    }
+  }
+
+  @Override
+  public APIRequest.ResponseWrapper execute(String method, String apiUrl, Map<String, Object> allParams,
+                                            APIContext context) throws APIException, IOException {
+    switch (method) {
+      case "GET":
+        return sendGet(apiUrl, allParams, context);
+      case "POST":
+        return sendPost(apiUrl, allParams, context);
+      case "DELETE":
+        return sendDelete(apiUrl, allParams, context);
+      default:
+        throw new IllegalArgumentException(String.format("Unsupported http method '%s'.", method));
+    }
+  }
+
+  @Override
+  public APIRequest.ResponseWrapper sendGet(String apiUrl, Map<String, Object> allParams, APIContext context)
+    throws APIException, IOException {
+    ResponseCache cache = getResponseCache(context);
+    String key = cache == null ? null : cache.getKey(apiUrl, allParams);
+    if (key == null) {
+      return send("GET", apiUrl + "?" + encodeParams(allParams), null, context);
+    }
+    byte[] cached = cache.get(key);
+    if (cached != null) {
+      recordCacheHit(context);
+      return new APIRequest.ResponseWrapper(new String(cached, StandardCharsets.UTF_8), "{}");
+    }
+    APIRequest.ResponseWrapper response = send("GET", apiUrl + "?" + encodeParams(allParams), null, context);
+    cache.put(key, allParams, response.getBody().getBytes(StandardCharsets.UTF_8));
+    return response;
+  }
+
+  @Override
+  public APIRequest.ResponseWrapper sendPost(String apiUrl, Map<String, Object> allParams, APIContext context)
+    throws APIException, IOException {
+    if (allParams.values().stream().anyMatch(value -> value instanceof File || value instanceof byte[])) {
+      acquire(context);
+      return defaultExecutor.sendPost(apiUrl, allParams, context);
+    }
+    return send("POST", apiUrl, encodeParams(allParams), context);
+  }
+
+  @Override
+  public APIRequest.ResponseWrapper sendDelete(String apiUrl, Map<String, Object> allParams, APIContext context)
+    throws APIException, IOException {
+    return send("DELETE", apiUrl + "?" + encodeParams(allParams), null, context);
+  }
+
+  private APIRequest.ResponseWrapper send(String method, String url, @Nullable String body, APIContext context)
+    throws APIException, IOException {
+    return exchange(method, url, body, context,
+                    (in, headers) -> new APIRequest.ResponseWrapper(readFully(in), toHeaderString(headers)));
+  }
+
+  /**
+   * Sends GET request and passes successful response body to handler, so response can be parsed while it is
+   * being received. Request is throttled the same way requests of SDK are.
+   * @param apiUrl The url of request without parameters
+   * @param params The parameters, including access token
+   * @param context The context
+   * @param handler The handler of response body
+   * @param <T> The type of handler result
+   * @return The handler result
+   * @throws APIException if API returned error
+   * @throws IOException if request failed or response can't be read
+   */
+  public static <T> T get(String apiUrl, Map<String, Object> params, APIContext context,
+                          ResponseHandler<T> handler) throws APIException, IOException {
+    ResponseCache cache = getResponseCache(context);
+    String key = cache == null ? null : cache.getKey(apiUrl, params);
+    if (key == null) {
+      return exchange("GET", apiUrl + "?" + encodeParams(params), null, context,
+                      (in, headers) -> handler.handle(in));
+    }
+    byte[] body = cache.get(key);
+    if (body != null) {
+      recordCacheHit(context);
+    } else {
+      // response is buffered to be cached
+      body = exchange("GET", apiUrl + "?" + encodeParams(params), null, context,
+                      (in, headers) -> ByteStreams.toByteArray(in));
+      cache.put(key, params, body);
+    }
+    return handler.handle(new ByteArrayInputStream(body));
+  }
+
+  @Nullable
+  private static ResponseCache getResponseCache(APIContext context) {
+    return context instanceof GraphApiContext ? ((GraphApiContext) context).getResponseCache() : null;
+  }
+
+  private static HttpTransport getTransport(APIContext context) {
+    HttpTransport transport = context instanceof GraphApiContext ? ((GraphApiContext) context).getTransport() : null;
+    return transport == null ? HttpTransports.getDefault() : transport;
+  }
+
+  @Nullable
+  private static RequestLogger getRequestLogger(APIContext context) {
+    return context instanceof GraphApiContext ? ((GraphApiContext) context).getRequestLogger() : null;
+  }
+
+  @Nullable
+  private static InsightsMetrics getMetrics(APIContext context) {
+    return context instanceof GraphApiContext ? ((GraphApiContext) context).getMetrics() : null;
+  }
+
+  private static void recordCacheHit(APIContext context) {
+    InsightsMetrics metrics = getMetrics(context);
+    if (metrics != null) {
+      metrics.recordCacheHit();
+    }
+  }
+
+  private static <T> T exchange(String method, String url, @Nullable String body, APIContext context,
+                                ExchangeHandler<T> handler) throws APIException, IOException {
+    TokenBucketThrottler throttler = acquire(context);
+    InsightsMetrics metrics = getMetrics(context);
+
+    RequestLogger logger = getRequestLogger(context);
+    int page = logger == null ? 0 : logger.nextPage();
+
+    long startNanos = System.nanoTime();
+    int status = 0;
+    try (HttpTransport.Response response = getTransport(context).send(method, url, body)) {
+      status = response.getCode();
+      long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+      Map<String, List<String>> headers = response.getHeaders();
+      if (throttler != null) {
+        throttler.onUsage(UsageHeaders.parse(headers));
+      }
+
+      if (status >= 400) {
+        String error = readFully(response.getBody());
+        if (metrics != null) {
+          metrics.recordApiCall(latencyMillis, error.length());
+        }
+        if (logger != null) {
+          logger.onError(method, url, page, status, latencyMillis, error);
+        }
+        throw new APIException.FailedRequestException(error);
+      }
+      InputStream responseBody = response.getBody();
+      try (CountingInputStream in = new CountingInputStream(
+        responseBody == null ? new ByteArrayInputStream(new byte[0]) : responseBody)) {
+        T result = handler.handle(in, headers);
+        if (metrics != null) {
+          metrics.recordApiCall(latencyMillis, in.getCount());
+        }
+        if (logger != null) {
+          logger.onSuccess(method, url, page, status, latencyMillis, in.getCount());
+        }
+        return result;
+      }
+    } catch (IOException e) {
+      if (logger != null) {
+        logger.onFailure(method, url, page, status, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), e);
+      }
+      throw e;
+    }
+  }
+
+  @Nullable
+  private static TokenBucketThrottler acquire(APIContext context) throws InterruptedIOException {
+    if (!(context instanceof GraphApiContext)) {
+      return null;
+    }
+    TokenBucketThrottler throttler = Throttlers.get(((GraphApiContext) context).getThrottleKey());
+    long startNanos = System.nanoTime();
+    try {
+      throttler.acquire();
+      InsightsMetrics metrics = ((GraphApiContext) context).getMetrics();
+      if (metrics != null) {
+        metrics.recordThrottleWait(System.nanoTime() - startNanos);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for rate limit.");
+    }
+    return throttler;
+  }
+
+  static String encodeParams(Map<String, Object> params) throws UnsupportedEncodingException {
+    StringBuilder builder = new StringBuilder();
+    for (Map.Entry<String, Object> param : params.entrySet()) {
+      if (param.getValue() == null) {
+        continue;
+      }
+      if (builder.length() > 0) {
+        builder.append('&');
+      }
+      builder.append(URLEncoder.encode(param.getKey(), "UTF-8"))
+        .append('=')
+        .append(URLEncoder.encode(toParamValue(param.getValue()), "UTF-8"));
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Converts value to string the same way SDK does: collections to json arrays, maps to json objects and other
+   * values, including SDK enums, to their string representation.
+   */
+  static String toParamValue(Object value) {
+    if (value instanceof String) {
+      return (String) value;
+    }
+    if (value instanceof Collection) {
+      JsonArray array = new JsonArray();
+      ((Collection<?>) value).forEach(item -> array.add(new JsonPrimitive(toParamValue(item))));
+      return array.toString();
+    }
+    if (value instanceof Map) {
+      return gson.toJson(value);
+    }
+    return value.toString();
+  }
+
+  private static String toHeaderString(Map<String, List<String>> headers) {
+    Map<String, List<String>> namedHeaders = new HashMap<>(headers);
+    // status line is returned with null name
+    namedHeaders.remove(null);
+    return gson.toJson(namedHeaders);
+  }
+
+  private static String readFully(@Nullable InputStream inputStream) throws IOException {
+    if (inputStream == null) {
+      return "";
+    }
+    try (InputStream in = inputStream) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Handles body of successful response.
+   * @param <T> The type of result
+   */
+  public interface ResponseHandler<T> {
+    T handle(InputStream body) throws IOException;
+  }
+
+  private interface ExchangeHandler<T> {
+    T handle(InputStream body, Map<String, List<String>> headers) throws IOException;
+  }
+}
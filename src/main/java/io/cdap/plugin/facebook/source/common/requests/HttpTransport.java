@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Sends http requests to Graph API. Implementations are thread safe and shared by all requests of the JVM with
+ * the same settings, so connections are kept alive and reused between requests, pages and splits.
+ */
+public interface HttpTransport {
+
+  /**
+   * Sends request and returns response, which must be closed to return connection to the pool.
+   * @param method The http method
+   * @param url The url, including query parameters
+   * @param formBody The url encoded form body, null if request has no body
+   * @return The response
+   * @throws IOException if request failed
+   */
+  Response send(String method, String url, @Nullable String formBody) throws IOException;
+
+  /**
+   * Http response with decompressed body.
+   */
+  interface Response extends Closeable {
+    int getCode();
+
+    Map<String, List<String>> getHeaders();
+
+    /**
+     * Returns body of response, either successful or error one.
+     * @return The decompressed body, null if response has no body
+     */
+    @Nullable
+    InputStream getBody() throws IOException;
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import io.cdap.plugin.facebook.source.common.config.BaseSourceConfig;
+import io.cdap.plugin.facebook.source.common.config.HttpTransportMode;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds transports shared by all splits running in the same JVM, one transport per mode and timeouts. Pooled
+ * transports with different timeouts share one connection pool.
+ */
+public class HttpTransports {
+  static final int MAX_IDLE_CONNECTIONS = 32;
+  static final int KEEP_ALIVE_MINUTES = 5;
+
+  private static final OkHttpClient pooledClient = new OkHttpClient.Builder()
+    .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+    .build();
+  private static final ConcurrentMap<String, HttpTransport> transports = new ConcurrentHashMap<>();
+
+  private HttpTransports() {
+  }
+
+  /**
+   * Returns transport with given settings.
+   * @param mode The mode
+   * @param connectTimeoutSeconds The connect timeout
+   * @param readTimeoutSeconds The timeout of reading response
+   * @return The transport
+   */
+  public static HttpTransport get(HttpTransportMode mode, int connectTimeoutSeconds, int readTimeoutSeconds) {
+    String key = String.format("%s:%d:%d", mode, connectTimeoutSeconds, readTimeoutSeconds);
+    return transports.computeIfAbsent(key, k -> create(mode, connectTimeoutSeconds, readTimeoutSeconds));
+  }
+
+  /**
+   * Returns pooled transport with default timeouts, used for requests of contexts without transport.
+   * @return The transport
+   */
+  public static HttpTransport getDefault() {
+    return get(HttpTransportMode.Pooled, BaseSourceConfig.DEFAULT_CONNECT_TIMEOUT_SECONDS,
+               BaseSourceConfig.DEFAULT_READ_TIMEOUT_SECONDS);
+  }
+
+  private static HttpTransport create(HttpTransportMode mode, int connectTimeoutSeconds, int readTimeoutSeconds) {
+    switch (mode) {
+      case Pooled:
+        return new OkHttpTransport(pooledClient.newBuilder()
+                                     .connectTimeout(connectTimeoutSeconds, TimeUnit.SECONDS)
+                                     .readTimeout(readTimeoutSeconds, TimeUnit.SECONDS)
+                                     .build());
+      case Jdk:
+        return new UrlConnectionTransport((int) TimeUnit.SECONDS.toMillis(connectTimeoutSeconds),
+                                          (int) TimeUnit.SECONDS.toMillis(readTimeoutSeconds));
+      default:
+        throw new IllegalArgumentException(String.format("Unsupported http transport mode '%s'.", mode));
+    }
+  }
+}
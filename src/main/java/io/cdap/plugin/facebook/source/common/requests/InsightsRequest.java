@@ -20,15 +20,9 @@ import com.facebook.ads.sdk.APIException;
 import com.facebook.ads.sdk.APINodeList;
 import com.facebook.ads.sdk.AdsInsights;
 
-import java.util.List;
-
 /**
  * Common interface for Facebook Insights requests.
  */
-public interface InsightsRequest {
-  void requestField(String fieldName);
-  void setParam(String paramName, Object value);
-  void setBreakdowns(List<AdsInsights.EnumBreakdowns> breakdowns);
-  void setActionBreakdowns(List<AdsInsights.EnumActionBreakdowns> breakdowns);
+public interface InsightsRequest extends InsightsRequestParams {
   APINodeList<AdsInsights> execute() throws APIException;
 }
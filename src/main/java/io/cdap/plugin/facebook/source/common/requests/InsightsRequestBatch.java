@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import com.facebook.ads.sdk.APIContext;
+import com.facebook.ads.sdk.APIException;
+import com.facebook.ads.sdk.APINodeList;
+import com.facebook.ads.sdk.APIResponse;
+import com.facebook.ads.sdk.AdsInsights;
+import com.facebook.ads.sdk.BatchRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Group of insights requests, which are sent in single Graph API batch request. Each response is returned as
+ * first page of corresponding request results, next pages are requested separately.
+ */
+public class InsightsRequestBatch {
+  /**
+   * Maximum number of requests Graph API accepts in one batch.
+   */
+  public static final int MAX_SIZE = 50;
+
+  private final APIContext context;
+  private final List<BatchableInsightsRequest> requests = new ArrayList<>();
+
+  InsightsRequestBatch(APIContext context) {
+    this.context = context;
+  }
+
+  /**
+   * Adds request to batch.
+   * @param request The synchronous insights request
+   */
+  public void add(BatchableInsightsRequest request) {
+    if (requests.size() >= MAX_SIZE) {
+      throw new IllegalStateException(String.format("Batch can't hold more than %d requests.", MAX_SIZE));
+    }
+    requests.add(request);
+  }
+
+  public int size() {
+    return requests.size();
+  }
+
+  /**
+   * Executes all requests in single batch request.
+   * @return The first pages of results in order requests were added
+   * @throws APIException if batch or any of requests failed
+   */
+  @SuppressWarnings("unchecked")
+  public List<APINodeList<AdsInsights>> execute() throws APIException {
+    List<APINodeList<AdsInsights>> pages = new ArrayList<>(requests.size());
+    if (requests.isEmpty()) {
+      return pages;
+    }
+    BatchRequest batch = new BatchRequest(context);
+    requests.forEach(request -> request.addToBatch(batch));
+    for (APIResponse response : batch.execute()) {
+      if (response instanceof APIException) {
+        throw (APIException) response;
+      }
+      pages.add((APINodeList<AdsInsights>) response);
+    }
+    return pages;
+  }
+}
@@ -21,20 +21,72 @@ import com.facebook.ads.sdk.Ad;
 import com.facebook.ads.sdk.AdAccount;
 import com.facebook.ads.sdk.AdSet;
 import com.facebook.ads.sdk.Campaign;
-import io.cdap.plugin.facebook.source.common.SchemaHelper;
 import io.cdap.plugin.facebook.source.common.config.BaseSourceConfig;
 import io.cdap.plugin.facebook.source.common.config.Breakdowns;
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ExecutionMode;
 import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import io.cdap.plugin.facebook.source.common.config.QueryPlan;
+import io.cdap.plugin.facebook.source.common.metrics.InsightsMetrics;
+import org.apache.hadoop.conf.Configuration;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
  * Creates request based on source configuration.
  */
 public class InsightsRequestFactory {
-  private static InsightsRequest createRequest(ObjectType objectType, String objectId, String accessToken) {
-    APIContext context = new APIContext(accessToken).enableDebug(true);
+  /**
+   * Creates context, which throttles requests by configured object. Requests to children of configured object
+   * share its throttler.
+   */
+  private static APIContext createContext(BaseSourceConfig config) {
+    return createContext(config, null, config.getObjectId());
+  }
+
+  /**
+   * Creates context of request to the given object. Each of configured objects of multi-object source is throttled
+   * separately, requests to children share throttler of configured object.
+   */
+  private static APIContext createContext(BaseSourceConfig config, @Nullable Configuration conf,
+                                          ObjectType objectType, String objectId, @Nullable DateRange timeRange) {
+    String throttleKey = objectType == config.getObjectType() ? objectId : config.getObjectId();
+    GraphApiContext context = createContext(config, conf, throttleKey);
+    context.setRequestLogger(new RequestLogger(config.getRequestLogLevel(), config.getRequestLogSampleRate(),
+                                               objectType, objectId, timeRange));
+    return context;
+  }
+
+  private static GraphApiContext createContext(BaseSourceConfig config, @Nullable Configuration conf,
+                                               String throttleKey) {
+    GraphRequestExecutor.install();
+    GraphApiContext context = new GraphApiContext(config.getAccessToken(), throttleKey);
+    context.setResponseCache(conf == null ? null : createResponseCache(config, conf));
+    // only requests of batch run are counted, their metrics are published by stage
+    String runKey = conf == null ? null : conf.get(InsightsMetrics.PROPERTY_RUN_KEY);
+    context.setMetrics(runKey == null ? null : InsightsMetrics.forRun(runKey));
+    context.setEndpointBase(config.getApiEndpoint());
+    context.setTransport(HttpTransports.get(config.getHttpTransportMode(), config.getConnectTimeoutSeconds(),
+                                            config.getReadTimeoutSeconds()));
+    return context;
+  }
+
+  /**
+   * Creates cache of responses.
+   * @param conf The configuration of job or task, which is used to access cache directory
+   * @return The cache, null if cache directory is not configured
+   */
+  @Nullable
+  public static ResponseCache createResponseCache(BaseSourceConfig config, Configuration conf) {
+    if (config.getCacheDirectory() == null) {
+      return null;
+    }
+    return new ResponseCache(config.getCacheDirectory(), conf, TimeUnit.HOURS.toMillis(config.getCacheTtlHours()),
+                             config.getCacheMaxSizeMb() * 1024L * 1024L);
+  }
+
+  private static BatchableInsightsRequest createRequest(ObjectType objectType, String objectId, APIContext context) {
     switch (objectType) {
       case Campaign:
         return new InsightsRequestWrapper(new Campaign(objectId, context).getInsights());
@@ -49,18 +101,82 @@ public class InsightsRequestFactory {
     }
   }
 
+  private static InsightsRequest createAsyncRequest(ObjectType objectType, String objectId, APIContext context) {
+    switch (objectType) {
+      case Campaign:
+        return new AsyncInsightsRequestWrapper(new Campaign(objectId, context).getInsightsAsync());
+      case Ad:
+        return new AsyncInsightsRequestWrapper(new Ad(objectId, context).getInsightsAsync());
+      case AdSet:
+        return new AsyncInsightsRequestWrapper(new AdSet(objectId, context).getInsightsAsync());
+      case Account:
+        return new AsyncInsightsRequestWrapper(new AdAccount(objectId, context).getInsightsAsync());
+      default:
+        throw new IllegalArgumentException("Unsupported object");
+    }
+  }
+
   /**
-   * Creates insights request.
+   * Creates insights request, which response is not cached.
    */
   public static InsightsRequest createRequest(BaseSourceConfig config) {
-    InsightsRequest request = createRequest(config.getObjectType(), config.getObjectId(), config.getAccessToken());
-    List<String> fieldsToQuery = config.getFields()
-      .stream()
-      .filter(SchemaHelper::isValidForFieldsParameter)
-      .collect(Collectors.toList());
-    fieldsToQuery.forEach(request::requestField);
+    return createRequest(config, null);
+  }
+
+  /**
+   * Creates insights request for the given time range, configured date preset is used if time range is not set.
+   * Response is not cached.
+   */
+  public static InsightsRequest createRequest(BaseSourceConfig config, @Nullable DateRange timeRange) {
+    return createRequest(config, null, config.getQueryPlan(), config.getObjectType(), config.getObjectId(),
+                         timeRange);
+  }
+
+  /**
+   * Creates insights request of the plan for the given object, which may differ from the configured one if
+   * configured object is split by its child objects.
+   * @param conf The configuration used to access response cache, null if responses are not cached
+   */
+  public static InsightsRequest createRequest(BaseSourceConfig config, @Nullable Configuration conf, QueryPlan plan,
+                                              ObjectType objectType, String objectId, @Nullable DateRange timeRange) {
+    APIContext context = createContext(config, conf, objectType, objectId, timeRange);
+    InsightsRequest request = config.getExecutionMode() == ExecutionMode.Async
+      ? createAsyncRequest(objectType, objectId, context)
+      : createRequest(objectType, objectId, context);
+    setParams(request, plan, timeRange);
+    return request;
+  }
+
+  /**
+   * Creates synchronous insights request of the plan for the given object, which can be added to
+   * {@link InsightsRequestBatch} regardless of configured execution mode.
+   */
+  public static BatchableInsightsRequest createBatchableRequest(BaseSourceConfig config, @Nullable Configuration conf,
+                                                                QueryPlan plan, ObjectType objectType,
+                                                                String objectId, @Nullable DateRange timeRange) {
+    BatchableInsightsRequest request = createRequest(objectType, objectId,
+                                                     createContext(config, conf, objectType, objectId, timeRange));
+    setParams(request, plan, timeRange);
+    return request;
+  }
+
+  /**
+   * Creates synchronous insights request of the plan for the given object, which response is parsed to records
+   * while it is being received.
+   */
+  public static StreamingInsightsRequest createStreamingRequest(BaseSourceConfig config, @Nullable Configuration conf,
+                                                                QueryPlan plan, ObjectType objectType,
+                                                                String objectId, @Nullable DateRange timeRange) {
+    StreamingInsightsRequest request = new StreamingInsightsRequest(
+      createContext(config, conf, objectType, objectId, timeRange), objectId);
+    setParams(request, plan, timeRange);
+    return request;
+  }
 
-    Breakdowns breakdowns = config.getBreakdown();
+  private static void setParams(InsightsRequestParams request, QueryPlan plan, @Nullable DateRange timeRange) {
+    plan.getRequestFields().forEach(request::requestField);
+
+    Breakdowns breakdowns = plan.getBreakdowns();
 
     if (breakdowns != null) {
       if (!breakdowns.getBreakdowns().isEmpty()) {
@@ -71,16 +187,78 @@ public class InsightsRequestFactory {
       }
     }
 
-    if (config.getFiltering() != null) {
-      request.setParam("filtering", config.getFiltering());
+    if (plan.getFiltering() != null) {
+      request.setParam("filtering", plan.getFiltering());
+    }
+
+    if (plan.getLevel() != null) {
+      request.setParam("level", plan.getLevel());
+    }
+
+    if (plan.getSorting() != null) {
+      request.setParam("sort", plan.getSorting());
     }
 
-    if (!"default".equals(config.getLevel())) {
-      request.setParam("level", config.getLevel());
+    if (plan.getTimeIncrement() != null) {
+      request.setParam("time_increment", plan.getTimeIncrement());
+    }
+
+    setTimeRange(request, plan, timeRange);
+  }
+
+  /**
+   * Creates request, which lists ids of configured object children of given type that have insights in the time
+   * range. Only children with delivery are returned, including archived and deleted ones.
+   */
+  public static InsightsRequest createChildrenRequest(BaseSourceConfig config, @Nullable Configuration conf,
+                                                      ObjectType childType, @Nullable DateRange timeRange) {
+    return createChildrenRequest(config, conf, config.getObjectType(), config.getObjectId(), childType, timeRange);
+  }
+
+  /**
+   * Creates request, which lists ids of children of the given object, see
+   * {@link #createChildrenRequest(BaseSourceConfig, Configuration, ObjectType, DateRange)}.
+   */
+  public static InsightsRequest createChildrenRequest(BaseSourceConfig config, @Nullable Configuration conf,
+                                                      ObjectType objectType, String objectId, ObjectType childType,
+                                                      @Nullable DateRange timeRange) {
+    return createChildrenRequest(config, conf, config.getQueryPlan(), objectType, objectId, childType, timeRange);
+  }
+
+  /**
+   * Creates request, which lists ids of children of the given object matching filtering of the plan, see
+   * {@link #createChildrenRequest(BaseSourceConfig, Configuration, ObjectType, DateRange)}.
+   */
+  public static InsightsRequest createChildrenRequest(BaseSourceConfig config, @Nullable Configuration conf,
+                                                      QueryPlan plan, ObjectType objectType, String objectId,
+                                                      ObjectType childType, @Nullable DateRange timeRange) {
+    InsightsRequest request = createRequest(objectType, objectId,
+                                            createContext(config, conf, objectType, objectId, timeRange));
+    request.requestField(childType.getLevel() + "_id");
+    request.setParam("level", childType.getLevel());
+
+    if (plan.getFiltering() != null) {
+      request.setParam("filtering", plan.getFiltering());
     }
 
-    request.setParam("date_preset", config.getDatePreset());
+    setTimeRange(request, plan, timeRange);
 
     return request;
   }
+
+  /**
+   * Creates empty batch of insights requests, which is throttled as request to the given object.
+   */
+  public static InsightsRequestBatch createBatch(BaseSourceConfig config, ObjectType objectType, String objectId) {
+    // requests of batch may have different time ranges, batch is posted and so never cached
+    return new InsightsRequestBatch(createContext(config, null, objectType, objectId, null));
+  }
+
+  private static void setTimeRange(InsightsRequestParams request, QueryPlan plan, @Nullable DateRange timeRange) {
+    if (timeRange != null) {
+      request.setParam("time_range", timeRange.toTimeRangeParam());
+    } else {
+      request.setParam("date_preset", plan.getDatePreset());
+    }
+  }
 }
@@ -23,6 +23,7 @@ import com.facebook.ads.sdk.Ad;
 import com.facebook.ads.sdk.AdAccount;
 import com.facebook.ads.sdk.AdSet;
 import com.facebook.ads.sdk.AdsInsights;
+import com.facebook.ads.sdk.BatchRequest;
 import com.facebook.ads.sdk.Campaign;
 
 import java.util.List;
@@ -31,7 +32,7 @@ import java.util.List;
  * Wraps one of the following requests: {@link Campaign.APIRequestGetInsights}, {@link Ad.APIRequestGetInsights},
  * {@link AdSet.APIRequestGetInsights}, {@link AdAccount.APIRequestGetInsights}.
  */
-public class InsightsRequestWrapper implements InsightsRequest {
+public class InsightsRequestWrapper implements BatchableInsightsRequest {
   private APIRequest<AdsInsights> request;
 
   InsightsRequestWrapper(APIRequest<AdsInsights> request) {
@@ -73,4 +74,9 @@ public class InsightsRequestWrapper implements InsightsRequest {
     }
     throw new IllegalArgumentException("Request is not supported.");
   }
+
+  @Override
+  public void addToBatch(BatchRequest batch) {
+    request.addToBatch(batch);
+  }
 }
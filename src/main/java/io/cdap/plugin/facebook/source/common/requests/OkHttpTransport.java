@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import com.facebook.ads.sdk.APIConfig;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Transport sending requests by OkHttp client. Client keeps idle connections alive in its pool, so TLS handshake
+ * is done once per connection, and transparently requests gzip compressed responses and decompresses them.
+ */
+public class OkHttpTransport implements HttpTransport {
+  private static final MediaType FORM = MediaType.get("application/x-www-form-urlencoded");
+
+  private final OkHttpClient client;
+
+  /**
+   * Constructor for OkHttpTransport object.
+   * @param client The client, clients sharing connection pool are derived with {@link OkHttpClient#newBuilder()}
+   */
+  public OkHttpTransport(OkHttpClient client) {
+    this.client = client;
+  }
+
+  @Override
+  public HttpTransport.Response send(String method, String url, @Nullable String formBody) throws IOException {
+    Request request = new Request.Builder()
+      .url(url)
+      .header("User-Agent", APIConfig.USER_AGENT)
+      .method(method, formBody == null ? null : RequestBody.create(formBody, FORM))
+      .build();
+    okhttp3.Response response = client.newCall(request).execute();
+    return new HttpTransport.Response() {
+      @Override
+      public int getCode() {
+        return response.code();
+      }
+
+      @Override
+      public Map<String, List<String>> getHeaders() {
+        return response.headers().toMultimap();
+      }
+
+      @Nullable
+      @Override
+      public InputStream getBody() {
+        ResponseBody body = response.body();
+        return body == null ? null : body.byteStream();
+      }
+
+      @Override
+      public void close() {
+        response.close();
+      }
+    };
+  }
+}
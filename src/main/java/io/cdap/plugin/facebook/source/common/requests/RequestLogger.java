@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import io.cdap.plugin.facebook.source.common.config.RequestLogLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * Logs Graph API requests of one request context as single lines of 'key=value' fields: level and id of requested
+ * object, time range of the split part, page, http status, latency and size of response. Failed requests are
+ * logged with full url and error response at WARN level, sampled successful requests at INFO level with url
+ * without query. If DEBUG level is enabled for this logger, every request is logged regardless of configured
+ * level. Access tokens are redacted.
+ */
+public class RequestLogger {
+  private static final Logger LOG = LoggerFactory.getLogger(RequestLogger.class);
+  static final int MAX_ERROR_LENGTH = 1000;
+  private static final Pattern SECRET_PATTERN = Pattern.compile(
+    "(access_token|appsecret_proof)(=|%3D|\":\\s*\")[^&\\s\"%]*", Pattern.CASE_INSENSITIVE);
+
+  private final RequestLogLevel level;
+  private final double sampleRate;
+  private final ObjectType objectType;
+  private final String objectId;
+  private final DateRange timeRange;
+  private final AtomicInteger pages = new AtomicInteger();
+
+  /**
+   * Constructor for RequestLogger object.
+   * @param level The level of logged requests
+   * @param sampleRate The fraction of successful requests logged at {@link RequestLogLevel#Requests} level
+   * @param objectType The type of requested object
+   * @param objectId The id of requested object
+   * @param timeRange The time range of requests, null if date preset is requested or ranges differ
+   */
+  public RequestLogger(RequestLogLevel level, double sampleRate, ObjectType objectType, String objectId,
+                       @Nullable DateRange timeRange) {
+    this.level = level;
+    this.sampleRate = sampleRate;
+    this.objectType = objectType;
+    this.objectId = objectId;
+    this.timeRange = timeRange;
+  }
+
+  /**
+   * Returns number of the next request of the context, pages and retries of a request are numbered sequentially.
+   * @return The number starting from 1
+   */
+  public int nextPage() {
+    return pages.incrementAndGet();
+  }
+
+  /**
+   * Logs successful response if it is sampled.
+   */
+  public void onSuccess(String method, String url, int page, int status, long latencyMillis, long bytes) {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(format(method, redact(url), page, status, latencyMillis, bytes));
+    } else if (level == RequestLogLevel.Requests && LOG.isInfoEnabled()
+      && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+      LOG.info(format(method, stripQuery(url), page, status, latencyMillis, bytes));
+    }
+  }
+
+  /**
+   * Logs response with error status.
+   */
+  public void onError(String method, String url, int page, int status, long latencyMillis, String error) {
+    if (level != RequestLogLevel.Off || LOG.isDebugEnabled()) {
+      LOG.warn("{} error={}", format(method, redact(url), page, status, latencyMillis, error.length()),
+               redact(truncate(error)));
+    }
+  }
+
+  /**
+   * Logs request, which failed without response or while response was read.
+   * @param status The http status, 0 if response was not received
+   */
+  public void onFailure(String method, String url, int page, int status, long latencyMillis, Exception e) {
+    if (level != RequestLogLevel.Off || LOG.isDebugEnabled()) {
+      LOG.warn("{} error={}", format(method, redact(url), page, status, latencyMillis, 0),
+               redact(truncate(String.valueOf(e))));
+    }
+  }
+
+  private String format(String method, String url, int page, int status, long latencyMillis, long bytes) {
+    return String.format("request method=%s url=%s level=%s object=%s range=%s page=%d status=%d latencyMs=%d "
+                           + "bytes=%d", method, url, objectType.getLevel(), objectId,
+                         timeRange == null ? "-" : timeRange, page, status, latencyMillis, bytes);
+  }
+
+  private static String stripQuery(String url) {
+    int query = url.indexOf('?');
+    return query < 0 ? url : url.substring(0, query);
+  }
+
+  private static String truncate(String text) {
+    return text.length() > MAX_ERROR_LENGTH ? text.substring(0, MAX_ERROR_LENGTH) + "..." : text;
+  }
+
+  /**
+   * Replaces access tokens and app secret proofs in urls, url encoded bodies and json with 'REDACTED'.
+   * @param text The text
+   * @return The text without secrets
+   */
+  static String redact(String text) {
+    return SECRET_PATTERN.matcher(text).replaceAll("$1$2REDACTED");
+  }
+}
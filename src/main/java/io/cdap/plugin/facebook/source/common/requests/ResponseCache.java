@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
+
+/**
+ * Read-through cache of GET responses kept compressed in a directory on any file system supported by Hadoop.
+ * <p>
+ * Only requests for explicit time range are cached. Insights of days older than attribution window don't change,
+ * so responses for ranges that ended before it never expire, responses for recent days expire after ttl.
+ * Entries are keyed by hash of url and parameters except access token. Least recently used entries are evicted
+ * by {@link #evict()} when cache grows over its size. Credentials are removed from paging links of responses before
+ * they are written, but responses are still readable with any token, so cache directory must not be shared by
+ * sources with different credentials.
+ */
+public class ResponseCache {
+  private static final Logger LOG = LoggerFactory.getLogger(ResponseCache.class);
+  private static final int ATTRIBUTION_WINDOW_DAYS = 28;
+  private static final long NEVER = Long.MAX_VALUE;
+  private static final String ENTRY_SUFFIX = ".json.gz";
+  private static final Set<String> EXCLUDED_PARAMS = ImmutableSet.of("access_token", "appsecret_proof");
+  private static final JsonParser jsonParser = new JsonParser();
+  private static final Pattern CREDENTIALS_PARAM =
+    Pattern.compile("([?&])(?:access_token|appsecret_proof)=[^&\"\\\\]*+(&?)");
+
+  private final Path directory;
+  private final Configuration conf;
+  private final long ttlMillis;
+  private final long maxSizeBytes;
+  private final Clock clock;
+
+  /**
+   * Constructor for ResponseCache object.
+   * @param directory The directory of cache entries
+   * @param conf The configuration of job or task, which is used to access file system of directory
+   * @param ttlMillis The time responses for recent days are kept for
+   * @param maxSizeBytes The size cache is reduced to by eviction
+   */
+  public ResponseCache(String directory, Configuration conf, long ttlMillis, long maxSizeBytes) {
+    this(directory, conf, ttlMillis, maxSizeBytes, Clock.systemUTC());
+  }
+
+  ResponseCache(String directory, Configuration conf, long ttlMillis, long maxSizeBytes, Clock clock) {
+    this.directory = new Path(directory);
+    this.conf = conf;
+    this.ttlMillis = ttlMillis;
+    this.maxSizeBytes = maxSizeBytes;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns key of request.
+   * @param apiUrl The url of request without parameters
+   * @param params The parameters of request
+   * @return The key, null if response is not cacheable
+   */
+  @Nullable
+  public String getKey(String apiUrl, Map<String, Object> params) {
+    if (params.get("time_range") == null) {
+      return null;
+    }
+    StringBuilder canonical = new StringBuilder(apiUrl);
+    new TreeMap<>(params).forEach((name, value) -> {
+      if (value != null && !EXCLUDED_PARAMS.contains(name)) {
+        canonical.append('\n').append(name).append('=').append(GraphRequestExecutor.toParamValue(value));
+      }
+    });
+    return Hashing.sha256().hashString(canonical, StandardCharsets.UTF_8).toString();
+  }
+
+  /**
+   * Returns cached response body. Failures to read cache are logged and treated as missing entry.
+   * @param key The key of request
+   * @return The body, null if response is not cached or expired
+   */
+  @Nullable
+  public byte[] get(String key) {
+    Path path = getPath(key);
+    try {
+      FileSystem fileSystem = path.getFileSystem(conf);
+      if (!fileSystem.exists(path)) {
+        return null;
+      }
+      byte[] entry;
+      try (InputStream in = new GZIPInputStream(fileSystem.open(path))) {
+        entry = ByteStreams.toByteArray(in);
+      }
+      int separator = indexOf(entry, (byte) '\n');
+      long expiresAt = Long.parseLong(new String(entry, 0, separator, StandardCharsets.UTF_8));
+      long now = clock.millis();
+      if (expiresAt <= now) {
+        fileSystem.delete(path, false);
+        return null;
+      }
+      // modification time is the last use of entry
+      fileSystem.setTimes(path, now, -1);
+      return Arrays.copyOfRange(entry, separator + 1, entry.length);
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to read cached response '{}'.", path, e);
+      return null;
+    }
+  }
+
+  /**
+   * Caches response body. Failures to write cache are logged and ignored.
+   * @param key The key of request
+   * @param params The parameters of request
+   * @param body The response body
+   */
+  public void put(String key, Map<String, Object> params, byte[] body) {
+    Path path = getPath(key);
+    Path tempPath = new Path(directory, UUID.randomUUID() + ".tmp");
+    try {
+      FileSystem fileSystem = path.getFileSystem(conf);
+      fileSystem.mkdirs(directory);
+      try (OutputStream out = new GZIPOutputStream(fileSystem.create(tempPath, true))) {
+        out.write(Long.toString(getExpiration(params)).getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+        out.write(stripCredentials(body));
+      }
+      // concurrent tasks may cache the same response
+      fileSystem.delete(path, false);
+      if (!fileSystem.rename(tempPath, path)) {
+        fileSystem.delete(tempPath, false);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to cache response '{}'.", path, e);
+    }
+  }
+
+  /**
+   * Deletes least recently used entries until cache fits its size.
+   * @throws IOException if cache directory can't be listed
+   */
+  public void evict() throws IOException {
+    FileSystem fileSystem = directory.getFileSystem(conf);
+    if (!fileSystem.exists(directory)) {
+      return;
+    }
+    FileStatus[] entries = fileSystem.listStatus(directory, path -> path.getName().endsWith(ENTRY_SUFFIX));
+    long size = 0;
+    for (FileStatus entry : entries) {
+      size += entry.getLen();
+    }
+    Arrays.sort(entries, Comparator.comparingLong(FileStatus::getModificationTime));
+    for (int i = 0; i < entries.length && size > maxSizeBytes; i++) {
+      if (fileSystem.delete(entries[i].getPath(), false)) {
+        size -= entries[i].getLen();
+      }
+    }
+  }
+
+  /**
+   * Responses for ranges ended before attribution window never expire, responses including recent days expire
+   * after ttl.
+   */
+  private long getExpiration(Map<String, Object> params) {
+    JsonObject timeRange = jsonParser.parse(GraphRequestExecutor.toParamValue(params.get("time_range")))
+      .getAsJsonObject();
+    LocalDate until = LocalDate.parse(timeRange.get("until").getAsString());
+    LocalDate today = LocalDate.now(clock);
+    if (until.isBefore(today.minusDays(ATTRIBUTION_WINDOW_DAYS))) {
+      return NEVER;
+    }
+    return clock.millis() + ttlMillis;
+  }
+
+  /**
+   * Removes access token and its proof from paging links of response. SDK sends them as parameters of next page
+   * request anyway.
+   */
+  static byte[] stripCredentials(byte[] body) {
+    StringBuilder text = new StringBuilder(new String(body, StandardCharsets.UTF_8));
+    Matcher matcher = CREDENTIALS_PARAM.matcher(text);
+    int start = 0;
+    boolean stripped = false;
+    // text is searched again from the removed parameter, since its separator may be kept for the next one
+    while (matcher.find(start)) {
+      start = matcher.start();
+      // separator before parameter is kept only if other parameters follow it
+      text.replace(start, matcher.end(), matcher.group(2).isEmpty() ? "" : matcher.group(1));
+      stripped = true;
+    }
+    return stripped ? text.toString().getBytes(StandardCharsets.UTF_8) : body;
+  }
+
+  private Path getPath(String key) {
+    return new Path(directory, key + ENTRY_SUFFIX);
+  }
+
+  private static int indexOf(byte[] bytes, byte value) throws IOException {
+    for (int i = 0; i < bytes.length; i++) {
+      if (bytes[i] == value) {
+        return i;
+      }
+    }
+    throw new IOException("Cache entry is corrupted.");
+  }
+}
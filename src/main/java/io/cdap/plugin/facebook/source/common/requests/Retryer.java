@@ -0,0 +1,259 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import com.facebook.ads.sdk.APIException;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import io.cdap.plugin.facebook.source.common.metrics.InsightsMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Retries Graph API calls failed with transient errors, waiting exponentially growing random time between
+ * attempts ("full jitter" backoff).
+ */
+public class Retryer {
+  private static final Logger LOG = LoggerFactory.getLogger(Retryer.class);
+  private static final JsonParser jsonParser = new JsonParser();
+
+  /**
+   * Error codes of temporary failures and rate limits: unknown error, service unavailable, application, user and
+   * page request limits, too many calls.
+   */
+  private static final Set<Integer> TRANSIENT_ERROR_CODES = new HashSet<>(Arrays.asList(1, 2, 4, 17, 32, 613));
+  /**
+   * Business use case rate limit errors are in range 80000 - 80099.
+   */
+  private static final int BUSINESS_USE_CASE_ERRORS_START = 80000;
+  private static final int BUSINESS_USE_CASE_ERRORS_END = 80099;
+  /**
+   * Unknown error code, which API also returns for queries of too much data.
+   */
+  private static final int UNKNOWN_ERROR_CODE = 1;
+  private static final String REDUCE_DATA_MESSAGE = "reduce the amount of data";
+  /**
+   * Error subcode of insights query timed out on server side.
+   */
+  private static final int QUERY_TIMEOUT_SUBCODE = 1504018;
+
+  static final long BASE_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+  static final long MAX_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  private final int maxRetries;
+  private final long baseDelayMillis;
+  private final long maxDelayMillis;
+  private final Sleeper sleeper;
+  private final InsightsMetrics metrics;
+
+  public Retryer(int maxRetries) {
+    this(maxRetries, null);
+  }
+
+  /**
+   * Constructor for Retryer object.
+   * @param maxRetries The maximum number of retries of a call
+   * @param metrics The metrics retries are recorded to, null if retries are not recorded
+   */
+  public Retryer(int maxRetries, @Nullable InsightsMetrics metrics) {
+    this(maxRetries, BASE_DELAY_MILLIS, MAX_DELAY_MILLIS, Thread::sleep, metrics);
+  }
+
+  Retryer(int maxRetries, long baseDelayMillis, long maxDelayMillis, Sleeper sleeper) {
+    this(maxRetries, baseDelayMillis, maxDelayMillis, sleeper, null);
+  }
+
+  Retryer(int maxRetries, long baseDelayMillis, long maxDelayMillis, Sleeper sleeper,
+          @Nullable InsightsMetrics metrics) {
+    this.maxRetries = maxRetries;
+    this.baseDelayMillis = baseDelayMillis;
+    this.maxDelayMillis = maxDelayMillis;
+    this.sleeper = sleeper;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Executes call, retrying it on transient errors. Errors asking to reduce the amount of data are not retried, as
+   * they fail again if repeated.
+   * @param call The call
+   * @param <T> The type of call result
+   * @return The result of first successful attempt
+   * @throws APIException if call failed with permanent error or all attempts failed
+   */
+  public <T> T call(Call<T> call) throws APIException {
+    return call(call, false);
+  }
+
+  /**
+   * Executes the first request of split part, which is cut instead of retried if it is too large, see
+   * {@link #isTooLarge(APIException)}. Read timeouts are not retried, other transient errors are.
+   * @param call The call
+   * @param <T> The type of call result
+   * @return The result of first successful attempt
+   * @throws APIException if call failed with permanent error, as too large or all attempts failed
+   */
+  public <T> T callFirst(Call<T> call) throws APIException {
+    return call(call, true);
+  }
+
+  private <T> T call(Call<T> call, boolean first) throws APIException {
+    int attempt = 0;
+    while (true) {
+      try {
+        return call.call();
+      } catch (APIException e) {
+        if (attempt >= maxRetries || !isTransient(e) || isTooLargeError(parseError(e.getMessage()))
+          || (first && isReadTimeout(e))) {
+          throw e;
+        }
+        long delayMillis = delayMillis(attempt++);
+        LOG.warn("Request failed with transient error, retrying in {} ms (attempt {} of {}): {}",
+                 delayMillis, attempt, maxRetries, e.getMessage());
+        if (metrics != null) {
+          metrics.recordRetry(delayMillis);
+        }
+        try {
+          sleeper.sleep(delayMillis);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+      }
+    }
+  }
+
+  private long delayMillis(int attempt) {
+    long maxDelay = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 30));
+    return ThreadLocalRandom.current().nextLong(maxDelay + 1);
+  }
+
+  /**
+   * Checks if error is temporary and request may succeed if repeated. Network failures, rate limits and errors
+   * marked by API as transient are temporary.
+   * @param e The error
+   * @return true if request should be retried
+   */
+  public static boolean isTransient(APIException e) {
+    if (e.getCause() instanceof IOException) {
+      return true;
+    }
+    JsonObject error = parseError(e.getMessage());
+    if (error == null) {
+      return false;
+    }
+    JsonElement isTransient = error.get("is_transient");
+    if (isTransient != null && isTransient.isJsonPrimitive() && isTransient.getAsBoolean()) {
+      return true;
+    }
+    JsonElement code = error.get("code");
+    if (code == null || !code.isJsonPrimitive() || !code.getAsJsonPrimitive().isNumber()) {
+      return false;
+    }
+    int errorCode = code.getAsInt();
+    return TRANSIENT_ERROR_CODES.contains(errorCode)
+      || (errorCode >= BUSINESS_USE_CASE_ERRORS_START && errorCode <= BUSINESS_USE_CASE_ERRORS_END);
+  }
+
+  /**
+   * Checks if request failed because it asks for too much data. Such request fails again if repeated as is, but
+   * smaller requests covering the same data may succeed. Read timeouts are counted as well, as they are mostly caused
+   * by long running queries.
+   * @param e The error
+   * @return true if request should be split into smaller ones
+   */
+  public static boolean isTooLarge(APIException e) {
+    return isReadTimeout(e) || isTooLargeError(parseError(e.getMessage()));
+  }
+
+  /**
+   * Checks if request timed out waiting for response. Connect timeouts are thrown as the same exception by both JDK
+   * and OkHttp, they are told apart by message, as they say nothing about the size of request.
+   */
+  private static boolean isReadTimeout(APIException e) {
+    Throwable cause = e.getCause();
+    if (!(cause instanceof SocketTimeoutException)) {
+      return false;
+    }
+    String message = cause.getMessage();
+    return message == null || !message.toLowerCase(Locale.ROOT).contains("connect");
+  }
+
+  private static boolean isTooLargeError(@Nullable JsonObject error) {
+    if (error == null) {
+      return false;
+    }
+    JsonElement subcode = error.get("error_subcode");
+    if (isNumber(subcode) && subcode.getAsInt() == QUERY_TIMEOUT_SUBCODE) {
+      return true;
+    }
+    JsonElement code = error.get("code");
+    JsonElement message = error.get("message");
+    return isNumber(code) && code.getAsInt() == UNKNOWN_ERROR_CODE
+      && message != null && message.isJsonPrimitive() && message.getAsString().contains(REDUCE_DATA_MESSAGE);
+  }
+
+  private static boolean isNumber(@Nullable JsonElement element) {
+    return element != null && element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber();
+  }
+
+  /**
+   * Parses 'error' object of Graph API error response, which is the message of failed request exception.
+   */
+  @Nullable
+  static JsonObject parseError(@Nullable String message) {
+    if (message == null) {
+      return null;
+    }
+    try {
+      JsonElement response = jsonParser.parse(message);
+      if (!response.isJsonObject()) {
+        return null;
+      }
+      JsonElement error = response.getAsJsonObject().get("error");
+      return error != null && error.isJsonObject() ? error.getAsJsonObject() : null;
+    } catch (JsonParseException | IllegalStateException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Graph API call.
+   * @param <T> The type of result
+   */
+  public interface Call<T> {
+    T call() throws APIException;
+  }
+
+  /**
+   * Waits between attempts.
+   */
+  interface Sleeper {
+    void sleep(long millis) throws InterruptedException;
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import com.facebook.ads.sdk.APIContext;
+import com.facebook.ads.sdk.APIException;
+import com.facebook.ads.sdk.AdsInsights;
+import io.cdap.plugin.facebook.source.common.InsightsJsonParser;
+import io.cdap.plugin.facebook.source.common.InsightsPage;
+import io.cdap.plugin.facebook.source.common.InsightsRecordPlan;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Synchronous insights request, which response is parsed while it is being received, directly to records of
+ * given schema. Unlike SDK requests, neither {@link AdsInsights} objects nor json tree of the page are built.
+ */
+public class StreamingInsightsRequest implements InsightsRequestParams {
+  private final APIContext context;
+  private final String objectId;
+  private final List<String> fields = new ArrayList<>();
+  private final Map<String, Object> params = new LinkedHashMap<>();
+
+  StreamingInsightsRequest(APIContext context, String objectId) {
+    this.context = context;
+    this.objectId = objectId;
+  }
+
+  @Override
+  public void requestField(String fieldName) {
+    fields.add(fieldName);
+  }
+
+  @Override
+  public void setParam(String paramName, Object value) {
+    params.put(paramName, value);
+  }
+
+  @Override
+  public void setBreakdowns(List<AdsInsights.EnumBreakdowns> breakdowns) {
+    setParam("breakdowns", breakdowns);
+  }
+
+  @Override
+  public void setActionBreakdowns(List<AdsInsights.EnumActionBreakdowns> breakdowns) {
+    setParam("action_breakdowns", breakdowns);
+  }
+
+  /**
+   * Requests page of insights.
+   * @param after The cursor of previous page, null for the first page
+   * @param plan The compiled schema of records
+   * @return The page
+   * @throws APIException if API returned error or request failed
+   */
+  public InsightsPage execute(@Nullable String after, InsightsRecordPlan plan) throws APIException {
+    Map<String, Object> allParams = new LinkedHashMap<>(params);
+    if (!fields.isEmpty()) {
+      allParams.put("fields", String.join(",", fields));
+    }
+    if (after != null) {
+      allParams.put("after", after);
+    }
+    allParams.put("access_token", context.getAccessToken());
+
+    String url = String.format("%s/%s/%s/insights", context.getEndpointBase(), context.getVersion(), objectId);
+    try {
+      return GraphRequestExecutor.get(
+        url, allParams, context,
+        body -> InsightsJsonParser.parsePage(new InputStreamReader(body, StandardCharsets.UTF_8), plan));
+    } catch (IOException e) {
+      throw new APIException.FailedRequestException(e);
+    }
+  }
+}
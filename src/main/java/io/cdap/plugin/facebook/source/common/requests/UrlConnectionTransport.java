@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import com.facebook.ads.sdk.APIConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.Nullable;
+
+/**
+ * Transport sending requests by JDK {@link HttpURLConnection}. Connections are not disconnected, so after response
+ * body is read and closed JDK keeps connection alive and reuses it for next request to the same host.
+ * Responses are requested gzip compressed.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+  private final int connectTimeoutMillis;
+  private final int readTimeoutMillis;
+
+  /**
+   * Constructor for UrlConnectionTransport object.
+   * @param connectTimeoutMillis The connect timeout
+   * @param readTimeoutMillis The timeout of reading response
+   */
+  public UrlConnectionTransport(int connectTimeoutMillis, int readTimeoutMillis) {
+    this.connectTimeoutMillis = connectTimeoutMillis;
+    this.readTimeoutMillis = readTimeoutMillis;
+  }
+
+  @Override
+  public Response send(String method, String url, @Nullable String formBody) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    connection.setRequestMethod(method);
+    connection.setRequestProperty("User-Agent", APIConfig.USER_AGENT);
+    connection.setRequestProperty("Accept-Encoding", "gzip");
+    connection.setConnectTimeout(connectTimeoutMillis);
+    connection.setReadTimeout(readTimeoutMillis);
+    if (formBody != null) {
+      connection.setDoOutput(true);
+      connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+      try (OutputStream outputStream = connection.getOutputStream()) {
+        outputStream.write(formBody.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    int code = connection.getResponseCode();
+    return new Response() {
+      private InputStream body;
+
+      @Override
+      public int getCode() {
+        return code;
+      }
+
+      @Override
+      public Map<String, List<String>> getHeaders() {
+        return connection.getHeaderFields();
+      }
+
+      @Nullable
+      @Override
+      public InputStream getBody() throws IOException {
+        if (body == null) {
+          InputStream in = code >= 400 ? connection.getErrorStream() : connection.getInputStream();
+          body = in != null && "gzip".equalsIgnoreCase(connection.getContentEncoding()) ? new GZIPInputStream(in) : in;
+        }
+        return body;
+      }
+
+      @Override
+      public void close() throws IOException {
+        // closing stream instead of disconnecting returns connection to keep-alive cache
+        InputStream in = getBody();
+        if (in != null) {
+          in.close();
+        }
+      }
+    };
+  }
+}
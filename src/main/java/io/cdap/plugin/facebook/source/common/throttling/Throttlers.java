@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.throttling;
+
+import com.google.common.base.Ticker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds throttlers shared by all splits running in the same JVM, one throttler per rate limited object.
+ */
+public class Throttlers {
+  static final double MAX_RATE = 10;
+  static final double MIN_RATE = 0.2;
+  static final int CAPACITY = 5;
+
+  private static final ConcurrentMap<String, TokenBucketThrottler> throttlers = new ConcurrentHashMap<>();
+
+  private Throttlers() {
+  }
+
+  /**
+   * Returns throttler of object with given id.
+   * @param key The id of rate limited object
+   * @return The throttler
+   */
+  public static TokenBucketThrottler get(String key) {
+    return throttlers.computeIfAbsent(key, k -> new TokenBucketThrottler(MAX_RATE, MIN_RATE, CAPACITY,
+                                                                         Ticker.systemTicker()));
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.throttling;
+
+import com.google.common.base.Ticker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket, which paces requests to one rate limited object. Refill rate is lowered as reported utilization
+ * of the limit grows, so requests slow down before the limit is reached. When API reports that access is
+ * blocked, no tokens are given until access is regained.
+ */
+public class TokenBucketThrottler {
+  /**
+   * Utilization, up to which requests are sent at maximum rate.
+   */
+  static final double LOW_UTILIZATION_PCT = 50;
+  /**
+   * Utilization, from which requests are sent at minimum rate.
+   */
+  static final double HIGH_UTILIZATION_PCT = 90;
+
+  private final double maxRate;
+  private final double minRate;
+  private final double capacity;
+  private final Ticker ticker;
+
+  private double rate;
+  private double tokens;
+  private long lastRefillNanos;
+  private long blockedUntilNanos;
+
+  /**
+   * Constructor for TokenBucketThrottler object.
+   * @param maxRate The rate at low utilization, in requests per second
+   * @param minRate The rate at high utilization, in requests per second
+   * @param capacity The maximum number of requests sent at once after idle period
+   * @param ticker The time source
+   */
+  public TokenBucketThrottler(double maxRate, double minRate, int capacity, Ticker ticker) {
+    this.maxRate = maxRate;
+    this.minRate = minRate;
+    this.capacity = capacity;
+    this.ticker = ticker;
+    this.rate = maxRate;
+    this.tokens = capacity;
+    this.lastRefillNanos = ticker.read();
+    this.blockedUntilNanos = lastRefillNanos;
+  }
+
+  /**
+   * Waits until request can be sent.
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void acquire() throws InterruptedException {
+    long waitNanos = reserve();
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+
+  /**
+   * Takes token for one request.
+   * @return time to wait before request is sent, in nanoseconds
+   */
+  synchronized long reserve() {
+    long now = ticker.read();
+    refill(now);
+    tokens -= 1;
+    long waitForToken = tokens >= 0 ? 0 : (long) (-tokens / rate * TimeUnit.SECONDS.toNanos(1));
+    return Math.max(waitForToken, blockedUntilNanos - now);
+  }
+
+  /**
+   * Adjusts pace to the usage reported in response.
+   * @param usage The usage
+   */
+  public synchronized void onUsage(Usage usage) {
+    long now = ticker.read();
+    refill(now);
+    rate = rateFor(usage.getUtilizationPct());
+    if (usage.getRegainAccessSeconds() > 0) {
+      blockedUntilNanos = Math.max(blockedUntilNanos, now + TimeUnit.SECONDS.toNanos(usage.getRegainAccessSeconds()));
+      tokens = Math.min(tokens, 0);
+    } else if (usage.getUtilizationPct() >= 100) {
+      tokens = Math.min(tokens, 0);
+    }
+  }
+
+  synchronized double getRate() {
+    return rate;
+  }
+
+  private double rateFor(double utilizationPct) {
+    if (utilizationPct <= LOW_UTILIZATION_PCT) {
+      return maxRate;
+    }
+    if (utilizationPct >= HIGH_UTILIZATION_PCT) {
+      return minRate;
+    }
+    double fraction = (utilizationPct - LOW_UTILIZATION_PCT) / (HIGH_UTILIZATION_PCT - LOW_UTILIZATION_PCT);
+    return maxRate - (maxRate - minRate) * fraction;
+  }
+
+  private void refill(long now) {
+    tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * rate / TimeUnit.SECONDS.toNanos(1));
+    lastRefillNanos = now;
+  }
+}
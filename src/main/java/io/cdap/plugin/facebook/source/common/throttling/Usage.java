@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.throttling;
+
+/**
+ * Rate limit usage reported by Graph API in response headers.
+ */
+public class Usage {
+  public static final Usage NONE = new Usage(0, 0);
+
+  private final double utilizationPct;
+  private final long regainAccessSeconds;
+
+  /**
+   * Constructor for Usage object.
+   * @param utilizationPct The highest utilization of any limit, in percents
+   * @param regainAccessSeconds The time until throttled requests are allowed again, 0 if not throttled
+   */
+  public Usage(double utilizationPct, long regainAccessSeconds) {
+    this.utilizationPct = utilizationPct;
+    this.regainAccessSeconds = regainAccessSeconds;
+  }
+
+  public double getUtilizationPct() {
+    return utilizationPct;
+  }
+
+  public long getRegainAccessSeconds() {
+    return regainAccessSeconds;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%.1f%% used, access regained in %d s", utilizationPct, regainAccessSeconds);
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.throttling;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Parses rate limit usage from 'X-Business-Use-Case-Usage', 'X-Ad-Account-Usage' and 'X-FB-Ads-Insights-Throttle'
+ * response headers. The highest utilization and the longest time to regain access are taken.
+ */
+public class UsageHeaders {
+  public static final String BUSINESS_USE_CASE_USAGE = "X-Business-Use-Case-Usage";
+  public static final String AD_ACCOUNT_USAGE = "X-Ad-Account-Usage";
+  public static final String ADS_INSIGHTS_THROTTLE = "X-FB-Ads-Insights-Throttle";
+
+  private static final JsonParser jsonParser = new JsonParser();
+
+  private UsageHeaders() {
+  }
+
+  /**
+   * Parses usage from response headers.
+   * @param headers The response headers, header names are case insensitive
+   * @return The usage, {@link Usage#NONE} if no usage headers are present
+   */
+  public static Usage parse(Map<String, List<String>> headers) {
+    double utilizationPct = 0;
+    long regainAccessSeconds = 0;
+
+    // {"<business id>": [{"type": "ads_insights", "call_count": 28, "total_cputime": 25, "total_time": 25,
+    //   "estimated_time_to_regain_access": 0}]}
+    JsonObject businessUseCaseUsage = getJsonHeader(headers, BUSINESS_USE_CASE_USAGE);
+    if (businessUseCaseUsage != null) {
+      for (Map.Entry<String, JsonElement> business : businessUseCaseUsage.entrySet()) {
+        if (!business.getValue().isJsonArray()) {
+          continue;
+        }
+        for (JsonElement useCase : business.getValue().getAsJsonArray()) {
+          if (!useCase.isJsonObject()) {
+            continue;
+          }
+          JsonObject usage = useCase.getAsJsonObject();
+          utilizationPct = Math.max(utilizationPct, getNumber(usage, "call_count"));
+          utilizationPct = Math.max(utilizationPct, getNumber(usage, "total_cputime"));
+          utilizationPct = Math.max(utilizationPct, getNumber(usage, "total_time"));
+          regainAccessSeconds = Math.max(regainAccessSeconds, TimeUnit.MINUTES.toSeconds(
+            (long) getNumber(usage, "estimated_time_to_regain_access")));
+        }
+      }
+    }
+
+    // {"acc_id_util_pct": 9.67, "reset_time_duration": 0, "ads_api_access_tier": "standard_access"}
+    JsonObject adAccountUsage = getJsonHeader(headers, AD_ACCOUNT_USAGE);
+    if (adAccountUsage != null) {
+      double accountUtilizationPct = getNumber(adAccountUsage, "acc_id_util_pct");
+      utilizationPct = Math.max(utilizationPct, accountUtilizationPct);
+      if (accountUtilizationPct >= 100) {
+        regainAccessSeconds = Math.max(regainAccessSeconds, (long) getNumber(adAccountUsage, "reset_time_duration"));
+      }
+    }
+
+    // {"app_id_util_pct": 0, "acc_id_util_pct": 3.5}
+    JsonObject insightsThrottle = getJsonHeader(headers, ADS_INSIGHTS_THROTTLE);
+    if (insightsThrottle != null) {
+      utilizationPct = Math.max(utilizationPct, getNumber(insightsThrottle, "app_id_util_pct"));
+      utilizationPct = Math.max(utilizationPct, getNumber(insightsThrottle, "acc_id_util_pct"));
+    }
+
+    if (utilizationPct == 0 && regainAccessSeconds == 0) {
+      return Usage.NONE;
+    }
+    return new Usage(utilizationPct, regainAccessSeconds);
+  }
+
+  @Nullable
+  private static JsonObject getJsonHeader(Map<String, List<String>> headers, String name) {
+    for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+      if (name.equalsIgnoreCase(header.getKey()) && header.getValue() != null && !header.getValue().isEmpty()) {
+        try {
+          JsonElement value = jsonParser.parse(header.getValue().get(0));
+          return value.isJsonObject() ? value.getAsJsonObject() : null;
+        } catch (JsonParseException e) {
+          return null;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static double getNumber(JsonObject object, String name) {
+    JsonElement value = object.get(name);
+    if (value == null || !value.isJsonPrimitive() || !value.getAsJsonPrimitive().isNumber()) {
+      return 0;
+    }
+    return value.getAsDouble();
+  }
+}
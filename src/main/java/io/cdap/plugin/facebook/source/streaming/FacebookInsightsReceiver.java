@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.streaming;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.plugin.facebook.source.batch.StreamingPageSource;
+import io.cdap.plugin.facebook.source.common.InsightsRecordPlan;
+import io.cdap.plugin.facebook.source.common.requests.InsightsRequestFactory;
+import io.cdap.plugin.facebook.source.common.requests.Retryer;
+import io.cdap.plugin.facebook.source.common.requests.StreamingInsightsRequest;
+import org.apache.spark.storage.StorageLevel;
+import org.apache.spark.streaming.receiver.Receiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receiver, which polls insights of configured object every poll interval in its own thread and stores all rows
+ * of each poll. Rows are parsed while pages are received, like in synchronous batch reads.
+ */
+public class FacebookInsightsReceiver extends Receiver<StructuredRecord> {
+  private static final Logger LOG = LoggerFactory.getLogger(FacebookInsightsReceiver.class);
+  private static final int MAX_RETRIES = 5;
+
+  private final FacebookStreamingSourceConfig config;
+
+  public FacebookInsightsReceiver(FacebookStreamingSourceConfig config) {
+    super(StorageLevel.MEMORY_AND_DISK_2());
+    this.config = config;
+  }
+
+  @Override
+  public void onStart() {
+    Thread poller = new Thread(this::pollUntilStopped, "facebook-insights-poller");
+    poller.setDaemon(true);
+    poller.start();
+  }
+
+  @Override
+  public void onStop() {
+    // poller thread checks isStopped()
+  }
+
+  private void pollUntilStopped() {
+    InsightsRecordPlan plan = InsightsRecordPlan.compile(config.getSchema());
+    Retryer retryer = new Retryer(MAX_RETRIES);
+    long intervalNanos = TimeUnit.SECONDS.toNanos(config.getPollInterval());
+    while (!isStopped()) {
+      long startNanos = System.nanoTime();
+      try {
+        poll(plan, retryer);
+      } catch (IOException | RuntimeException e) {
+        // rows are polled again in the next interval
+        reportError("Failed to poll Facebook Insights.", e);
+      }
+      long sleepNanos = intervalNanos - (System.nanoTime() - startNanos);
+      if (sleepNanos > 0) {
+        try {
+          TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private void poll(InsightsRecordPlan plan, Retryer retryer) throws IOException {
+    long startNanos = System.nanoTime();
+    // date preset responses are never cached
+    StreamingInsightsRequest request = InsightsRequestFactory.createStreamingRequest(
+      config, null, config.getQueryPlan(), config.getObjectType(), config.getObjectId(), null);
+    StreamingPageSource pageSource = new StreamingPageSource(request, retryer, plan, false);
+    long rows = 0;
+    List<StructuredRecord> page;
+    while (!isStopped() && (page = pageSource.nextPage()) != null) {
+      if (!page.isEmpty()) {
+        // blocks until rows are stored and replicated
+        store(page.iterator());
+      }
+      rows += page.size();
+    }
+    pageSource.close();
+    LOG.debug("Polled {} rows of {} '{}' in {} ms.", rows, config.getObjectType(), config.getObjectId(),
+              TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+  }
+}
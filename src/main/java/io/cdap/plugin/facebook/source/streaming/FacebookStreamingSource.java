@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.streaming;
+
+import io.cdap.cdap.api.annotation.Description;
+import io.cdap.cdap.api.annotation.Name;
+import io.cdap.cdap.api.annotation.Plugin;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.etl.api.FailureCollector;
+import io.cdap.cdap.etl.api.PipelineConfigurer;
+import io.cdap.cdap.etl.api.streaming.StreamingContext;
+import io.cdap.cdap.etl.api.streaming.StreamingSource;
+import io.cdap.plugin.common.IdUtils;
+import org.apache.spark.streaming.Durations;
+import org.apache.spark.streaming.StateSpec;
+import org.apache.spark.streaming.api.java.JavaDStream;
+import scala.Tuple2;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plugin polls Facebook Insights API in streaming pipeline and returns rows, which are new or changed since the
+ * previous poll. Fingerprints of polled rows are kept in checkpointed streaming state.
+ */
+@Plugin(type = StreamingSource.PLUGIN_TYPE)
+@Name(FacebookStreamingSource.NAME)
+@Description("Polls Facebook Insights API and returns rows, which metrics changed since the previous poll.")
+public class FacebookStreamingSource extends StreamingSource<StructuredRecord> {
+  public static final String NAME = "FacebookAds";
+
+  /**
+   * Fingerprints of rows, which were not polled for this time, are dropped, e.g. rows of the previous day.
+   */
+  private static final long STATE_TIMEOUT_MINUTES = TimeUnit.DAYS.toMinutes(1);
+
+  private final FacebookStreamingSourceConfig config;
+
+  public FacebookStreamingSource(FacebookStreamingSourceConfig config) {
+    this.config = config;
+  }
+
+  @Override
+  public void configurePipeline(PipelineConfigurer pipelineConfigurer) {
+    IdUtils.validateId(config.referenceName);
+    validateConfiguration(pipelineConfigurer.getStageConfigurer().getFailureCollector());
+    pipelineConfigurer.getStageConfigurer().setOutputSchema(config.getSchema());
+  }
+
+  @Override
+  public JavaDStream<StructuredRecord> getStream(StreamingContext context) throws Exception {
+    validateConfiguration(context.getFailureCollector());
+    context.registerLineage(config.referenceName);
+
+    return context.getSparkStreamingContext()
+      .receiverStream(new FacebookInsightsReceiver(config))
+      .mapToPair(record -> new Tuple2<>(InsightsChanges.getKey(record), record))
+      .mapWithState(StateSpec.function(InsightsChanges::emitChanged)
+                      .timeout(Durations.minutes(STATE_TIMEOUT_MINUTES)))
+      .filter(Objects::nonNull);
+  }
+
+  private void validateConfiguration(FailureCollector failureCollector) {
+    config.validate(failureCollector);
+    failureCollector.getOrThrowException();
+  }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.streaming;
+
+import com.google.common.base.Strings;
+import io.cdap.cdap.api.annotation.Description;
+import io.cdap.cdap.api.annotation.Macro;
+import io.cdap.cdap.api.annotation.Name;
+import io.cdap.cdap.etl.api.FailureCollector;
+import io.cdap.plugin.facebook.source.common.config.BaseSourceConfig;
+
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Provides all required configuration for polling Facebook Insights in streaming pipeline.
+ */
+public class FacebookStreamingSourceConfig extends BaseSourceConfig {
+  public static final String PROPERTY_POLL_INTERVAL = "pollInterval";
+  public static final int DEFAULT_POLL_INTERVAL = 300;
+  public static final int MIN_POLL_INTERVAL = 60;
+
+  @Name(PROPERTY_POLL_INTERVAL)
+  @Description("Number of seconds between polls of insights, at least 60.")
+  @Nullable
+  @Macro
+  protected Integer pollInterval;
+
+  private FacebookStreamingSourceConfig(Builder builder) {
+    super(builder.referenceName);
+    this.accessToken = builder.accessToken;
+    this.objectType = builder.objectType;
+    this.adId = builder.adId;
+    this.adSetId = builder.adSetId;
+    this.campaignId = builder.campaignId;
+    this.accountId = builder.accountId;
+    this.fields = builder.fields;
+    this.level = builder.level;
+    this.filtering = builder.filtering;
+    this.datePreset = builder.datePreset;
+    this.breakdown = builder.breakdown;
+    this.additionalBreakdown = builder.additionalBreakdown;
+    this.schemaMode = builder.schemaMode;
+    this.apiEndpoint = builder.apiEndpoint;
+    this.httpTransport = builder.httpTransport;
+    this.connectTimeoutSeconds = builder.connectTimeoutSeconds;
+    this.readTimeoutSeconds = builder.readTimeoutSeconds;
+    this.requestLogLevel = builder.requestLogLevel;
+    this.requestLogSampleRate = builder.requestLogSampleRate;
+    this.pollInterval = builder.pollInterval;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public int getPollInterval() {
+    return pollInterval == null ? DEFAULT_POLL_INTERVAL : pollInterval;
+  }
+
+  @Override
+  public void validate(FailureCollector failureCollector) {
+    super.validate(failureCollector);
+    validatePollInterval(failureCollector);
+    validateKeyFields(failureCollector);
+  }
+
+  void validatePollInterval(FailureCollector failureCollector) {
+    if (!containsMacro(PROPERTY_POLL_INTERVAL) && getPollInterval() < MIN_POLL_INTERVAL) {
+      failureCollector
+        .addFailure(String.format("'%d' is invalid poll interval.", getPollInterval()),
+                    String.format("Set poll interval to at least %d seconds.", MIN_POLL_INTERVAL))
+        .withConfigProperty(PROPERTY_POLL_INTERVAL);
+    }
+  }
+
+  /**
+   * Changed rows are detected by their key, see {@link InsightsChanges#getKey}, so fields must include the date and
+   * the id of objects results are aggregated on, otherwise different rows would share a key.
+   */
+  void validateKeyFields(FailureCollector failureCollector) {
+    if (containsMacro(PROPERTY_FIELDS) || containsMacro(PROPERTY_LEVEL) || containsMacro(PROPERTY_OBJECT_TYPE)) {
+      return;
+    }
+    String resultLevel;
+    if (Strings.isNullOrEmpty(level) || "default".equals(level)) {
+      try {
+        resultLevel = getObjectType().getLevel();
+      } catch (IllegalArgumentException ex) {
+        // object type is validated separately
+        return;
+      }
+    } else {
+      resultLevel = level;
+    }
+    List<String> fields = getFields();
+    for (String keyField : Arrays.asList(resultLevel + "_id", "date_start")) {
+      if (!fields.contains(keyField)) {
+        failureCollector
+          .addFailure(String.format("Field '%s' is required to detect changed rows.", keyField),
+                      String.format("Add '%s' to fields.", keyField))
+          .withConfigProperty(PROPERTY_FIELDS);
+      }
+    }
+  }
+
+  /**
+   * Builds configuration instance.
+   */
+  public static class Builder {
+    private String referenceName;
+    private String accessToken;
+    private String objectType;
+    private String adId;
+    private String adSetId;
+    private String campaignId;
+    private String accountId;
+    private String fields;
+    private String level;
+    private String filtering;
+    private String datePreset;
+    private String breakdown;
+    private String additionalBreakdown;
+    private String schemaMode;
+    private String apiEndpoint;
+    private String httpTransport;
+    private Integer connectTimeoutSeconds;
+    private Integer readTimeoutSeconds;
+    private String requestLogLevel;
+    private Double requestLogSampleRate;
+    private Integer pollInterval;
+
+    private Builder() {
+
+    }
+
+    public Builder setReferenceName(String referenceName) {
+      this.referenceName = referenceName;
+      return this;
+    }
+
+    public Builder setAccessToken(String accessToken) {
+      this.accessToken = accessToken;
+      return this;
+    }
+
+    public Builder setObjectType(String objectType) {
+      this.objectType = objectType;
+      return this;
+    }
+
+    public Builder setAdId(String adId) {
+      this.adId = adId;
+      return this;
+    }
+
+    public Builder setAdSetId(String adSetId) {
+      this.adSetId = adSetId;
+      return this;
+    }
+
+    public Builder setCampaignId(String campaignId) {
+      this.campaignId = campaignId;
+      return this;
+    }
+
+    public Builder setAccountId(String accountId) {
+      this.accountId = accountId;
+      return this;
+    }
+
+    public Builder setFields(String fields) {
+      this.fields = fields;
+      return this;
+    }
+
+    public Builder setLevel(String level) {
+      this.level = level;
+      return this;
+    }
+
+    public Builder setFiltering(String filtering) {
+      this.filtering = filtering;
+      return this;
+    }
+
+    public Builder setDatePreset(String datePreset) {
+      this.datePreset = datePreset;
+      return this;
+    }
+
+    public Builder setBreakdown(String breakdown) {
+      this.breakdown = breakdown;
+      return this;
+    }
+
+    public Builder setAdditionalBreakdown(String additionalBreakdown) {
+      this.additionalBreakdown = additionalBreakdown;
+      return this;
+    }
+
+    public Builder setSchemaMode(String schemaMode) {
+      this.schemaMode = schemaMode;
+      return this;
+    }
+
+    public Builder setApiEndpoint(String apiEndpoint) {
+      this.apiEndpoint = apiEndpoint;
+      return this;
+    }
+
+    public Builder setHttpTransport(String httpTransport) {
+      this.httpTransport = httpTransport;
+      return this;
+    }
+
+    public Builder setConnectTimeoutSeconds(Integer connectTimeoutSeconds) {
+      this.connectTimeoutSeconds = connectTimeoutSeconds;
+      return this;
+    }
+
+    public Builder setReadTimeoutSeconds(Integer readTimeoutSeconds) {
+      this.readTimeoutSeconds = readTimeoutSeconds;
+      return this;
+    }
+
+    public Builder setRequestLogLevel(String requestLogLevel) {
+      this.requestLogLevel = requestLogLevel;
+      return this;
+    }
+
+    public Builder setRequestLogSampleRate(Double requestLogSampleRate) {
+      this.requestLogSampleRate = requestLogSampleRate;
+      return this;
+    }
+
+    public Builder setPollInterval(Integer pollInterval) {
+      this.pollInterval = pollInterval;
+      return this;
+    }
+
+    public FacebookStreamingSourceConfig build() {
+      return new FacebookStreamingSourceConfig(this);
+    }
+  }
+}
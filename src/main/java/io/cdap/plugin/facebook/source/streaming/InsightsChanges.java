@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.streaming;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.facebook.source.common.SchemaHelper;
+import org.apache.spark.api.java.Optional;
+import org.apache.spark.streaming.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+/**
+ * Detects rows of insights, which changed since the previous poll. Row is identified by its key fields, see
+ * {@link SchemaHelper#isKeyField(String)}, and compared by fingerprint of its other fields, so only fingerprints
+ * are kept in streaming state.
+ */
+public final class InsightsChanges {
+  private static final char KEY_SEPARATOR = '\u0001';
+
+  private InsightsChanges() {
+  }
+
+  /**
+   * Returns key of the row: values of dates, object ids and breakdowns.
+   * @param record The row
+   * @return The key
+   */
+  public static String getKey(StructuredRecord record) {
+    StringBuilder key = new StringBuilder();
+    for (Schema.Field field : Objects.requireNonNull(record.getSchema().getFields())) {
+      if (SchemaHelper.isKeyField(field.getName())) {
+        key.append(String.valueOf((Object) record.get(field.getName()))).append(KEY_SEPARATOR);
+      }
+    }
+    return key.toString();
+  }
+
+  /**
+   * Returns fingerprint of the fields, which are not in the key, including nested action stats.
+   * @param record The row
+   * @return The 64 bit hash
+   */
+  public static long getFingerprint(StructuredRecord record) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    for (Schema.Field field : Objects.requireNonNull(record.getSchema().getFields())) {
+      if (!SchemaHelper.isKeyField(field.getName())) {
+        putValue(hasher, record.get(field.getName()));
+      }
+    }
+    return hasher.hash().asLong();
+  }
+
+  private static void putValue(Hasher hasher, @Nullable Object value) {
+    if (value == null) {
+      hasher.putByte((byte) 0);
+    } else if (value instanceof StructuredRecord) {
+      StructuredRecord record = (StructuredRecord) value;
+      hasher.putByte((byte) 1);
+      for (Schema.Field field : Objects.requireNonNull(record.getSchema().getFields())) {
+        putValue(hasher, record.get(field.getName()));
+      }
+    } else if (value instanceof Collection) {
+      Collection<?> values = (Collection<?>) value;
+      hasher.putByte((byte) 2).putInt(values.size());
+      for (Object item : values) {
+        putValue(hasher, item);
+      }
+    } else {
+      String string = value.toString();
+      hasher.putByte((byte) 3).putInt(string.length()).putString(string, StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Function of mapWithState, which keeps fingerprint of the row.
+   * @return The row if it is new or its fingerprint changed, null otherwise
+   */
+  @Nullable
+  public static StructuredRecord emitChanged(String key, Optional<StructuredRecord> row, State<Long> state) {
+    if (!row.isPresent() || state.isTimingOut()) {
+      // row was not polled for state timeout, its fingerprint is dropped
+      return null;
+    }
+    long fingerprint = getFingerprint(row.get());
+    if (state.exists() && state.get() == fingerprint) {
+      return null;
+    }
+    state.update(fingerprint);
+    return row.get();
+  }
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.facebook.source.common.SchemaHelper;
+import io.cdap.plugin.facebook.source.common.exceptions.IllegalInsightsFieldException;
+import io.cdap.plugin.facebook.source.common.throttling.UsageHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Embeddable fake of Graph API Insights endpoint, which serves synthetic paginated insights of any object, so source
+ * can be tested and benchmarked without network access. Point source to it by 'apiEndpoint' property.
+ *
+ * Each object has configured number of rows. If 'time_increment' is set, rows are spread over days of 'time_range'
+ * in order of dates. Values of requested fields are generated by their schema. Every response reports configured
+ * usage in rate limit headers, and every n-th request may fail with transient error. Responses are gzip compressed
+ * if client accepts it.
+ */
+public class FakeGraphApiServer implements Closeable {
+  private static final JsonParser jsonParser = new JsonParser();
+  private static final LocalDate DEFAULT_SINCE = LocalDate.of(2020, 1, 1);
+  private static final LocalDate DEFAULT_UNTIL = LocalDate.of(2020, 1, 31);
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final int rows;
+  private final int pageSize;
+  private final long latencyMillis;
+  private final double usagePct;
+  private final int failEvery;
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicInteger failedRequests = new AtomicInteger();
+  private final Set<InetSocketAddress> clientAddresses = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger compressedResponses = new AtomicInteger();
+
+  private FakeGraphApiServer(Builder builder) throws IOException {
+    this.rows = builder.rows;
+    this.pageSize = builder.pageSize;
+    this.latencyMillis = builder.latencyMillis;
+    this.usagePct = builder.usagePct;
+    this.failEvery = builder.failEvery;
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    this.executor = Executors.newFixedThreadPool(builder.threads);
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+    server.start();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns base url of the server to be set as API endpoint.
+   * @return The url without trailing slash
+   */
+  public String getEndpoint() {
+    return String.format("http://%s:%d", server.getAddress().getHostString(), server.getAddress().getPort());
+  }
+
+  /**
+   * Returns number of received requests, each request of batch is counted.
+   */
+  public int getRequestCount() {
+    return requests.get();
+  }
+
+  /**
+   * Returns number of requests failed by error injection.
+   */
+  public int getFailedRequestCount() {
+    return failedRequests.get();
+  }
+
+  /**
+   * Returns number of distinct client connections requests were received on.
+   */
+  public int getConnectionCount() {
+    return clientAddresses.size();
+  }
+
+  /**
+   * Returns number of responses sent gzip compressed, responses are compressed if client accepts gzip encoding.
+   */
+  public int getCompressedResponseCount() {
+    return compressedResponses.get();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    clientAddresses.add(exchange.getRemoteAddress());
+    try {
+      if (latencyMillis > 0) {
+        TimeUnit.MILLISECONDS.sleep(latencyMillis);
+      }
+      Map<String, String> params = parseParams(exchange.getRequestURI().getRawQuery());
+      if ("POST".equals(exchange.getRequestMethod())) {
+        params.putAll(parseParams(new String(ByteStreams.toByteArray(exchange.getRequestBody()),
+                                             StandardCharsets.UTF_8)));
+      }
+
+      Response response = params.containsKey("batch")
+        ? executeBatch(params.get("batch"), params.get("access_token"))
+        : execute(exchange.getRequestURI().getPath(), params);
+
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.getResponseHeaders().add(UsageHeaders.ADS_INSIGHTS_THROTTLE, getUsageHeader());
+      byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+      String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+      if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+        body = gzip(body);
+        exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        compressedResponses.incrementAndGet();
+      }
+      exchange.sendResponseHeaders(response.code, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private Response executeBatch(String batch, String accessToken) throws UnsupportedEncodingException {
+    JsonArray responses = new JsonArray();
+    for (JsonElement request : jsonParser.parse(batch).getAsJsonArray()) {
+      String relativeUrl = request.getAsJsonObject().get("relative_url").getAsString();
+      int query = relativeUrl.indexOf('?');
+      Map<String, String> params = parseParams(query < 0 ? "" : relativeUrl.substring(query + 1));
+      params.putIfAbsent("access_token", accessToken);
+      Response response = execute("/" + (query < 0 ? relativeUrl : relativeUrl.substring(0, query)), params);
+
+      JsonObject header = new JsonObject();
+      header.addProperty("name", UsageHeaders.ADS_INSIGHTS_THROTTLE);
+      header.addProperty("value", getUsageHeader());
+      JsonArray headers = new JsonArray();
+      headers.add(header);
+
+      JsonObject item = new JsonObject();
+      item.addProperty("code", response.code);
+      item.add("headers", headers);
+      item.addProperty("body", response.body);
+      responses.add(item);
+    }
+    return new Response(200, responses.toString());
+  }
+
+  private Response execute(String path, Map<String, String> params) {
+    int request = requests.incrementAndGet();
+    if (failEvery > 0 && request % failEvery == 0) {
+      failedRequests.incrementAndGet();
+      return error(500, 2, "Service temporarily unavailable", true);
+    }
+    if (Strings.isNullOrEmpty(params.get("access_token"))) {
+      return error(400, 190, "An access token is required to request this resource.", false);
+    }
+    // /<version>/<object id>/insights
+    String[] segments = path.split("/");
+    if (segments.length != 4 || !"insights".equals(segments[3])) {
+      return error(400, 100, String.format("Unsupported request '%s'.", path), false);
+    }
+    return new Response(200, createPage(path, segments[2], params).toString());
+  }
+
+  private JsonObject createPage(String path, String objectId, Map<String, String> params) {
+    LocalDate since = DEFAULT_SINCE;
+    LocalDate until = DEFAULT_UNTIL;
+    if (params.containsKey("time_range")) {
+      JsonObject timeRange = jsonParser.parse(params.get("time_range")).getAsJsonObject();
+      since = LocalDate.parse(timeRange.get("since").getAsString());
+      until = LocalDate.parse(timeRange.get("until").getAsString());
+    }
+    boolean daily = "1".equals(params.get("time_increment"));
+    int days = (int) ChronoUnit.DAYS.between(since, until) + 1;
+    int limit = params.containsKey("limit") ? Integer.parseInt(params.get("limit")) : pageSize;
+    int offset = params.containsKey("after")
+      ? Integer.parseInt(new String(Base64.getDecoder().decode(params.get("after")), StandardCharsets.UTF_8))
+      : 0;
+    String fields = Strings.isNullOrEmpty(params.get("fields")) ? "date_start,date_stop" : params.get("fields");
+
+    JsonArray data = new JsonArray();
+    int end = Math.min(offset + limit, rows);
+    for (int row = offset; row < end; row++) {
+      LocalDate rowSince = daily ? since.plusDays((long) row * days / rows) : since;
+      LocalDate rowUntil = daily ? rowSince : until;
+      JsonObject insights = new JsonObject();
+      for (String field : fields.split(",")) {
+        insights.add(field, createValue(field, objectId, row));
+      }
+      insights.addProperty("date_start", rowSince.toString());
+      insights.addProperty("date_stop", rowUntil.toString());
+      data.add(insights);
+    }
+
+    JsonObject page = new JsonObject();
+    page.add("data", data);
+    if (end > offset) {
+      JsonObject cursors = new JsonObject();
+      cursors.addProperty("before", encodeCursor(offset));
+      cursors.addProperty("after", encodeCursor(end));
+      JsonObject paging = new JsonObject();
+      paging.add("cursors", cursors);
+      if (end < rows) {
+        Map<String, String> nextParams = new HashMap<>(params);
+        nextParams.put("after", encodeCursor(end));
+        paging.addProperty("next", getEndpoint() + path + "?" + encodeParams(nextParams));
+      }
+      page.add("paging", paging);
+    }
+    return page;
+  }
+
+  private static JsonElement createValue(String field, String objectId, int row) {
+    if (field.endsWith("_id")) {
+      return new JsonPrimitive(objectId);
+    }
+    try {
+      return createValue(SchemaHelper.fromName(field).getSchema(), row);
+    } catch (IllegalInsightsFieldException e) {
+      // field is not known to schema
+      return new JsonPrimitive(String.valueOf(row));
+    }
+  }
+
+  private static JsonElement createValue(Schema schema, int row) {
+    Schema nonNullable = schema.isNullable() ? schema.getNonNullable() : schema;
+    switch (nonNullable.getType()) {
+      case ARRAY:
+        JsonArray array = new JsonArray();
+        array.add(createValue(nonNullable.getComponentSchema(), row));
+        array.add(createValue(nonNullable.getComponentSchema(), row + 1));
+        return array;
+      case RECORD:
+        JsonObject object = new JsonObject();
+        for (Schema.Field field : nonNullable.getFields()) {
+          object.add(field.getName(), "action_type".equals(field.getName())
+            ? new JsonPrimitive(row % 2 == 0 ? "link_click" : "post_engagement")
+            : createValue(field.getSchema(), row));
+        }
+        return object;
+      default:
+        // numbers are returned as strings by the API, so every numeric string is valid
+        return new JsonPrimitive(String.valueOf(row % 1000 + 1));
+    }
+  }
+
+  private String getUsageHeader() {
+    return String.format("{\"app_id_util_pct\":%s,\"acc_id_util_pct\":%s}", usagePct, usagePct);
+  }
+
+  private static Response error(int code, int errorCode, String message, boolean isTransient) {
+    JsonObject error = new JsonObject();
+    error.addProperty("message", message);
+    error.addProperty("type", "OAuthException");
+    error.addProperty("code", errorCode);
+    error.addProperty("is_transient", isTransient);
+    JsonObject body = new JsonObject();
+    body.add("error", error);
+    return new Response(code, body.toString());
+  }
+
+  private static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.toByteArray();
+  }
+
+  private static String encodeCursor(int offset) {
+    return Base64.getEncoder().encodeToString(String.valueOf(offset).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String encodeParams(Map<String, String> params) {
+    StringBuilder query = new StringBuilder();
+    try {
+      for (Map.Entry<String, String> param : params.entrySet()) {
+        if (query.length() > 0) {
+          query.append('&');
+        }
+        query.append(URLEncoder.encode(param.getKey(), "UTF-8")).append('=')
+          .append(URLEncoder.encode(param.getValue(), "UTF-8"));
+      }
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+    return query.toString();
+  }
+
+  private static Map<String, String> parseParams(String query) throws UnsupportedEncodingException {
+    Map<String, String> params = new HashMap<>();
+    if (Strings.isNullOrEmpty(query)) {
+      return params;
+    }
+    for (String param : query.split("&")) {
+      int separator = param.indexOf('=');
+      if (separator > 0) {
+        params.put(URLDecoder.decode(param.substring(0, separator), "UTF-8"),
+                   URLDecoder.decode(param.substring(separator + 1), "UTF-8"));
+      }
+    }
+    return params;
+  }
+
+  private static class Response {
+    private final int code;
+    private final String body;
+
+    private Response(int code, String body) {
+      this.code = code;
+      this.body = body;
+    }
+  }
+
+  /**
+   * Builder for FakeGraphApiServer.
+   */
+  public static class Builder {
+    private int rows = 100;
+    private int pageSize = 25;
+    private long latencyMillis;
+    private double usagePct;
+    private int failEvery;
+    private int threads = 8;
+
+    /**
+     * Sets number of rows returned for each object.
+     */
+    public Builder setRows(int rows) {
+      this.rows = rows;
+      return this;
+    }
+
+    /**
+     * Sets number of rows per page, if request has no 'limit' parameter.
+     */
+    public Builder setPageSize(int pageSize) {
+      this.pageSize = pageSize;
+      return this;
+    }
+
+    /**
+     * Sets time every response is delayed by.
+     */
+    public Builder setLatencyMillis(long latencyMillis) {
+      this.latencyMillis = latencyMillis;
+      return this;
+    }
+
+    /**
+     * Sets rate limit utilization reported in 'X-FB-Ads-Insights-Throttle' header.
+     */
+    public Builder setUsagePct(double usagePct) {
+      this.usagePct = usagePct;
+      return this;
+    }
+
+    /**
+     * Makes every n-th request fail with transient error, 0 disables error injection.
+     */
+    public Builder setFailEvery(int failEvery) {
+      this.failEvery = failEvery;
+      return this;
+    }
+
+    /**
+     * Sets number of requests served concurrently.
+     */
+    public Builder setThreads(int threads) {
+      this.threads = threads;
+      return this;
+    }
+
+    public FakeGraphApiServer build() throws IOException {
+      return new FakeGraphApiServer(this);
+    }
+  }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import com.facebook.ads.sdk.APIException;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import io.cdap.plugin.facebook.source.common.requests.Retryer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class BisectingPageSourceTest {
+  private static final String REDUCE_DATA_ERROR =
+    "{\"error\":{\"message\":\"Please reduce the amount of data you're asking for, then retry your request\","
+      + "\"code\":1}}";
+  private static final String INVALID_PARAMETER_ERROR =
+    "{\"error\":{\"message\":\"Invalid parameter\",\"code\":100}}";
+
+  @Test
+  public void testTooLargePartBisected() throws IOException {
+    FacebookSplit split = new FacebookSplit(ObjectType.AdSet, Arrays.asList("1", "2"),
+                                            SplitBisectorTest.range(1, 4));
+    SplitBisector bisector = createBisector(split);
+    List<FacebookSplit> requested = new ArrayList<>();
+    BisectingPageSource.PartSourceFactory factory = part -> {
+      requested.add(part);
+      return part.getTimeRange().getDays() > 2
+        ? new ListPageSource(Collections.emptyList(), tooLarge())
+        : new ListPageSource(Collections.singletonList(new ArrayList<>()), null);
+    };
+
+    try (PageSource source = new BisectingPageSource(split, bisector, factory)) {
+      Assert.assertNotNull(source.nextPage());
+      Assert.assertEquals(0, source.getCompletedRequests());
+      // each half of time range holds half of split requests
+      Assert.assertNotNull(source.nextPage());
+      Assert.assertEquals(1, source.getCompletedRequests());
+      Assert.assertNull(source.nextPage());
+      Assert.assertEquals(2, source.getCompletedRequests());
+    }
+
+    Assert.assertEquals(3, requested.size());
+    Assert.assertEquals(SplitBisectorTest.range(1, 2), requested.get(1).getTimeRange());
+    Assert.assertEquals(SplitBisectorTest.range(3, 4), requested.get(2).getTimeRange());
+    Assert.assertEquals(new Subdivision(2, 0, null, 0), bisector.getSubdivision());
+  }
+
+  @Test
+  public void testFailureAfterPagesNotBisected() throws IOException {
+    FacebookSplit split = new FacebookSplit(SplitBisectorTest.range(1, 4));
+    IOException failure = tooLarge();
+    BisectingPageSource.PartSourceFactory factory =
+      part -> new ListPageSource(Collections.singletonList(new ArrayList<>()), failure);
+
+    try (PageSource source = new BisectingPageSource(split, createBisector(split), factory)) {
+      Assert.assertNotNull(source.nextPage());
+      try {
+        source.nextPage();
+        Assert.fail("Failure of partially read part was not propagated");
+      } catch (IOException e) {
+        Assert.assertSame(failure, e);
+      }
+    }
+  }
+
+  @Test
+  public void testPermanentErrorNotBisected() throws IOException {
+    FacebookSplit split = new FacebookSplit(SplitBisectorTest.range(1, 4));
+    IOException failure = new IOException("Invalid parameter",
+                                          new APIException.FailedRequestException(INVALID_PARAMETER_ERROR));
+    SplitBisector bisector = createBisector(split);
+
+    try (PageSource source = new BisectingPageSource(split, bisector,
+                                                     part -> new ListPageSource(Collections.emptyList(), failure))) {
+      source.nextPage();
+      Assert.fail("Permanent error was not propagated");
+    } catch (IOException e) {
+      Assert.assertSame(failure, e);
+    }
+    Assert.assertEquals(Subdivision.NONE, bisector.getSubdivision());
+  }
+
+  @Test
+  public void testReadTimeoutOfFirstPageBisected() throws IOException {
+    FacebookSplit split = new FacebookSplit(SplitBisectorTest.range(1, 2));
+    SplitBisector bisector = createBisector(split);
+    List<FacebookSplit> requested = new ArrayList<>();
+    BisectingPageSource.PartSourceFactory factory = part -> {
+      requested.add(part);
+      return new RetriedPageSource(1, requested.size() == 1
+        ? Collections.singletonMap(0, timeout("Read timed out")) : Collections.emptyMap());
+    };
+
+    try (PageSource source = new BisectingPageSource(split, bisector, factory)) {
+      Assert.assertNotNull(source.nextPage());
+      Assert.assertNotNull(source.nextPage());
+      Assert.assertNull(source.nextPage());
+    }
+
+    Assert.assertEquals(3, requested.size());
+    Assert.assertEquals(new Subdivision(1, 0, null, 0), bisector.getSubdivision());
+  }
+
+  @Test
+  public void testReadTimeoutOfLaterPageRetried() throws IOException {
+    FacebookSplit split = new FacebookSplit(SplitBisectorTest.range(1, 4));
+    SplitBisector bisector = createBisector(split);
+    RetriedPageSource partSource = new RetriedPageSource(2, Collections.singletonMap(1, timeout("Read timed out")));
+
+    try (PageSource source = new BisectingPageSource(split, bisector, part -> partSource)) {
+      Assert.assertNotNull(source.nextPage());
+      Assert.assertNotNull(source.nextPage());
+      Assert.assertNull(source.nextPage());
+    }
+
+    Assert.assertEquals(3, partSource.attempts);
+    Assert.assertEquals(Subdivision.NONE, bisector.getSubdivision());
+  }
+
+  @Test
+  public void testConnectTimeoutRetried() throws IOException {
+    FacebookSplit split = new FacebookSplit(SplitBisectorTest.range(1, 4));
+    SplitBisector bisector = createBisector(split);
+    RetriedPageSource partSource = new RetriedPageSource(1, Collections.singletonMap(0, timeout("connect timed out")));
+
+    try (PageSource source = new BisectingPageSource(split, bisector, part -> partSource)) {
+      Assert.assertNotNull(source.nextPage());
+      Assert.assertNull(source.nextPage());
+    }
+
+    Assert.assertEquals(2, partSource.attempts);
+    Assert.assertEquals(Subdivision.NONE, bisector.getSubdivision());
+  }
+
+  private static SplitBisector createBisector(FacebookSplit split) {
+    return new SplitBisector(split, SplitBisectorTest.createConfig(), SplitBisectorTest.createPlan("ad", 1),
+                             LocalDate.of(2020, 1, 8),
+                             (type, id, childType, range) -> Collections.emptyList(), Subdivision.NONE);
+  }
+
+  private static IOException tooLarge() {
+    return new IOException("Too large", new APIException.FailedRequestException(REDUCE_DATA_ERROR));
+  }
+
+  private static APIException timeout(String message) {
+    return new APIException.FailedRequestException(new SocketTimeoutException(message));
+  }
+
+  /**
+   * Returns empty pages by calls of retryer, like page sources of requests do, each page fails once with given error.
+   */
+  private static class RetriedPageSource implements PageSource {
+    private final Retryer retryer = new Retryer(1);
+    private final int pages;
+    private final Map<Integer, APIException> failures;
+    private int returned;
+    private int attempts;
+
+    RetriedPageSource(int pages, Map<Integer, APIException> failures) {
+      this.pages = pages;
+      this.failures = new HashMap<>(failures);
+    }
+
+    @Override
+    public List<StructuredRecord> nextPage() throws IOException {
+      if (returned == pages) {
+        return null;
+      }
+      Retryer.Call<List<StructuredRecord>> call = () -> {
+        attempts++;
+        APIException failure = failures.remove(returned);
+        if (failure != null) {
+          throw failure;
+        }
+        return new ArrayList<>();
+      };
+      try {
+        List<StructuredRecord> page = returned == 0 ? retryer.callFirst(call) : retryer.call(call);
+        returned++;
+        return page;
+      } catch (APIException e) {
+        throw new IOException(e.getMessage(), e);
+      }
+    }
+
+    @Override
+    public void close() {
+
+    }
+  }
+
+  private static class ListPageSource implements PageSource {
+    private final Iterator<List<StructuredRecord>> pages;
+    private final IOException failure;
+
+    ListPageSource(List<List<StructuredRecord>> pages, IOException failure) {
+      this.pages = pages.iterator();
+      this.failure = failure;
+    }
+
+    @Override
+    public List<StructuredRecord> nextPage() throws IOException {
+      if (pages.hasNext()) {
+        return pages.next();
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      return null;
+    }
+
+    @Override
+    public void close() {
+
+    }
+  }
+}
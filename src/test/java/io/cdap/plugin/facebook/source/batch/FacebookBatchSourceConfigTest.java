@@ -18,9 +18,14 @@ package io.cdap.plugin.facebook.source.batch;
 
 import io.cdap.cdap.etl.mock.validation.MockFailureCollector;
 import io.cdap.plugin.facebook.source.BaseFacebookValidationTest;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import io.cdap.plugin.facebook.source.common.config.TimeSlice;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.time.ZoneId;
+import java.util.Arrays;
+
 public class FacebookBatchSourceConfigTest extends BaseFacebookValidationTest {
 
   @Test
@@ -54,4 +59,196 @@ public class FacebookBatchSourceConfigTest extends BaseFacebookValidationTest {
 
     assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_SORT_DIRECTION);
   }
+
+  @Test
+  public void testTimeSlice() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setDatePreset("last_30d").setTimeSlice("week").build();
+    config.validateTimeSlice(failureCollector);
+
+    Assert.assertTrue(failureCollector.getValidationFailures().isEmpty());
+    Assert.assertEquals(TimeSlice.Week, config.getTimeSlice());
+  }
+
+  @Test
+  public void testTimeSliceLifetime() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setDatePreset("lifetime").setTimeSlice("day").build();
+    config.validateTimeSlice(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_TIME_SLICE);
+  }
+
+  @Test
+  public void testTimeZone() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setTimeZone("America/Los_Angeles").build();
+    config.validateTimeZone(failureCollector);
+
+    Assert.assertTrue(failureCollector.getValidationFailures().isEmpty());
+    Assert.assertEquals(ZoneId.of("America/Los_Angeles"), config.getTimeZone());
+  }
+
+  @Test
+  public void testInvalidTimeZone() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setTimeZone("Pacific Time").build();
+    config.validateTimeZone(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_TIME_ZONE);
+  }
+
+  @Test
+  public void testEntitySplit() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setObjectType("Account").setLevel("ad").setEntitySplit("Campaign").build();
+    config.validateEntitySplit(failureCollector);
+
+    Assert.assertTrue(failureCollector.getValidationFailures().isEmpty());
+    Assert.assertEquals(ObjectType.Campaign, config.getEntitySplit());
+  }
+
+  @Test
+  public void testEntitySplitNone() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setObjectType("Ad").setLevel("default").setEntitySplit("none").build();
+    config.validateEntitySplit(failureCollector);
+
+    Assert.assertTrue(failureCollector.getValidationFailures().isEmpty());
+    Assert.assertNull(config.getEntitySplit());
+  }
+
+  @Test
+  public void testEntitySplitNotChild() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setObjectType("Ad Set").setLevel("ad").setEntitySplit("Campaign").build();
+    config.validateEntitySplit(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_ENTITY_SPLIT);
+  }
+
+  @Test
+  public void testEntitySplitDefaultLevel() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setObjectType("Account").setLevel("default").setEntitySplit("Ad Set").build();
+    config.validateEntitySplit(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_LEVEL);
+  }
+
+  @Test
+  public void testEntitiesPerSplit() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setEntitiesPerSplit(20).setExecutionMode("sync").build();
+    config.validateEntitiesPerSplit(failureCollector);
+
+    Assert.assertTrue(failureCollector.getValidationFailures().isEmpty());
+    Assert.assertEquals(20, config.getEntitiesPerSplit());
+  }
+
+  @Test
+  public void testEntitiesPerSplitAsync() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setEntitiesPerSplit(20).setExecutionMode("async").build();
+    config.validateEntitiesPerSplit(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_ENTITIES_PER_SPLIT);
+  }
+
+  @Test
+  public void testMaxRetriesNegative() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setMaxRetries(-1).build();
+    config.validateMaxRetries(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_MAX_RETRIES);
+  }
+
+  @Test
+  public void testIncrementalLifetime() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setStateDirectory("/tmp/facebook").setDatePreset("lifetime").build();
+    config.validateIncremental(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_STATE_DIRECTORY);
+  }
+
+  @Test
+  public void testLookbackDaysNegative() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setStateDirectory("/tmp/facebook").setDatePreset("last_30d").setLookbackDays(-1).build();
+    config.validateIncremental(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_LOOKBACK_DAYS);
+  }
+
+  @Test
+  public void testParseObjectIds() {
+    Assert.assertEquals(Arrays.asList("act_1", "act_2", "act_3"),
+                        FacebookBatchSourceConfig.parseObjectIds("act_1, act_2\n# comment\n\nact_3\r\nact_1"));
+  }
+
+  @Test
+  public void testObjectIdsWithoutSingleId() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setObjectType("Account").setAccountId("").setObjectIds("act_1,act_2").build();
+    config.validateObjectId(failureCollector);
+    config.validateObjectIds(failureCollector);
+
+    Assert.assertTrue(failureCollector.getValidationFailures().isEmpty());
+    Assert.assertTrue(config.isMultiObject());
+  }
+
+  @Test
+  public void testObjectIdsAndFile() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setObjectIds("act_1").setObjectIdsFile("/tmp/accounts.txt").build();
+    config.validateObjectIds(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_OBJECT_IDS_FILE);
+  }
+
+  @Test
+  public void testObjectIdsEntitySplit() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setObjectIdsFile("/tmp/accounts.txt").setEntitySplit("Campaign").build();
+    config.validateObjectIds(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_ENTITY_SPLIT);
+  }
+
+  @Test
+  public void testTargetRowsPerSplitWithoutStats() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder().setTargetRowsPerSplit(10000).build();
+    config.validateTargetRowsPerSplit(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_STATS_DIRECTORY);
+  }
+
+  @Test
+  public void testInvalidTargetRowsPerSplit() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setStatsDirectory("/tmp/stats").setTargetRowsPerSplit(0).build();
+    config.validateTargetRowsPerSplit(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_TARGET_ROWS_PER_SPLIT);
+  }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.plugin.facebook.source.common.config.BaseSourceConfig;
+import io.cdap.plugin.facebook.source.common.config.HttpTransportMode;
+import io.cdap.plugin.facebook.source.common.config.RequestLogLevel;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+public class FacebookInputFormatProviderTest {
+  private static final String ACCESS_TOKEN = "EAABtoken";
+  private static final LocalDate RUN_DATE = LocalDate.of(2020, 3, 15);
+
+  @Test
+  public void testAccessTokenNotSerialized() {
+    Configuration conf = createConfiguration();
+
+    Assert.assertFalse(conf.get(FacebookInputFormatProvider.PROPERTY_CONFIG_JSON).contains(ACCESS_TOKEN));
+    Assert.assertEquals(ACCESS_TOKEN, FacebookInputFormatProvider.getConfig(conf).getAccessToken());
+  }
+
+  @Test
+  public void testReaderConfig() {
+    FacebookBatchSourceConfig config = FacebookInputFormatProvider.getReaderConfig(createConfiguration());
+
+    Assert.assertEquals("ref", config.referenceName);
+    Assert.assertEquals(ACCESS_TOKEN, config.getAccessToken());
+    Assert.assertEquals("23845", config.getObjectId());
+    Assert.assertEquals(3, config.getPrefetchDepth());
+    Assert.assertEquals(FacebookBatchSourceConfig.DEFAULT_MAX_RETRIES, config.getMaxRetries());
+    Assert.assertNull(config.getCacheDirectory());
+    Assert.assertEquals("http://localhost:8080", config.getApiEndpoint());
+    Assert.assertEquals("/tmp/subdivisions", config.getSubdivisionDirectory());
+    Assert.assertEquals("/tmp/stats", config.getStatsDirectory());
+    Assert.assertEquals(HttpTransportMode.Jdk, config.getHttpTransportMode());
+    Assert.assertEquals(30, config.getConnectTimeoutSeconds());
+    Assert.assertEquals(BaseSourceConfig.DEFAULT_READ_TIMEOUT_SECONDS, config.getReadTimeoutSeconds());
+    Assert.assertEquals(RequestLogLevel.Requests, config.getRequestLogLevel());
+    Assert.assertEquals(0.5, config.getRequestLogSampleRate(), 0);
+  }
+
+  @Test
+  public void testRunDate() {
+    Assert.assertEquals(RUN_DATE, FacebookInputFormatProvider.getRunDate(createConfiguration()));
+  }
+
+  @Test
+  public void testQueryPlan() {
+    Configuration conf = createConfiguration();
+
+    Assert.assertEquals("impressions_descending", FacebookInputFormatProvider.getQueryPlan(conf).getSorting());
+  }
+
+  private static Configuration createConfiguration() {
+    FacebookBatchSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setReferenceName("ref")
+      .setAccessToken(ACCESS_TOKEN)
+      .setObjectType("Campaign")
+      .setCampaignId("23845")
+      .setFields("impressions,spend")
+      .setLevel("ad")
+      .setDatePreset("last_7d")
+      .setSorting("impressions")
+      .setSortDirection("descending")
+      .setExecutionMode("sync")
+      .setSchemaMode("strings")
+      .setPrefetchDepth(3)
+      .setApiEndpoint("http://localhost:8080/")
+      .setSubdivisionDirectory("/tmp/subdivisions")
+      .setStatsDirectory("/tmp/stats")
+      .setHttpTransport("jdk")
+      .setConnectTimeoutSeconds(30)
+      .setRequestLogLevel("requests")
+      .setRequestLogSampleRate(0.5)
+      .build();
+    Configuration conf = new Configuration(false);
+    new FacebookInputFormatProvider(config, RUN_DATE, "run").getInputFormatConfiguration().forEach(conf::set);
+    return conf;
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class FacebookSplitPlannerTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testTimeRangeSliced() throws IOException {
+    FacebookBatchSourceConfig config = createBuilder("sync").setCampaignId("23845").setTimeSlice("week").build();
+
+    List<FacebookSplit> splits = plan(config, range(1, 10));
+
+    Assert.assertEquals(2, splits.size());
+    assertSplit(null, Collections.emptyList(), range(1, 7), splits.get(0));
+    assertSplit(null, Collections.emptyList(), range(8, 10), splits.get(1));
+  }
+
+  @Test
+  public void testTimeRangeNotSliced() throws IOException {
+    FacebookBatchSourceConfig config = createBuilder("sync").setCampaignId("23845").setTimeSlice("none").build();
+
+    List<FacebookSplit> splits = plan(config, range(1, 10));
+
+    Assert.assertEquals(1, splits.size());
+    assertSplit(null, Collections.emptyList(), range(1, 10), splits.get(0));
+  }
+
+  @Test
+  public void testSyncObjectsGroupedByEntitiesPerSplit() throws IOException {
+    FacebookBatchSourceConfig config = createBuilder("sync").setObjectIds("1,2,3,4,5").setEntitiesPerSplit(2)
+      .setTimeSlice("day").build();
+
+    List<FacebookSplit> splits = plan(config, range(1, 2));
+
+    // 3 groups of objects of the same size for each of 2 days
+    Assert.assertEquals(6, splits.size());
+    assertSplit(ObjectType.Campaign, Arrays.asList("1", "4"), range(1, 1), splits.get(0));
+    assertSplit(ObjectType.Campaign, Arrays.asList("1", "4"), range(2, 2), splits.get(1));
+    assertSplit(ObjectType.Campaign, Arrays.asList("2", "5"), range(1, 1), splits.get(2));
+    assertSplit(ObjectType.Campaign, Collections.singletonList("3"), range(2, 2), splits.get(5));
+  }
+
+  @Test
+  public void testAsyncObjectsNotGrouped() throws IOException {
+    FacebookBatchSourceConfig config = createBuilder("async").setObjectIds("1,2,3").setEntitiesPerSplit(2)
+      .setTimeSlice("none").build();
+
+    List<FacebookSplit> splits = plan(config, range(1, 2));
+
+    Assert.assertEquals(3, splits.size());
+    assertSplit(ObjectType.Campaign, Collections.singletonList("1"), range(1, 2), splits.get(0));
+    assertSplit(ObjectType.Campaign, Collections.singletonList("2"), range(1, 2), splits.get(1));
+    assertSplit(ObjectType.Campaign, Collections.singletonList("3"), range(1, 2), splits.get(2));
+  }
+
+  @Test
+  public void testSyncObjectsPackedByStats() throws IOException {
+    recordStats();
+    FacebookBatchSourceConfig config = createBuilder("sync").setObjectIds("1,2,3").setTimeSlice("week")
+      .setStatsDirectory(getStatsDirectory()).setTargetRowsPerSplit(600).build();
+
+    List<FacebookSplit> splits = plan(config, range(11, 12));
+
+    // 1200 rows per day are sliced by day and packed into 2 groups of 600 rows
+    Assert.assertEquals(4, splits.size());
+    assertSplit(ObjectType.Campaign, Arrays.asList("2", "3"), range(11, 11), splits.get(0));
+    assertSplit(ObjectType.Campaign, Arrays.asList("2", "3"), range(12, 12), splits.get(1));
+    assertSplit(ObjectType.Campaign, Collections.singletonList("1"), range(11, 11), splits.get(2));
+    assertSplit(ObjectType.Campaign, Collections.singletonList("1"), range(12, 12), splits.get(3));
+  }
+
+  @Test
+  public void testObjectWithoutStatsAssumedAverage() throws IOException {
+    recordStats();
+    FacebookBatchSourceConfig config = createBuilder("sync").setObjectIds("1,2,3,4").setTimeSlice("week")
+      .setStatsDirectory(getStatsDirectory()).setTargetRowsPerSplit(600).build();
+
+    List<FacebookSplit> splits = plan(config, range(11, 11));
+
+    // object 4 is assumed to return 400 rows per day, so 1600 rows need 3 groups
+    Assert.assertEquals(3, splits.size());
+    assertSplit(ObjectType.Campaign, Arrays.asList("2", "3"), range(11, 11), splits.get(0));
+    assertSplit(ObjectType.Campaign, Collections.singletonList("1"), range(11, 11), splits.get(1));
+    assertSplit(ObjectType.Campaign, Collections.singletonList("4"), range(11, 11), splits.get(2));
+  }
+
+  @Test
+  public void testAsyncObjectsNotPackedByStats() throws IOException {
+    recordStats();
+    FacebookBatchSourceConfig config = createBuilder("async").setObjectIds("1,2,3").setTimeSlice("week")
+      .setStatsDirectory(getStatsDirectory()).setTargetRowsPerSplit(600).build();
+
+    List<FacebookSplit> splits = plan(config, range(11, 11));
+
+    Assert.assertEquals(3, splits.size());
+    assertSplit(ObjectType.Campaign, Collections.singletonList("1"), range(11, 11), splits.get(0));
+    assertSplit(ObjectType.Campaign, Collections.singletonList("2"), range(11, 11), splits.get(1));
+    assertSplit(ObjectType.Campaign, Collections.singletonList("3"), range(11, 11), splits.get(2));
+  }
+
+  @Test
+  public void testUnknownStatsFallBackToEntitiesPerSplit() throws IOException {
+    FacebookBatchSourceConfig config = createBuilder("sync").setObjectIds("1,2,3").setEntitiesPerSplit(3)
+      .setTimeSlice("day").setStatsDirectory(getStatsDirectory()).setTargetRowsPerSplit(600).build();
+
+    List<FacebookSplit> splits = plan(config, range(11, 12));
+
+    // configured time slice is kept as well
+    Assert.assertEquals(2, splits.size());
+    assertSplit(ObjectType.Campaign, Arrays.asList("1", "2", "3"), range(11, 11), splits.get(0));
+    assertSplit(ObjectType.Campaign, Arrays.asList("1", "2", "3"), range(12, 12), splits.get(1));
+  }
+
+  private static List<FacebookSplit> plan(FacebookBatchSourceConfig config, DateRange timeRange) throws IOException {
+    return new FacebookSplitPlanner(config, new Configuration(), timeRange).plan();
+  }
+
+  private void recordStats() throws IOException {
+    StatsStore store = new StatsStore(getStatsDirectory(), new Configuration());
+    store.recordSplit(ObjectType.Campaign, Collections.singletonList("1"), range(1, 10), 6000, 10, 0);
+    store.recordSplit(ObjectType.Campaign, Arrays.asList("2", "3"), range(1, 10), 6000, 10, 0);
+    store.merge();
+  }
+
+  private String getStatsDirectory() {
+    return temporaryFolder.getRoot().getPath() + "/stats";
+  }
+
+  private static void assertSplit(ObjectType objectType, List<String> objectIds, DateRange timeRange,
+                                  FacebookSplit split) {
+    Assert.assertEquals(objectType, split.getObjectType());
+    Assert.assertEquals(objectIds, split.getObjectIds());
+    Assert.assertEquals(timeRange, split.getTimeRange());
+  }
+
+  private static FacebookBatchSourceConfig.Builder createBuilder(String executionMode) {
+    return FacebookBatchSourceConfig.builder()
+      .setReferenceName("ref")
+      .setObjectType("Campaign")
+      .setFields("impressions")
+      .setExecutionMode(executionMode);
+  }
+
+  private static DateRange range(int sinceDay, int untilDay) {
+    return new DateRange(LocalDate.of(2020, 1, sinceDay), LocalDate.of(2020, 1, untilDay));
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+public class FacebookSplitTest {
+
+  @Test
+  public void testSerialization() throws IOException {
+    DateRange timeRange = new DateRange(LocalDate.of(2020, 5, 1), LocalDate.of(2020, 5, 7));
+    FacebookSplit split = new FacebookSplit(ObjectType.AdSet, Arrays.asList("1", "2"), timeRange);
+
+    FacebookSplit actual = writeAndRead(split);
+
+    Assert.assertEquals(ObjectType.AdSet, actual.getObjectType());
+    Assert.assertEquals(Arrays.asList("1", "2"), actual.getObjectIds());
+    Assert.assertEquals(timeRange, actual.getTimeRange());
+  }
+
+  @Test
+  public void testSerializationEmpty() throws IOException {
+    FacebookSplit actual = writeAndRead(new FacebookSplit());
+
+    Assert.assertNull(actual.getObjectType());
+    Assert.assertTrue(actual.getObjectIds().isEmpty());
+    Assert.assertNull(actual.getTimeRange());
+  }
+
+  @Test
+  public void testSerializationNonNumericIds() throws IOException {
+    List<String> objectIds = Arrays.asList("act_1", "007", "0", "", "12345678901234567890", "-1");
+    FacebookSplit split = new FacebookSplit(ObjectType.Ad, objectIds, null);
+
+    Assert.assertEquals(objectIds, writeAndRead(split).getObjectIds());
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnsupportedVersion() throws IOException {
+    new FacebookSplit().readFields(new DataInputStream(new ByteArrayInputStream(new byte[]{0, 0})));
+  }
+
+  private static FacebookSplit writeAndRead(FacebookSplit split) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    split.write(new DataOutputStream(bytes));
+    FacebookSplit actual = new FacebookSplit();
+    actual.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    return actual;
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.plugin.facebook.source.FakeGraphApiServer;
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads insights from local fake of Graph API, which allows to measure throughput of the source and its behavior
+ * on failures without network access.
+ */
+public class FakeGraphApiExtractionTest {
+  private static final Logger LOG = LoggerFactory.getLogger(FakeGraphApiExtractionTest.class);
+  private static final DateRange TIME_RANGE = new DateRange(LocalDate.of(2020, 3, 1), LocalDate.of(2020, 3, 30));
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testStreamingExtraction() throws Exception {
+    try (FakeGraphApiServer server = FakeGraphApiServer.builder().setRows(1000).setPageSize(100).build()) {
+      FacebookBatchSourceConfig config = createConfig(server, "1001", "sync");
+
+      long rows = read(config, new FacebookSplit(TIME_RANGE));
+
+      Assert.assertEquals(1000, rows);
+      Assert.assertEquals(10, server.getRequestCount());
+    }
+  }
+
+  @Test
+  public void testBatchExtraction() throws Exception {
+    try (FakeGraphApiServer server = FakeGraphApiServer.builder().setRows(250).setPageSize(100).build()) {
+      FacebookBatchSourceConfig config = createConfig(server, "1002", "sync");
+      List<String> adIds = Arrays.asList("2001", "2002", "2003");
+
+      long rows = read(config, new FacebookSplit(ObjectType.Ad, adIds, TIME_RANGE));
+
+      Assert.assertEquals(750, rows);
+      Assert.assertEquals(9, server.getRequestCount());
+    }
+  }
+
+  @Test
+  public void testTransientErrorsAreRetried() throws Exception {
+    try (FakeGraphApiServer server = FakeGraphApiServer.builder().setRows(300).setPageSize(100).setFailEvery(2)
+      .build()) {
+      FacebookBatchSourceConfig config = createConfig(server, "1003", "sync");
+
+      long rows = read(config, new FacebookSplit(TIME_RANGE));
+
+      Assert.assertEquals(300, rows);
+      Assert.assertEquals(2, server.getFailedRequestCount());
+    }
+  }
+
+  @Test
+  public void testProgressOfDailyRows() throws Exception {
+    try (FakeGraphApiServer server = FakeGraphApiServer.builder().setRows(300).setPageSize(30).build()) {
+      FacebookBatchSourceConfig config = createConfig(server, "1004", "sync");
+      FacebookRecordReader reader = createReader(config, new FacebookSplit(TIME_RANGE));
+
+      float previousProgress = 0;
+      int rows = 0;
+      while (reader.nextKeyValue()) {
+        rows++;
+        Assert.assertTrue(reader.getProgress() >= previousProgress);
+        previousProgress = reader.getProgress();
+        if (rows == 150) {
+          Assert.assertTrue(previousProgress > 0.2 && previousProgress < 0.8);
+        }
+      }
+      reader.close();
+
+      Assert.assertEquals(1, reader.getProgress(), 0.001);
+    }
+  }
+
+  private FacebookBatchSourceConfig createConfig(FakeGraphApiServer server, String accountId,
+                                                 String executionMode) throws IOException {
+    return FacebookBatchSourceConfig.builder()
+      .setReferenceName("fake-" + accountId)
+      .setAccessToken("token")
+      .setObjectType("Account")
+      .setAccountId(accountId)
+      .setFields("impressions,clicks,spend,actions,date_start,date_stop")
+      .setDatePreset("last_30d")
+      .setExecutionMode(executionMode)
+      // incremental runs request daily rows
+      .setStateDirectory(temporaryFolder.newFolder().getPath())
+      .setMaxRetries(3)
+      .setPrefetchDepth(2)
+      .setApiEndpoint(server.getEndpoint())
+      .build();
+  }
+
+  private static long read(FacebookBatchSourceConfig config, FacebookSplit split) throws Exception {
+    long startNanos = System.nanoTime();
+    FacebookRecordReader reader = createReader(config, split);
+    long rows = 0;
+    while (reader.nextKeyValue()) {
+      StructuredRecord record = reader.getCurrentValue();
+      Assert.assertNotNull(record.get("impressions"));
+      rows++;
+    }
+    reader.close();
+    long millis = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), 1);
+    LOG.info("Read {} rows in {} ms, {} rows/s.", rows, millis, rows * 1000 / millis);
+    return rows;
+  }
+
+  private static FacebookRecordReader createReader(FacebookBatchSourceConfig config, FacebookSplit split)
+    throws IOException {
+    Configuration conf = new Configuration(false);
+    new FacebookInputFormatProvider(config, TIME_RANGE.getUntil(), "run").getInputFormatConfiguration()
+      .forEach(conf::set);
+    TaskAttemptContext context = Mockito.mock(TaskAttemptContext.class);
+    Mockito.when(context.getConfiguration()).thenReturn(conf);
+
+    FacebookRecordReader reader = new FacebookRecordReader();
+    reader.initialize(split, context);
+    return reader;
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ObjectPackerTest {
+
+  @Test
+  public void testPackHugeObjectAlone() {
+    Map<String, Long> sizes = new LinkedHashMap<>();
+    sizes.put("small1", 10L);
+    sizes.put("huge", 1000L);
+    sizes.put("small2", 20L);
+    sizes.put("small3", 30L);
+
+    List<List<String>> groups = ObjectPacker.pack(sizes, 2);
+
+    Assert.assertEquals(Arrays.asList(Collections.singletonList("huge"), Arrays.asList("small3", "small2", "small1")),
+                        groups);
+  }
+
+  @Test
+  public void testPackBalanced() {
+    Map<String, Long> sizes = new LinkedHashMap<>();
+    sizes.put("a", 7L);
+    sizes.put("b", 6L);
+    sizes.put("c", 5L);
+    sizes.put("d", 4L);
+    sizes.put("e", 3L);
+    sizes.put("f", 3L);
+
+    List<List<String>> groups = ObjectPacker.pack(sizes, 3);
+
+    Assert.assertEquals(Arrays.asList(Arrays.asList("a", "f"), Arrays.asList("b", "e"), Arrays.asList("c", "d")),
+                        groups);
+  }
+
+  @Test
+  public void testPackMoreGroupsThanObjects() {
+    Map<String, Long> sizes = new LinkedHashMap<>();
+    sizes.put("a", 1L);
+    sizes.put("b", 1L);
+
+    Assert.assertEquals(Arrays.asList(Collections.singletonList("a"), Collections.singletonList("b")),
+                        ObjectPacker.pack(sizes, 5));
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class PrefetchingPageSourceTest {
+
+  @Test
+  public void testPagesInOrder() throws IOException {
+    List<List<StructuredRecord>> pages = Arrays.asList(newPage(), newPage(), newPage());
+    try (PageSource source = new PrefetchingPageSource(new ListPageSource(pages, null), 2)) {
+      List<List<StructuredRecord>> actual = new ArrayList<>();
+      List<StructuredRecord> page;
+      while ((page = source.nextPage()) != null) {
+        actual.add(page);
+      }
+      Assert.assertEquals(pages.size(), actual.size());
+      for (int i = 0; i < pages.size(); i++) {
+        Assert.assertSame(pages.get(i), actual.get(i));
+      }
+      Assert.assertNull(source.nextPage());
+    }
+  }
+
+  @Test
+  public void testFailureAfterPages() throws IOException {
+    List<List<StructuredRecord>> pages = Arrays.asList(newPage(), newPage());
+    IOException failure = new IOException("failed");
+    try (PageSource source = new PrefetchingPageSource(new ListPageSource(pages, failure), 1)) {
+      Assert.assertSame(pages.get(0), source.nextPage());
+      Assert.assertSame(pages.get(1), source.nextPage());
+      try {
+        source.nextPage();
+        Assert.fail("Failure of background fetch was not propagated");
+      } catch (IOException e) {
+        Assert.assertSame(failure, e.getCause());
+      }
+    }
+  }
+
+  @Test
+  public void testCloseWaitsForFetchInProgress() throws IOException {
+    SlowPageSource delegate = new SlowPageSource();
+    PageSource source = new PrefetchingPageSource(delegate, 1);
+    source.close();
+
+    Assert.assertTrue(delegate.closed);
+    Assert.assertFalse(delegate.closedDuringFetch);
+  }
+
+  private static List<StructuredRecord> newPage() {
+    return new ArrayList<>();
+  }
+
+  private static class ListPageSource implements PageSource {
+    private final Iterator<List<StructuredRecord>> pages;
+    private final IOException failure;
+
+    ListPageSource(List<List<StructuredRecord>> pages, IOException failure) {
+      this.pages = pages.iterator();
+      this.failure = failure;
+    }
+
+    @Override
+    public List<StructuredRecord> nextPage() throws IOException {
+      if (pages.hasNext()) {
+        return pages.next();
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      return null;
+    }
+
+    @Override
+    public void close() {
+
+    }
+  }
+
+  private static class SlowPageSource implements PageSource {
+    private volatile boolean fetching;
+    private volatile boolean closed;
+    private volatile boolean closedDuringFetch;
+
+    @Override
+    public List<StructuredRecord> nextPage() {
+      fetching = true;
+      // request, which doesn't respond to interruption
+      Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+      fetching = false;
+      return newPage();
+    }
+
+    @Override
+    public void close() {
+      closedDuringFetch = fetching;
+      closed = true;
+    }
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import io.cdap.plugin.facebook.source.common.config.QueryPlan;
+import io.cdap.plugin.facebook.source.common.config.SchemaMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+
+public class SplitBisectorTest {
+  private static final LocalDate TODAY = LocalDate.of(2020, 1, 8);
+  private static final SplitBisector.ChildLister NO_CHILDREN = (type, id, childType, range) -> Collections.emptyList();
+
+  @Test
+  public void testTimeRangeHalvedFirst() throws IOException {
+    FacebookSplit split = new FacebookSplit(ObjectType.AdSet, Arrays.asList("1", "2"), range(1, 5));
+    SplitBisector bisector = new SplitBisector(split, createConfig(), createPlan("ad", 1), TODAY, NO_CHILDREN,
+                                               Subdivision.NONE);
+
+    List<FacebookSplit> parts = bisector.bisect(split);
+
+    Assert.assertEquals(2, parts.size());
+    Assert.assertEquals(range(1, 3), parts.get(0).getTimeRange());
+    Assert.assertEquals(range(4, 5), parts.get(1).getTimeRange());
+    Assert.assertEquals(Arrays.asList("1", "2"), parts.get(1).getObjectIds());
+
+    parts = bisector.bisect(new FacebookSplit(ObjectType.AdSet, Arrays.asList("1", "2"), range(4, 4)));
+
+    Assert.assertEquals(Collections.singletonList("1"), parts.get(0).getObjectIds());
+    Assert.assertEquals(Collections.singletonList("2"), parts.get(1).getObjectIds());
+    Assert.assertEquals(range(4, 4), parts.get(1).getTimeRange());
+    Assert.assertEquals(new Subdivision(3, 1, null, 0), bisector.getSubdivision());
+  }
+
+  @Test
+  public void testDatePresetResolved() throws IOException {
+    FacebookSplit split = new FacebookSplit(null);
+    SplitBisector bisector = new SplitBisector(split, createConfig(), createPlan("ad", 1), TODAY, NO_CHILDREN,
+                                               Subdivision.NONE);
+
+    List<FacebookSplit> parts = bisector.bisect(split);
+
+    // last_7d doesn't include current day
+    Assert.assertEquals(range(1, 4), parts.get(0).getTimeRange());
+    Assert.assertEquals(range(5, 7), parts.get(1).getTimeRange());
+    Assert.assertNull(parts.get(0).getObjectType());
+    Assert.assertTrue(parts.get(0).getObjectIds().isEmpty());
+  }
+
+  @Test
+  public void testAggregatedRangeNotHalved() throws IOException {
+    FacebookSplit split = new FacebookSplit(ObjectType.AdSet, Arrays.asList("1", "2", "3"), range(1, 5));
+    SplitBisector bisector = new SplitBisector(split, createConfig(), createPlan("ad", null), TODAY, NO_CHILDREN,
+                                               Subdivision.NONE);
+
+    List<FacebookSplit> parts = bisector.bisect(split);
+
+    Assert.assertEquals(Arrays.asList("1", "2"), parts.get(0).getObjectIds());
+    Assert.assertEquals(Collections.singletonList("3"), parts.get(1).getObjectIds());
+    Assert.assertEquals(range(1, 5), parts.get(1).getTimeRange());
+    Assert.assertEquals(new Subdivision(0, 2, null, 0), bisector.getSubdivision());
+  }
+
+  @Test
+  public void testObjectReplacedByChildren() throws IOException {
+    FacebookSplit split = new FacebookSplit(range(1, 1));
+    SplitBisector.ChildLister lister = (type, id, childType, range) -> {
+      Assert.assertEquals(ObjectType.Campaign, type);
+      Assert.assertEquals("23845", id);
+      Assert.assertEquals(ObjectType.AdSet, childType);
+      return Arrays.asList("1", "2");
+    };
+    SplitBisector bisector = new SplitBisector(split, createConfig(), createPlan("ad", 1), TODAY, lister,
+                                               Subdivision.NONE);
+
+    List<FacebookSplit> parts = bisector.bisect(split);
+
+    Assert.assertEquals(1, parts.size());
+    Assert.assertEquals(ObjectType.AdSet, parts.get(0).getObjectType());
+    Assert.assertEquals(Arrays.asList("1", "2"), parts.get(0).getObjectIds());
+
+    parts = bisector.bisect(parts.get(0));
+    Assert.assertEquals(Collections.singletonList("2"), parts.get(1).getObjectIds());
+    Assert.assertEquals(new Subdivision(0, 0, ObjectType.AdSet, 1), bisector.getSubdivision());
+
+    // children are not replaced by their children
+    Assert.assertTrue(bisector.bisect(parts.get(1)).isEmpty());
+  }
+
+  @Test
+  public void testObjectNotReplacedAtItsLevel() throws IOException {
+    FacebookSplit split = new FacebookSplit(range(1, 1));
+    SplitBisector bisector = new SplitBisector(split, createConfig(), createPlan("campaign", 1), TODAY,
+                                               (type, id, childType, range) -> Collections.singletonList("1"),
+                                               Subdivision.NONE);
+
+    Assert.assertTrue(bisector.bisect(split).isEmpty());
+    Assert.assertEquals(Subdivision.NONE, bisector.getSubdivision());
+  }
+
+  @Test
+  public void testSubdivide() throws IOException {
+    FacebookSplit split = new FacebookSplit(ObjectType.Campaign, Arrays.asList("1", "2"), range(1, 4));
+    SplitBisector.ChildLister lister = (type, id, childType, range) ->
+      "1".equals(id) ? Arrays.asList("11", "12", "13") : Collections.emptyList();
+    SplitBisector bisector = new SplitBisector(split, createConfig(), createPlan("ad", 1), TODAY, lister,
+                                               new Subdivision(2, 1, ObjectType.AdSet, 2));
+
+    List<FacebookSplit> parts = bisector.subdivide();
+
+    Assert.assertEquals(6, parts.size());
+    assertPart(ObjectType.AdSet, Arrays.asList("11", "12"), range(1, 2), parts.get(0));
+    assertPart(ObjectType.AdSet, Arrays.asList("11", "12"), range(3, 4), parts.get(1));
+    assertPart(ObjectType.AdSet, Collections.singletonList("13"), range(1, 2), parts.get(2));
+    assertPart(ObjectType.AdSet, Collections.singletonList("13"), range(3, 4), parts.get(3));
+    // object without children is requested itself
+    assertPart(ObjectType.Campaign, Collections.singletonList("2"), range(1, 2), parts.get(4));
+    assertPart(ObjectType.Campaign, Collections.singletonList("2"), range(3, 4), parts.get(5));
+  }
+
+  @Test
+  public void testAsyncObjectsCutToSingleObjects() throws IOException {
+    FacebookSplit split = new FacebookSplit(ObjectType.AdSet, Arrays.asList("1", "2", "3"), range(1, 1));
+    SplitBisector bisector = new SplitBisector(split, createConfig("async"), createPlan("ad", 1), TODAY, NO_CHILDREN,
+                                               Subdivision.NONE);
+
+    List<FacebookSplit> parts = bisector.bisect(split);
+
+    Assert.assertEquals(3, parts.size());
+    parts.forEach(part -> Assert.assertEquals(1, part.getObjectIds().size()));
+    Assert.assertEquals(new Subdivision(0, 1, null, 0), bisector.getSubdivision());
+  }
+
+  @Test
+  public void testAsyncChildrenCutToSingleObjects() throws IOException {
+    FacebookSplit split = new FacebookSplit(range(1, 1));
+    SplitBisector bisector = new SplitBisector(split, createConfig("async"), createPlan("ad", 1), TODAY,
+                                               (type, id, childType, range) -> Arrays.asList("1", "2"),
+                                               Subdivision.NONE);
+
+    List<FacebookSplit> parts = bisector.bisect(split);
+
+    Assert.assertEquals(2, parts.size());
+    assertPart(ObjectType.AdSet, Collections.singletonList("1"), range(1, 1), parts.get(0));
+    assertPart(ObjectType.AdSet, Collections.singletonList("2"), range(1, 1), parts.get(1));
+    Assert.assertEquals(new Subdivision(0, 0, ObjectType.AdSet, 1), bisector.getSubdivision());
+  }
+
+  @Test
+  public void testAsyncSubdivideIgnoresRecordedObjectLimits() throws IOException {
+    FacebookSplit split = new FacebookSplit(ObjectType.Campaign, Collections.singletonList("1"), range(1, 2));
+    // recorded by synchronous run
+    SplitBisector bisector = new SplitBisector(split, createConfig("async"), createPlan("ad", 1), TODAY,
+                                               (type, id, childType, range) -> Arrays.asList("11", "12"),
+                                               new Subdivision(1, 0, ObjectType.AdSet, 2));
+
+    List<FacebookSplit> parts = bisector.subdivide();
+
+    Assert.assertEquals(4, parts.size());
+    assertPart(ObjectType.AdSet, Collections.singletonList("11"), range(1, 1), parts.get(0));
+    assertPart(ObjectType.AdSet, Collections.singletonList("11"), range(2, 2), parts.get(1));
+    assertPart(ObjectType.AdSet, Collections.singletonList("12"), range(1, 1), parts.get(2));
+    assertPart(ObjectType.AdSet, Collections.singletonList("12"), range(2, 2), parts.get(3));
+  }
+
+  private static void assertPart(ObjectType objectType, List<String> objectIds, DateRange timeRange,
+                                 FacebookSplit part) {
+    Assert.assertEquals(objectType, part.getObjectType());
+    Assert.assertEquals(objectIds, part.getObjectIds());
+    Assert.assertEquals(timeRange, part.getTimeRange());
+  }
+
+  static DateRange range(int sinceDay, int untilDay) {
+    return new DateRange(LocalDate.of(2020, 1, sinceDay), LocalDate.of(2020, 1, untilDay));
+  }
+
+  static FacebookBatchSourceConfig createConfig() {
+    return createConfig("sync");
+  }
+
+  static FacebookBatchSourceConfig createConfig(String executionMode) {
+    return FacebookBatchSourceConfig.builder()
+      .setReferenceName("ref")
+      .setObjectType("Campaign")
+      .setCampaignId("23845")
+      .setExecutionMode(executionMode)
+      .build();
+  }
+
+  static QueryPlan createPlan(String level, @Nullable Integer timeIncrement) {
+    return QueryPlan.builder()
+      .setFields(Arrays.asList("impressions", "date_start"))
+      .setLevel(level)
+      .setDatePreset("last_7d")
+      .setTimeIncrement(timeIncrement)
+      .setSchemaMode(SchemaMode.Typed)
+      .build();
+  }
+}
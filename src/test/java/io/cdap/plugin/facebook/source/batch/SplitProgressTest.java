@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SplitProgressTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "record",
+    Schema.Field.of("date_start", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("impressions", Schema.of(Schema.Type.STRING))
+  );
+  private static final DateRange RANGE = new DateRange(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 10));
+
+  @Test
+  public void testProgressByDays() {
+    SplitProgress progress = new SplitProgress(1, RANGE);
+    Assert.assertEquals(0, progress.getProgress(), 0.001);
+
+    progress.onPage(page("2020-01-01", "2020-01-02"), 0);
+    Assert.assertEquals(0.1, progress.getProgress(), 0.001);
+
+    progress.onPage(page("2020-01-03", "2020-01-06"), 0);
+    Assert.assertEquals(0.5, progress.getProgress(), 0.001);
+
+    progress.onEnd();
+    Assert.assertEquals(1, progress.getProgress(), 0.001);
+  }
+
+  @Test
+  public void testProgressByPages() {
+    // all rows of range are aggregated to one row per object, so dates don't tell progress
+    SplitProgress progress = new SplitProgress(2, RANGE);
+
+    progress.onPage(page("2020-01-01"), 0);
+    Assert.assertEquals(0.1, progress.getProgress(), 0.001);
+
+    progress.onPage(page("2020-01-01"), 0);
+    Assert.assertEquals(1 / 6.0, progress.getProgress(), 0.001);
+
+    // the second request is estimated by average pages of the first one
+    progress.onPage(page("2020-01-01"), 1);
+    Assert.assertEquals(0.75, progress.getProgress(), 0.001);
+
+    progress.onPage(page("2020-01-01"), 1);
+    Assert.assertEquals(0.995, progress.getProgress(), 0.001);
+
+    progress.onPage(page("2020-01-01"), 1);
+    Assert.assertEquals(0.995, progress.getProgress(), 0.001);
+  }
+
+  @Test
+  public void testProgressDoesNotDecrease() {
+    SplitProgress progress = new SplitProgress(1, null);
+
+    progress.onPage(Collections.emptyList(), 0);
+    float first = progress.getProgress();
+    Assert.assertTrue(first > 0 && first < 1);
+
+    progress.onPage(page("2020-01-05"), 0);
+    Assert.assertTrue(progress.getProgress() >= first);
+  }
+
+  private static List<StructuredRecord> page(String... dates) {
+    return Arrays.stream(dates)
+      .map(date -> StructuredRecord.builder(SCHEMA).set("date_start", date).set("impressions", "1").build())
+      .collect(Collectors.toList());
+  }
+}
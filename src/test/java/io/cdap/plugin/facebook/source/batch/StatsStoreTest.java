@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class StatsStoreTest {
+  private static final double DELTA = 0.001;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testSplitsSharedByObjectsAndDays() throws IOException {
+    StatsStore store = createStore();
+    store.recordSplit(ObjectType.Campaign, Arrays.asList("1", "2"), range(1, 5), 1000, 10, 5000);
+    store.recordSplit(ObjectType.Campaign, Collections.singletonList("3"), range(1, 1), 7, 1, 300);
+    Assert.assertNull(store.read(ObjectType.Campaign, "1"));
+
+    store.merge();
+
+    ObjectStats stats = store.read(ObjectType.Campaign, "1");
+    Assert.assertEquals(100, stats.getRowsPerDay(), DELTA);
+    Assert.assertEquals(1, stats.getPagesPerDay(), DELTA);
+    Assert.assertEquals(500, stats.getMillisPerDay(), DELTA);
+    Assert.assertEquals(7, store.read(ObjectType.Campaign, "3").getRowsPerDay(), DELTA);
+    Assert.assertNull(store.read(ObjectType.AdSet, "1"));
+  }
+
+  @Test
+  public void testDaysReplacedByNextRun() throws IOException {
+    StatsStore store = createStore();
+    store.recordSplit(ObjectType.Account, Collections.singletonList("act_1"), range(1, 2), 20, 2, 200);
+    store.merge();
+    store.recordSplit(ObjectType.Account, Collections.singletonList("act_1"), range(2, 3), 60, 2, 200);
+    store.merge();
+    // nothing is pending
+    store.merge();
+
+    // day 1 of the first run and days 2 and 3 of the second one
+    Assert.assertEquals((10 + 30 + 30) / 3.0, store.read(ObjectType.Account, "act_1").getRowsPerDay(), DELTA);
+  }
+
+  @Test
+  public void testOldDaysDropped() throws IOException {
+    StatsStore store = createStore();
+    DateRange oldDays = new DateRange(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 12, 31));
+    store.recordSplit(ObjectType.Account, Collections.singletonList("act_1"), oldDays, 0, 365, 0);
+    store.recordSplit(ObjectType.Account, Collections.singletonList("act_1"), range(1, 10), 10000, 10, 0);
+    store.merge();
+
+    ObjectStats stats = store.read(ObjectType.Account, "act_1");
+    Assert.assertEquals(10000.0 / StatsStore.RETAINED_DAYS, stats.getRowsPerDay(), DELTA);
+    // one page per day of both splits
+    Assert.assertEquals(1, stats.getPagesPerDay(), DELTA);
+  }
+
+  private StatsStore createStore() {
+    return new StatsStore(temporaryFolder.getRoot().getPath() + "/stats", new Configuration());
+  }
+
+  private static DateRange range(int sinceDay, int untilDay) {
+    return new DateRange(LocalDate.of(2020, 1, sinceDay), LocalDate.of(2020, 1, untilDay));
+  }
+}
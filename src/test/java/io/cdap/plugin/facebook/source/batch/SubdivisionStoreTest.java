@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class SubdivisionStoreTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testReadWrite() throws IOException {
+    SubdivisionStore store = new SubdivisionStore(temporaryFolder.getRoot().getPath() + "/subdivisions",
+                                                  new Configuration());
+    Assert.assertEquals(Subdivision.NONE, store.read(ObjectType.Account, Collections.singletonList("act_1")));
+
+    Subdivision subdivision = new Subdivision(7, 0, ObjectType.Campaign, 25);
+    store.write(ObjectType.Account, Collections.singletonList("act_1"), subdivision);
+    store.write(ObjectType.AdSet, Arrays.asList("1", "2"), new Subdivision(1, 1, null, 0));
+
+    Assert.assertEquals(subdivision, store.read(ObjectType.Account, Collections.singletonList("act_1")));
+    // list is found in any order
+    Assert.assertEquals(new Subdivision(1, 1, null, 0), store.read(ObjectType.AdSet, Arrays.asList("2", "1")));
+    Assert.assertEquals(Subdivision.NONE, store.read(ObjectType.Campaign, Arrays.asList("1", "2")));
+  }
+
+  @Test
+  public void testLimitsNarrowed() {
+    Subdivision subdivision = Subdivision.NONE.withMaxDays(8).withMaxDays(4).withMaxDays(6).withMaxObjects(3);
+
+    Assert.assertEquals(new Subdivision(4, 3, null, 0), subdivision);
+    Assert.assertEquals(subdivision, Subdivision.parse(subdivision.toString()));
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.batch;
+
+import io.cdap.plugin.facebook.source.common.config.DateRange;
+import io.cdap.plugin.facebook.source.common.config.ObjectType;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+public class WatermarkStoreTest {
+  private static final DateRange LAST_30_DAYS = new DateRange(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 30));
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testReadWrite() throws IOException {
+    WatermarkStore store = new WatermarkStore(temporaryFolder.getRoot().getPath() + "/state", new Configuration());
+    Assert.assertNull(store.read(ObjectType.Account, "act_1"));
+
+    store.write(ObjectType.Account, "act_1", LocalDate.of(2020, 1, 10));
+    store.write(ObjectType.Account, "act_1", LocalDate.of(2020, 1, 11));
+
+    Assert.assertEquals(LocalDate.of(2020, 1, 11), store.read(ObjectType.Account, "act_1"));
+    Assert.assertNull(store.read(ObjectType.Campaign, "act_1"));
+  }
+
+  @Test
+  public void testDeltaRange() {
+    Assert.assertEquals(LAST_30_DAYS, WatermarkStore.getDeltaRange(LAST_30_DAYS, null, 3));
+    Assert.assertEquals(new DateRange(LocalDate.of(2020, 1, 27), LocalDate.of(2020, 1, 30)),
+                        WatermarkStore.getDeltaRange(LAST_30_DAYS, LocalDate.of(2020, 1, 29), 3));
+    // watermark is older than configured range
+    Assert.assertEquals(LAST_30_DAYS, WatermarkStore.getDeltaRange(LAST_30_DAYS, LocalDate.of(2019, 6, 1), 3));
+    // all days are extracted and no lookback
+    Assert.assertNull(WatermarkStore.getDeltaRange(LAST_30_DAYS, LocalDate.of(2020, 1, 30), 0));
+  }
+
+  @Test
+  public void testNextWatermark() {
+    Assert.assertEquals(LocalDate.of(2020, 1, 30),
+                        WatermarkStore.getNextWatermark(LAST_30_DAYS, null, LocalDate.of(2020, 1, 31)));
+    // current day is not complete
+    Assert.assertEquals(LocalDate.of(2020, 1, 29),
+                        WatermarkStore.getNextWatermark(LAST_30_DAYS, null, LocalDate.of(2020, 1, 30)));
+    DateRange today = new DateRange(LocalDate.of(2020, 1, 30), LocalDate.of(2020, 1, 30));
+    Assert.assertEquals(LocalDate.of(2020, 1, 28),
+                        WatermarkStore.getNextWatermark(today, LocalDate.of(2020, 1, 28), LocalDate.of(2020, 1, 30)));
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.plugin.facebook.source.common.config.SchemaMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+public class InsightsJsonParserTest {
+  private static final InsightsRecordPlan PLAN = InsightsRecordPlan.compile(SchemaHelper.buildSchema(
+    Arrays.asList("ad_id", "impressions", "actions"), null));
+
+  @Test
+  public void testParsePage() throws IOException {
+    String response = "{\"data\":[{\"ad_id\":\"1\",\"impressions\":\"120\",\"unknown\":{\"a\":[1,2]},"
+      + "\"actions\":[{\"action_type\":\"link_click\",\"value\":\"3\",\"7d_click\":\"2\"}]},"
+      + "{\"ad_id\":\"2\",\"impressions\":57}],"
+      + "\"paging\":{\"cursors\":{\"before\":\"b\",\"after\":\"a\"},\"next\":\"https://graph.facebook.com/next\"}}";
+
+    InsightsPage page = InsightsJsonParser.parsePage(new StringReader(response), PLAN);
+
+    Assert.assertEquals("a", page.getAfter());
+    Assert.assertEquals(2, page.getRecords().size());
+
+    StructuredRecord first = page.getRecords().get(0);
+    Assert.assertEquals("1", first.get("ad_id"));
+    Assert.assertEquals("120", first.get("impressions"));
+    List<StructuredRecord> actions = first.get("actions");
+    Assert.assertEquals(1, actions.size());
+    Assert.assertEquals("link_click", actions.get(0).get("action_type"));
+    Assert.assertEquals("2", actions.get(0).get("click_7d"));
+
+    StructuredRecord second = page.getRecords().get(1);
+    Assert.assertEquals("57", second.get("impressions"));
+    Assert.assertNull(second.get("actions"));
+  }
+
+  @Test
+  public void testParseTypedValues() throws IOException {
+    InsightsRecordPlan plan = InsightsRecordPlan.compile(SchemaHelper.buildSchema(
+      Arrays.asList("impressions", "spend", "date_start"), null, SchemaMode.Typed));
+    String response = "{\"data\":[{\"impressions\":\"120\",\"spend\":\"12.34\",\"date_start\":\"2020-01-02\"}]}";
+
+    InsightsPage page = InsightsJsonParser.parsePage(new StringReader(response), plan);
+
+    StructuredRecord record = page.getRecords().get(0);
+    Assert.assertEquals(120L, (long) record.get("impressions"));
+    Assert.assertEquals(12.34, record.get("spend"), 0);
+    Assert.assertEquals(LocalDate.of(2020, 1, 2), record.getDate("date_start"));
+  }
+
+  @Test
+  public void testParseLastPage() throws IOException {
+    String response = "{\"data\":[],\"paging\":{\"cursors\":{\"before\":\"b\",\"after\":\"a\"}}}";
+
+    InsightsPage page = InsightsJsonParser.parsePage(new StringReader(response), PLAN);
+
+    Assert.assertNull(page.getAfter());
+    Assert.assertTrue(page.getRecords().isEmpty());
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common;
+
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class InsightsRecordPlanTest {
+
+  @Test
+  public void testCompile() {
+    Schema schema = SchemaHelper.buildSchema(Arrays.asList("ad_id", "actions"), null);
+
+    InsightsRecordPlan plan = InsightsRecordPlan.compile(schema);
+
+    Assert.assertSame(schema, plan.getSchema());
+    Assert.assertNull(plan.get("unknown"));
+
+    InsightsRecordPlan.FieldMapping adId = plan.get("ad_id");
+    Assert.assertEquals(InsightsRecordPlan.Kind.VALUE, adId.getKind());
+    Assert.assertEquals("123", adId.getConverter().convert("123"));
+
+    InsightsRecordPlan.FieldMapping actions = plan.get("actions");
+    Assert.assertEquals(InsightsRecordPlan.Kind.ARRAY, actions.getKind());
+    InsightsRecordPlan actionPlan = actions.getNested();
+    Assert.assertEquals("click_7d", actionPlan.get("7d_click").getName());
+    Assert.assertEquals("click_7d", actionPlan.get("click_7d").getName());
+    Assert.assertEquals("action_type", actionPlan.get("action_type").getName());
+  }
+}
@@ -31,4 +31,23 @@ public class ObjectTypeTest {
   public void fromStringInvalidValue() {
     Assert.assertEquals(ObjectType.Campaign, ObjectType.fromString("invalid"));
   }
+
+  @Test
+  public void contains() {
+    Assert.assertTrue(ObjectType.Account.contains(ObjectType.Campaign));
+    Assert.assertTrue(ObjectType.Campaign.contains(ObjectType.AdSet));
+    Assert.assertTrue(ObjectType.AdSet.contains(ObjectType.Ad));
+    Assert.assertFalse(ObjectType.AdSet.contains(ObjectType.Campaign));
+    Assert.assertFalse(ObjectType.Campaign.contains(ObjectType.Campaign));
+  }
+
+  @Test
+  public void fromLevel() {
+    Assert.assertEquals(ObjectType.AdSet, ObjectType.fromLevel("adset"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fromLevelInvalidValue() {
+    ObjectType.fromLevel("default");
+  }
 }
@@ -17,6 +17,7 @@
 package io.cdap.plugin.facebook.source.common;
 
 import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.facebook.source.common.config.SchemaMode;
 import io.cdap.plugin.facebook.source.common.config.SourceConfigHelper;
 import io.cdap.plugin.facebook.source.common.exceptions.IllegalInsightsFieldException;
 import org.junit.Assert;
@@ -33,8 +34,8 @@ public class SchemaHelperTest {
       Schema.Field.of("ad_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
       Schema.Field.of("age", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
       Schema.Field.of("gender", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
-      Schema.Field.of("actions_results", Schema.nullableOf(SchemaHelper.createAddActionStatsSchema())),
-      Schema.Field.of("actions", Schema.nullableOf(Schema.arrayOf(SchemaHelper.createAddActionStatsSchema()))));
+      Schema.Field.of("actions_results", Schema.nullableOf(SchemaHelper.getActionStatsSchema())),
+      Schema.Field.of("actions", Schema.nullableOf(Schema.arrayOf(SchemaHelper.getActionStatsSchema()))));
 
     Schema resultingSchema = SchemaHelper.buildSchema(
       Arrays.asList("ad_id", "actions_results", "actions"), // age and gender will be added from breakdown
@@ -44,6 +45,40 @@ public class SchemaHelperTest {
     Assert.assertTrue(expectedSchema.isCompatible(resultingSchema));
   }
 
+  @Test
+  public void buildTypedSchema() {
+    Schema schema = SchemaHelper.buildSchema(
+      Arrays.asList("ad_id", "impressions", "spend", "date_start", "actions"), null, SchemaMode.Typed);
+
+    Assert.assertEquals(Schema.nullableOf(Schema.of(Schema.Type.STRING)), schema.getField("ad_id").getSchema());
+    Assert.assertEquals(Schema.nullableOf(Schema.of(Schema.Type.LONG)), schema.getField("impressions").getSchema());
+    Assert.assertEquals(Schema.nullableOf(Schema.of(Schema.Type.DOUBLE)), schema.getField("spend").getSchema());
+    Assert.assertEquals(Schema.nullableOf(Schema.of(Schema.LogicalType.DATE)),
+                        schema.getField("date_start").getSchema());
+    Assert.assertEquals(Schema.Type.ARRAY, schema.getField("actions").getSchema().getNonNullable().getType());
+  }
+
+  @Test
+  public void buildSchemaSharesActionStatsSchema() {
+    Schema schema = SchemaHelper.buildSchema(Arrays.asList("actions", "actions_results", "conversions"), null);
+
+    Schema actionStats = SchemaHelper.getActionStatsSchema();
+    Assert.assertEquals("ActionStats", actionStats.getRecordName());
+    Assert.assertSame(actionStats, schema.getField("actions").getSchema().getNonNullable().getComponentSchema());
+    Assert.assertSame(actionStats, schema.getField("conversions").getSchema().getNonNullable().getComponentSchema());
+    Assert.assertSame(actionStats, schema.getField("actions_results").getSchema().getNonNullable());
+  }
+
+  @Test
+  public void buildSchemaCached() {
+    Schema schema = SchemaHelper.buildSchema(Arrays.asList("ad_id", "actions"),
+                                             SourceConfigHelper.parseBreakdowns("age, gender *"));
+
+    Assert.assertSame(schema, SchemaHelper.buildSchema(Arrays.asList("ad_id", "actions"),
+                                                       SourceConfigHelper.parseBreakdowns("age, gender *")));
+    Assert.assertNotSame(schema, SchemaHelper.buildSchema(Arrays.asList("ad_id", "actions"), null));
+  }
+
   @Test(expected = IllegalInsightsFieldException.class)
   public void buildSchemaInvalidField() {
     SchemaHelper.buildSchema(Arrays.asList("ad_id", "actions_results", "actions", "invalid"), null);
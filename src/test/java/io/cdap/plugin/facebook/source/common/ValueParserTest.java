@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+public class ValueParserTest {
+
+  @Test
+  public void testParseLong() {
+    Assert.assertEquals(0L, ValueParser.parseLong("0"));
+    Assert.assertEquals(9876543210L, ValueParser.parseLong("9876543210"));
+  }
+
+  @Test
+  public void testParseDouble() {
+    String[] values = {"0", "-0", "12.34", "0.000123", "1234567.891", "+5", "3.", ".5", "0.1", "999999999999999",
+      "0.30000000000000004", "123456789012345678", "1e-7", "1.5E3", "0.0000000000000000000000001"};
+    for (String value : values) {
+      Assert.assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+                          Double.doubleToLongBits(ValueParser.parseDouble(value)));
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testParseDoubleInvalidValue() {
+    ValueParser.parseDouble("12,34");
+  }
+
+  @Test
+  public void testParseEpochDay() {
+    Assert.assertEquals(LocalDate.of(2020, 2, 29).toEpochDay(), ValueParser.parseEpochDay("2020-02-29"));
+    Assert.assertEquals(0, ValueParser.parseEpochDay("1970-01-01"));
+  }
+
+  @Test(expected = DateTimeException.class)
+  public void testParseEpochDayInvalidValue() {
+    ValueParser.parseEpochDay("2019-02-29");
+  }
+}
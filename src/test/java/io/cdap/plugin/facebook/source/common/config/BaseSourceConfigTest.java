@@ -23,6 +23,8 @@ import io.cdap.plugin.facebook.source.batch.FacebookBatchSourceConfig;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Collections;
+
 public class BaseSourceConfigTest extends BaseFacebookValidationTest {
   @Test
   public void testValidateObjectIdEmptyId() {
@@ -117,6 +119,18 @@ public class BaseSourceConfigTest extends BaseFacebookValidationTest {
     Assert.assertTrue(config.getBreakdown().getBreakdowns().contains(AdsInsights.EnumBreakdowns.VALUE_GENDER));
   }
 
+  @Test
+  public void testAdditionalBreakdown() {
+    BaseSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setBreakdown("age, gender *").setAdditionalBreakdown("action_type").build();
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    config.validateBreakdowns(failureCollector);
+
+    Assert.assertTrue(failureCollector.getValidationFailures().isEmpty());
+    Assert.assertEquals(Collections.singletonList(AdsInsights.EnumActionBreakdowns.VALUE_ACTION_TYPE),
+                        config.getBreakdown().getActionBreakdowns());
+  }
+
   @Test
   public void testValidateBreakdownInvalid() {
     BaseSourceConfig config = FacebookBatchSourceConfig.builder()
@@ -126,4 +140,109 @@ public class BaseSourceConfigTest extends BaseFacebookValidationTest {
 
     assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_BREAKDOWN);
   }
+
+  @Test
+  public void testValidateExecutionMode() {
+    BaseSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setExecutionMode("async").build();
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    config.validateExecutionMode(failureCollector);
+
+    Assert.assertTrue(failureCollector.getValidationFailures().isEmpty());
+    Assert.assertEquals(ExecutionMode.Async, config.getExecutionMode());
+  }
+
+  @Test
+  public void testValidateExecutionModeInvalidValue() {
+    BaseSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setExecutionMode("later").build();
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    config.validateExecutionMode(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_EXECUTION_MODE);
+  }
+
+  @Test
+  public void testValidateSchemaMode() {
+    BaseSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setSchemaMode("typed").build();
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    config.validateSchemaMode(failureCollector);
+
+    Assert.assertTrue(failureCollector.getValidationFailures().isEmpty());
+    Assert.assertEquals(SchemaMode.Typed, config.getSchemaMode());
+  }
+
+  @Test
+  public void testValidateSchemaModeInvalidValue() {
+    BaseSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setSchemaMode("numbers").build();
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    config.validateSchemaMode(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_SCHEMA_MODE);
+  }
+
+  @Test
+  public void testValidateApiEndpoint() {
+    BaseSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setApiEndpoint("http://localhost:8080/").build();
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    config.validateApiEndpoint(failureCollector);
+
+    Assert.assertTrue(failureCollector.getValidationFailures().isEmpty());
+    Assert.assertEquals("http://localhost:8080", config.getApiEndpoint());
+  }
+
+  @Test
+  public void testValidateApiEndpointInvalidValue() {
+    BaseSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setApiEndpoint("ftp://localhost").build();
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    config.validateApiEndpoint(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_API_ENDPOINT);
+  }
+
+  @Test
+  public void testValidateHttpTransportInvalidMode() {
+    BaseSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setHttpTransport("netty").build();
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    config.validateHttpTransport(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_HTTP_TRANSPORT);
+  }
+
+  @Test
+  public void testValidateHttpTransportInvalidTimeout() {
+    BaseSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setHttpTransport("pooled")
+      .setReadTimeoutSeconds(0).build();
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    config.validateHttpTransport(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_READ_TIMEOUT_SECONDS);
+  }
+
+  @Test
+  public void testValidateRequestLoggingInvalidLevel() {
+    BaseSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setRequestLogLevel("verbose").build();
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    config.validateRequestLogging(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_REQUEST_LOG_LEVEL);
+  }
+
+  @Test
+  public void testValidateRequestLoggingInvalidSampleRate() {
+    BaseSourceConfig config = FacebookBatchSourceConfig.builder()
+      .setRequestLogLevel("requests")
+      .setRequestLogSampleRate(1.5).build();
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    config.validateRequestLogging(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookBatchSourceConfig.PROPERTY_REQUEST_LOG_SAMPLE_RATE);
+  }
 }
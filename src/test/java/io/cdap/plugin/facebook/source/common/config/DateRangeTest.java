@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.config;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class DateRangeTest {
+
+  @Test
+  public void testSlice() {
+    DateRange range = new DateRange(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 10));
+    List<DateRange> slices = range.slice(4);
+
+    Assert.assertEquals(3, slices.size());
+    Assert.assertEquals(new DateRange(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 4)), slices.get(0));
+    Assert.assertEquals(new DateRange(LocalDate.of(2020, 1, 5), LocalDate.of(2020, 1, 8)), slices.get(1));
+    Assert.assertEquals(new DateRange(LocalDate.of(2020, 1, 9), LocalDate.of(2020, 1, 10)), slices.get(2));
+  }
+
+  @Test
+  public void testSliceByDay() {
+    DateRange range = new DateRange(LocalDate.of(2020, 2, 27), LocalDate.of(2020, 3, 1));
+
+    Assert.assertEquals(4, range.getDays());
+    Assert.assertEquals(4, range.slice(1).size());
+  }
+
+  @Test
+  public void testToTimeRangeParam() {
+    DateRange range = new DateRange(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 7));
+    Assert.assertEquals("{\"since\":\"2020-01-01\",\"until\":\"2020-01-07\"}", range.toTimeRangeParam());
+  }
+
+  @Test
+  public void testParse() {
+    DateRange range = new DateRange(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 7));
+    Assert.assertEquals(range, DateRange.parse(range.toString()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRange() {
+    new DateRange(LocalDate.of(2020, 1, 2), LocalDate.of(2020, 1, 1));
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.config;
+
+import com.facebook.ads.sdk.AdsInsights;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class QueryPlanTest {
+
+  @Test
+  public void testSerialize() {
+    QueryPlan plan = QueryPlan.builder()
+      .setFields(Arrays.asList("impressions", "age", "date_start"))
+      .setBreakdowns(new Breakdowns(Collections.singletonList(AdsInsights.EnumBreakdowns.VALUE_AGE),
+                                    Collections.singletonList(AdsInsights.EnumActionBreakdowns.VALUE_ACTION_TYPE),
+                                    true))
+      .setFiltering("[{\"field\":\"spend\",\"operator\":\"GREATER_THAN\",\"value\":\"0\"}]")
+      .setLevel("ad")
+      .setDatePreset("last_30d")
+      .setSorting("impressions_descending")
+      .setTimeIncrement(1)
+      .setSchemaMode(SchemaMode.Typed)
+      .build();
+
+    QueryPlan copy = QueryPlan.deserialize(plan.serialize());
+
+    Assert.assertEquals(plan.getFields(), copy.getFields());
+    Assert.assertEquals(plan.getRequestFields(), copy.getRequestFields());
+    Assert.assertEquals(plan.getBreakdowns().getBreakdowns(), copy.getBreakdowns().getBreakdowns());
+    Assert.assertEquals(plan.getBreakdowns().getActionBreakdowns(), copy.getBreakdowns().getActionBreakdowns());
+    Assert.assertTrue(copy.getBreakdowns().isJoinableWithAction());
+    Assert.assertEquals(plan.getFiltering(), copy.getFiltering());
+    Assert.assertEquals("ad", copy.getLevel());
+    Assert.assertEquals("last_30d", copy.getDatePreset());
+    Assert.assertEquals("impressions_descending", copy.getSorting());
+    Assert.assertEquals(Integer.valueOf(1), copy.getTimeIncrement());
+    Assert.assertEquals(SchemaMode.Typed, copy.getSchemaMode());
+  }
+
+  @Test
+  public void testSerializeOptionalEmpty() {
+    QueryPlan plan = QueryPlan.builder()
+      .setFields(Collections.singletonList("impressions"))
+      .setDatePreset("today")
+      .setSchemaMode(SchemaMode.Strings)
+      .build();
+
+    QueryPlan copy = QueryPlan.deserialize(plan.serialize());
+
+    Assert.assertNull(copy.getBreakdowns());
+    Assert.assertNull(copy.getFiltering());
+    Assert.assertNull(copy.getLevel());
+    Assert.assertNull(copy.getSorting());
+    Assert.assertNull(copy.getTimeIncrement());
+    Assert.assertEquals(SchemaMode.Strings, copy.getSchemaMode());
+  }
+
+  @Test
+  public void testRequestFields() {
+    QueryPlan plan = QueryPlan.builder()
+      .setFields(Arrays.asList("impressions", "age"))
+      .setLevel("default")
+      .setDatePreset("today")
+      .setSchemaMode(SchemaMode.Strings)
+      .build();
+
+    Assert.assertEquals(Collections.singletonList("impressions"), plan.getRequestFields());
+    Assert.assertNull(plan.getLevel());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testBreakdownsUnmodifiable() {
+    QueryPlan plan = QueryPlan.builder()
+      .setFields(Collections.singletonList("impressions"))
+      .setBreakdowns(new Breakdowns(Arrays.asList(AdsInsights.EnumBreakdowns.VALUE_AGE), Collections.emptyList(), true))
+      .setDatePreset("today")
+      .setSchemaMode(SchemaMode.Strings)
+      .build();
+
+    plan.getBreakdowns().getBreakdowns().add(AdsInsights.EnumBreakdowns.VALUE_GENDER);
+  }
+}
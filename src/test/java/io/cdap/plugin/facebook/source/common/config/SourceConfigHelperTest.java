@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.config;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+public class SourceConfigHelperTest {
+  // Wednesday
+  private static final LocalDate TODAY = LocalDate.of(2020, 5, 13);
+
+  @Test
+  public void testResolveLastDays() {
+    Assert.assertEquals(new DateRange(LocalDate.of(2020, 5, 6), LocalDate.of(2020, 5, 12)),
+                        SourceConfigHelper.resolveDatePreset("last_7d", TODAY));
+    Assert.assertEquals(90, SourceConfigHelper.resolveDatePreset("last_90d", TODAY).getDays());
+  }
+
+  @Test
+  public void testResolveWeeks() {
+    Assert.assertEquals(new DateRange(LocalDate.of(2020, 5, 11), TODAY),
+                        SourceConfigHelper.resolveDatePreset("this_week_mon_today", TODAY));
+    Assert.assertEquals(new DateRange(LocalDate.of(2020, 5, 3), LocalDate.of(2020, 5, 9)),
+                        SourceConfigHelper.resolveDatePreset("last_week_sun_sat", TODAY));
+  }
+
+  @Test
+  public void testResolveMonthsAndQuarters() {
+    Assert.assertEquals(new DateRange(LocalDate.of(2020, 4, 1), LocalDate.of(2020, 4, 30)),
+                        SourceConfigHelper.resolveDatePreset("last_month", TODAY));
+    Assert.assertEquals(new DateRange(LocalDate.of(2020, 4, 1), TODAY),
+                        SourceConfigHelper.resolveDatePreset("this_quarter", TODAY));
+  }
+
+  @Test
+  public void testResolveLifetime() {
+    Assert.assertNull(SourceConfigHelper.resolveDatePreset("lifetime", TODAY));
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.metrics;
+
+import io.cdap.cdap.etl.api.StageContext;
+import io.cdap.cdap.etl.api.StageMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.TimeUnit;
+
+public class InsightsMetricsTest {
+
+  @Test
+  public void testFlushPublishesDeltas() {
+    InsightsMetrics insightsMetrics = new InsightsMetrics();
+    StageMetrics stageMetrics = Mockito.mock(StageMetrics.class);
+
+    insightsMetrics.recordApiCall(100, 2000);
+    insightsMetrics.recordApiCall(300, 1000);
+    insightsMetrics.recordPage(25, TimeUnit.MILLISECONDS.toNanos(40));
+    insightsMetrics.flush(stageMetrics);
+
+    Mockito.verify(stageMetrics).count(InsightsMetrics.API_CALLS, 2);
+    Mockito.verify(stageMetrics).count(InsightsMetrics.API_BYTES, 3000);
+    Mockito.verify(stageMetrics).count(InsightsMetrics.API_LATENCY_MS, 400);
+    Mockito.verify(stageMetrics).count(InsightsMetrics.PAGES, 1);
+    Mockito.verify(stageMetrics).count(InsightsMetrics.PAGE_ROWS, 25);
+    Mockito.verify(stageMetrics).count(InsightsMetrics.PAGE_WAIT_MS, 40);
+    Mockito.verify(stageMetrics).gauge(InsightsMetrics.API_LATENCY_P99_MS, 512);
+
+    insightsMetrics.recordApiCall(10, 500);
+    insightsMetrics.flush(stageMetrics);
+
+    // only values recorded after previous flush are published
+    Mockito.verify(stageMetrics).count(InsightsMetrics.API_CALLS, 1);
+    Mockito.verify(stageMetrics).count(InsightsMetrics.API_BYTES, 500);
+    Mockito.verify(stageMetrics).gauge(InsightsMetrics.API_LATENCY_P99_MS, 16);
+    Mockito.verify(stageMetrics, Mockito.never()).count(InsightsMetrics.RETRIES, 0);
+  }
+
+  @Test
+  public void testRunsDoNotShareMetrics() {
+    String runKey = InsightsMetrics.getRunKey(mockContext("pipeline", 1000L));
+
+    Assert.assertSame(InsightsMetrics.forRun(runKey), InsightsMetrics.forRun(runKey));
+    Assert.assertNotSame(InsightsMetrics.forRun(runKey),
+                         InsightsMetrics.forRun(InsightsMetrics.getRunKey(mockContext("pipeline", 2000L))));
+    Assert.assertNotSame(InsightsMetrics.forRun(runKey),
+                         InsightsMetrics.forRun(InsightsMetrics.getRunKey(mockContext("other", 1000L))));
+  }
+
+  private static StageContext mockContext(String pipelineName, long logicalStartTime) {
+    StageContext context = Mockito.mock(StageContext.class);
+    Mockito.when(context.getNamespace()).thenReturn("default");
+    Mockito.when(context.getPipelineName()).thenReturn(pipelineName);
+    Mockito.when(context.getStageName()).thenReturn("Facebook");
+    Mockito.when(context.getLogicalStartTime()).thenReturn(logicalStartTime);
+    return context;
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testBucketOf() {
+    Assert.assertEquals(0, LatencyHistogram.bucketOf(0));
+    Assert.assertEquals(0, LatencyHistogram.bucketOf(1));
+    Assert.assertEquals(1, LatencyHistogram.bucketOf(2));
+    Assert.assertEquals(2, LatencyHistogram.bucketOf(3));
+    Assert.assertEquals(2, LatencyHistogram.bucketOf(4));
+    Assert.assertEquals(10, LatencyHistogram.bucketOf(1000));
+    Assert.assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testPercentile() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 98; i++) {
+      histogram.record(100);
+    }
+    histogram.record(900);
+    histogram.record(5000);
+
+    long[] counts = histogram.snapshot();
+    Assert.assertEquals(128, LatencyHistogram.percentile(counts, 50));
+    Assert.assertEquals(128, LatencyHistogram.percentile(counts, 95));
+    Assert.assertEquals(1024, LatencyHistogram.percentile(counts, 99));
+    Assert.assertEquals(8192, LatencyHistogram.percentile(counts, 100));
+  }
+
+  @Test
+  public void testPercentileOfEmpty() {
+    Assert.assertEquals(0, LatencyHistogram.percentile(new LatencyHistogram().snapshot(), 99));
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import com.facebook.ads.sdk.APIException;
+import com.facebook.ads.sdk.APINodeList;
+import com.facebook.ads.sdk.APIRequest;
+import com.facebook.ads.sdk.AdReportRun;
+import com.facebook.ads.sdk.AdsInsights;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class AsyncInsightsRequestWrapperTest {
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testExecuteWaitsForCompletion() throws APIException {
+    AdReportRun started = mockRun("Job Not Started");
+    AdReportRun running = mockRun("Job Running");
+    AdReportRun completed = mockRun(AsyncInsightsRequestWrapper.STATUS_COMPLETED);
+    Mockito.when(started.fetch()).thenReturn(running);
+    Mockito.when(running.fetch()).thenReturn(completed);
+
+    APINodeList<AdsInsights> results = Mockito.mock(APINodeList.class);
+    AdReportRun.APIRequestGetInsights resultsRequest = Mockito.mock(AdReportRun.APIRequestGetInsights.class);
+    Mockito.when(resultsRequest.execute()).thenReturn(results);
+    Mockito.when(completed.getInsights()).thenReturn(resultsRequest);
+
+    APIRequest<AdReportRun> request = Mockito.mock(APIRequest.class);
+    Mockito.when(request.execute()).thenReturn(started);
+
+    AsyncInsightsRequestWrapper wrapper = new AsyncInsightsRequestWrapper(request, 1, 1, 10000);
+    wrapper.requestField("impressions");
+
+    Assert.assertSame(results, wrapper.execute());
+    Mockito.verify(request).requestField("impressions");
+    Mockito.verify(resultsRequest).requestField("impressions");
+  }
+
+  @Test(expected = APIException.class)
+  @SuppressWarnings("unchecked")
+  public void testExecuteFailedJob() throws APIException {
+    AdReportRun failed = mockRun(AsyncInsightsRequestWrapper.STATUS_FAILED);
+    APIRequest<AdReportRun> request = Mockito.mock(APIRequest.class);
+    Mockito.when(request.execute()).thenReturn(failed);
+
+    new AsyncInsightsRequestWrapper(request, 1, 1, 10000).execute();
+  }
+
+  private static AdReportRun mockRun(String status) {
+    AdReportRun run = Mockito.mock(AdReportRun.class);
+    Mockito.when(run.getId()).thenReturn("run");
+    Mockito.when(run.getFieldAsyncStatus()).thenReturn(status);
+    Mockito.when(run.getFieldAsyncPercentCompletion()).thenReturn(50L);
+    return run;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import com.google.common.io.ByteStreams;
+import io.cdap.plugin.facebook.source.FakeGraphApiServer;
+import io.cdap.plugin.facebook.source.common.config.HttpTransportMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class HttpTransportsTest {
+
+  @Test
+  public void testPooledTransportReusesConnection() throws IOException {
+    try (FakeGraphApiServer server = FakeGraphApiServer.builder().setRows(10).build()) {
+      HttpTransport transport = HttpTransports.get(HttpTransportMode.Pooled, 60, 600);
+      HttpTransport otherTimeouts = HttpTransports.get(HttpTransportMode.Pooled, 30, 300);
+
+      for (int i = 0; i < 3; i++) {
+        assertPage(transport, server);
+        assertPage(otherTimeouts, server);
+      }
+
+      Assert.assertSame(transport, HttpTransports.get(HttpTransportMode.Pooled, 60, 600));
+      Assert.assertEquals(6, server.getCompressedResponseCount());
+      Assert.assertEquals(1, server.getConnectionCount());
+    }
+  }
+
+  @Test
+  public void testJdkTransportReusesConnection() throws IOException {
+    try (FakeGraphApiServer server = FakeGraphApiServer.builder().setRows(10).build()) {
+      HttpTransport transport = HttpTransports.get(HttpTransportMode.Jdk, 60, 600);
+
+      for (int i = 0; i < 3; i++) {
+        assertPage(transport, server);
+      }
+
+      Assert.assertEquals(3, server.getCompressedResponseCount());
+      Assert.assertEquals(1, server.getConnectionCount());
+    }
+  }
+
+  @Test
+  public void testErrorBodyIsDecompressed() throws IOException {
+    try (FakeGraphApiServer server = FakeGraphApiServer.builder().build()) {
+      for (HttpTransportMode mode : HttpTransportMode.values()) {
+        HttpTransport transport = HttpTransports.get(mode, 60, 600);
+        try (HttpTransport.Response response = transport.send("GET", server.getEndpoint() + "/v7.0/1/insights",
+                                                               null)) {
+          Assert.assertEquals(400, response.getCode());
+          Assert.assertTrue(read(response.getBody()).contains("\"code\":190"));
+        }
+      }
+    }
+  }
+
+  private static void assertPage(HttpTransport transport, FakeGraphApiServer server) throws IOException {
+    String url = server.getEndpoint() + "/v7.0/1/insights?access_token=token";
+    try (HttpTransport.Response response = transport.send("GET", url, null)) {
+      Assert.assertEquals(200, response.getCode());
+      Assert.assertTrue(read(response.getBody()).startsWith("{\"data\":["));
+    }
+  }
+
+  private static String read(InputStream in) throws IOException {
+    return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RequestLoggerTest {
+
+  @Test
+  public void testRedactUrl() {
+    Assert.assertEquals(
+      "https://graph.facebook.com/v7.0/123/insights?access_token=REDACTED&appsecret_proof=REDACTED&limit=25",
+      RequestLogger.redact("https://graph.facebook.com/v7.0/123/insights?access_token=EAABtoken&appsecret_proof=ab12"
+                             + "&limit=25"));
+  }
+
+  @Test
+  public void testRedactEncodedAndJson() {
+    Assert.assertEquals("batch=%7B%22relative_url%22%3A%22123%2Finsights%3Faccess_token%3DREDACTED%26limit%3D25",
+                        RequestLogger.redact("batch=%7B%22relative_url%22%3A%22123%2Finsights%3Faccess_token"
+                                               + "%3DEAABtoken%26limit%3D25"));
+    Assert.assertEquals("{\"access_token\": \"REDACTED\"}", RequestLogger.redact("{\"access_token\": \"EAABtoken\"}"));
+  }
+
+  @Test
+  public void testRedactWithoutSecrets() {
+    String url = "https://graph.facebook.com/v7.0/123/insights?limit=25";
+    Assert.assertEquals(url, RequestLogger.redact(url));
+  }
+}
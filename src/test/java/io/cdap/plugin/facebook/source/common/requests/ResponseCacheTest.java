@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ResponseCacheTest {
+  private static final String URL = "https://graph.facebook.com/v7.0/act_1/insights";
+  private static final Clock CLOCK = Clock.fixed(Instant.parse("2020-03-01T10:00:00Z"), ZoneOffset.UTC);
+  private static final Map<String, Object> OLD_RANGE = ImmutableMap.of(
+    "fields", "impressions",
+    "time_range", "{\"since\":\"2020-01-01\",\"until\":\"2020-01-31\"}",
+    "access_token", "token");
+  private static final Map<String, Object> RECENT_RANGE = ImmutableMap.of(
+    "fields", "impressions",
+    "time_range", "{\"since\":\"2020-02-01\",\"until\":\"2020-02-29\"}",
+    "access_token", "token");
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testGetKey() {
+    ResponseCache cache = createCache(CLOCK, 1024);
+
+    Map<String, Object> reordered = ImmutableMap.of(
+      "access_token", "other",
+      "time_range", "{\"since\":\"2020-01-01\",\"until\":\"2020-01-31\"}",
+      "fields", "impressions");
+    Assert.assertEquals(cache.getKey(URL, OLD_RANGE), cache.getKey(URL, reordered));
+    Assert.assertNotEquals(cache.getKey(URL, OLD_RANGE), cache.getKey(URL, RECENT_RANGE));
+    Assert.assertNull(cache.getKey(URL, ImmutableMap.of("date_preset", "last_30d")));
+  }
+
+  @Test
+  public void testGetPut() {
+    ResponseCache cache = createCache(CLOCK, 1024);
+    String key = cache.getKey(URL, OLD_RANGE);
+    Assert.assertNull(cache.get(key));
+
+    cache.put(key, OLD_RANGE, "{\"data\":[]}".getBytes(StandardCharsets.UTF_8));
+
+    Assert.assertEquals("{\"data\":[]}", new String(cache.get(key), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testPutStripsCredentials() {
+    ResponseCache cache = createCache(CLOCK, 1024);
+    String key = cache.getKey(URL, OLD_RANGE);
+
+    String link = "https:\\/\\/graph.facebook.com\\/v7.0\\/act_1\\/insights?";
+    String body = "{\"data\":[],\"paging\":{\"next\":\"" + link + "access_token=token&limit=25&after=MjQZD\","
+      + "\"previous\":\"" + link + "limit=25&access_token=token\"}}";
+
+    cache.put(key, OLD_RANGE, body.getBytes(StandardCharsets.UTF_8));
+
+    Assert.assertEquals("{\"data\":[],\"paging\":{\"next\":\"" + link + "limit=25&after=MjQZD\","
+                          + "\"previous\":\"" + link + "limit=25\"}}",
+                        new String(cache.get(key), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testStripCredentialsRemovesSeparators() {
+    Assert.assertEquals("\"url?limit=25\"", strip("\"url?access_token=token&appsecret_proof=proof&limit=25\""));
+    Assert.assertEquals("\"url?limit=25\"", strip("\"url?limit=25&access_token=token&appsecret_proof=proof\""));
+    Assert.assertEquals("\"url?limit=25&after=MjQZD\"",
+                        strip("\"url?limit=25&access_token=token&after=MjQZD\""));
+    Assert.assertEquals("\"url\"", strip("\"url?access_token=token\""));
+    Assert.assertEquals("\"url?limit=25\"", strip("\"url?limit=25\""));
+  }
+
+  @Test
+  public void testRecentRangeExpires() {
+    String key = createCache(CLOCK, 1024).getKey(URL, RECENT_RANGE);
+    createCache(CLOCK, 1024).put(key, RECENT_RANGE, new byte[]{'1'});
+    createCache(CLOCK, 1024).put(createCache(CLOCK, 1024).getKey(URL, OLD_RANGE), OLD_RANGE, new byte[]{'2'});
+
+    Clock later = Clock.offset(CLOCK, Duration.ofHours(2));
+    ResponseCache cache = createCache(later, 1024);
+    Assert.assertNull(cache.get(key));
+    Assert.assertArrayEquals(new byte[]{'2'}, cache.get(cache.getKey(URL, OLD_RANGE)));
+  }
+
+  @Test
+  public void testEvict() throws IOException {
+    ResponseCache writer = createCache(CLOCK, 1024);
+    String oldKey = writer.getKey(URL, OLD_RANGE);
+    String recentKey = writer.getKey(URL, RECENT_RANGE);
+    writer.put(oldKey, OLD_RANGE, new byte[1024]);
+    writer.put(recentKey, RECENT_RANGE, new byte[1024]);
+    new File(temporaryFolder.getRoot(), "cache/" + oldKey + ".json.gz").setLastModified(0);
+    long entrySize = new File(temporaryFolder.getRoot(), "cache/" + recentKey + ".json.gz").length();
+
+    // only one entry fits, the least recently used one is evicted
+    ResponseCache cache = createCache(CLOCK, entrySize);
+    cache.evict();
+
+    Assert.assertNull(cache.get(oldKey));
+    Assert.assertNotNull(cache.get(recentKey));
+  }
+
+  private ResponseCache createCache(Clock clock, long maxSizeBytes) {
+    return new ResponseCache(temporaryFolder.getRoot().getPath() + "/cache", new Configuration(),
+                             TimeUnit.HOURS.toMillis(1), maxSizeBytes, clock);
+  }
+
+  private static String strip(String body) {
+    return new String(ResponseCache.stripCredentials(body.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.requests;
+
+import com.facebook.ads.sdk.APIException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RetryerTest {
+  private static final String RATE_LIMIT_ERROR =
+    "{\"error\":{\"message\":\"User request limit reached\",\"type\":\"OAuthException\",\"code\":17}}";
+  private static final String INVALID_PARAMETER_ERROR =
+    "{\"error\":{\"message\":\"Invalid parameter\",\"type\":\"OAuthException\",\"code\":100}}";
+  private static final String REDUCE_DATA_ERROR =
+    "{\"error\":{\"message\":\"Please reduce the amount of data you're asking for, then retry your request\","
+      + "\"type\":\"OAuthException\",\"code\":1}}";
+
+  @Test
+  public void testRetriedUntilSuccess() throws APIException {
+    List<Long> delays = new ArrayList<>();
+    AtomicInteger attempts = new AtomicInteger();
+    Retryer retryer = new Retryer(5, 100, 1000, delays::add);
+
+    String result = retryer.call(() -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw new APIException.FailedRequestException(RATE_LIMIT_ERROR);
+      }
+      return "page";
+    });
+
+    Assert.assertEquals("page", result);
+    Assert.assertEquals(3, attempts.get());
+    Assert.assertEquals(2, delays.size());
+    Assert.assertTrue(delays.get(0) <= 100);
+    Assert.assertTrue(delays.get(1) <= 200);
+  }
+
+  @Test
+  public void testPermanentErrorNotRetried() {
+    AtomicInteger attempts = new AtomicInteger();
+    Retryer retryer = new Retryer(5, 100, 1000, millis -> { });
+
+    try {
+      retryer.call(() -> {
+        attempts.incrementAndGet();
+        throw new APIException.FailedRequestException(INVALID_PARAMETER_ERROR);
+      });
+      Assert.fail("Permanent error was retried");
+    } catch (APIException e) {
+      Assert.assertEquals(1, attempts.get());
+    }
+  }
+
+  @Test
+  public void testRetriesExhausted() {
+    AtomicInteger attempts = new AtomicInteger();
+    Retryer retryer = new Retryer(2, 100, 1000, millis -> { });
+
+    try {
+      retryer.call(() -> {
+        attempts.incrementAndGet();
+        throw new APIException.FailedRequestException(new IOException("Connection reset"));
+      });
+      Assert.fail("Error was not rethrown");
+    } catch (APIException e) {
+      Assert.assertEquals(3, attempts.get());
+    }
+  }
+
+  @Test
+  public void testIsTransient() {
+    Assert.assertTrue(Retryer.isTransient(new APIException.FailedRequestException(
+      "{\"error\":{\"message\":\"Rate limit\",\"code\":80000}}")));
+    Assert.assertTrue(Retryer.isTransient(new APIException.FailedRequestException(
+      "{\"error\":{\"message\":\"Please retry\",\"code\":100,\"is_transient\":true}}")));
+    Assert.assertFalse(Retryer.isTransient(new APIException.FailedRequestException(INVALID_PARAMETER_ERROR)));
+    Assert.assertFalse(Retryer.isTransient(new APIException.FailedRequestException("not json")));
+  }
+
+  @Test
+  public void testTooLargeNotRetried() {
+    AtomicInteger attempts = new AtomicInteger();
+    Retryer retryer = new Retryer(5, 100, 1000, millis -> { });
+
+    try {
+      retryer.call(() -> {
+        attempts.incrementAndGet();
+        throw new APIException.FailedRequestException(REDUCE_DATA_ERROR);
+      });
+      Assert.fail("Error was not rethrown");
+    } catch (APIException e) {
+      Assert.assertEquals(1, attempts.get());
+      Assert.assertTrue(Retryer.isTooLarge(e));
+    }
+  }
+
+  @Test
+  public void testReadTimeoutOfFirstRequestNotRetried() {
+    AtomicInteger attempts = new AtomicInteger();
+    Retryer retryer = new Retryer(5, 100, 1000, millis -> { });
+
+    try {
+      retryer.callFirst(() -> {
+        attempts.incrementAndGet();
+        throw new APIException.FailedRequestException(new SocketTimeoutException("Read timed out"));
+      });
+      Assert.fail("Error was not rethrown");
+    } catch (APIException e) {
+      Assert.assertEquals(1, attempts.get());
+      Assert.assertTrue(Retryer.isTooLarge(e));
+    }
+  }
+
+  @Test
+  public void testReadTimeoutOfNextPageRetried() throws APIException {
+    AtomicInteger attempts = new AtomicInteger();
+    Retryer retryer = new Retryer(5, 100, 1000, millis -> { });
+
+    String result = retryer.call(() -> {
+      if (attempts.incrementAndGet() < 2) {
+        throw new APIException.FailedRequestException(new SocketTimeoutException("timeout"));
+      }
+      return "page";
+    });
+
+    Assert.assertEquals("page", result);
+    Assert.assertEquals(2, attempts.get());
+  }
+
+  @Test
+  public void testConnectTimeoutRetried() throws APIException {
+    AtomicInteger attempts = new AtomicInteger();
+    Retryer retryer = new Retryer(5, 100, 1000, millis -> { });
+    APIException connectTimeout = new APIException.FailedRequestException(
+      new SocketTimeoutException("connect timed out"));
+
+    String result = retryer.callFirst(() -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw connectTimeout;
+      }
+      return "page";
+    });
+
+    Assert.assertEquals("page", result);
+    Assert.assertEquals(3, attempts.get());
+    Assert.assertFalse(Retryer.isTooLarge(connectTimeout));
+  }
+
+  @Test
+  public void testIsTooLarge() {
+    Assert.assertTrue(Retryer.isTooLarge(new APIException.FailedRequestException(
+      "{\"error\":{\"message\":\"Request timed out\",\"code\":100,\"error_subcode\":1504018}}")));
+    Assert.assertTrue(Retryer.isTooLarge(new APIException.FailedRequestException(
+      new SocketTimeoutException("Read timed out"))));
+    Assert.assertFalse(Retryer.isTooLarge(new APIException.FailedRequestException(RATE_LIMIT_ERROR)));
+    Assert.assertFalse(Retryer.isTooLarge(new APIException.FailedRequestException(
+      "{\"error\":{\"message\":\"An unknown error occurred\",\"code\":1}}")));
+    Assert.assertFalse(Retryer.isTooLarge(new APIException.FailedRequestException(
+      new IOException("Connection reset"))));
+  }
+}
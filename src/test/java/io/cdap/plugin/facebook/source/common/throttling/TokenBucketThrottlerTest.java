@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.throttling;
+
+import com.google.common.base.Ticker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TokenBucketThrottlerTest {
+
+  @Test
+  public void testBurstThenPaced() {
+    FakeTicker ticker = new FakeTicker();
+    TokenBucketThrottler throttler = new TokenBucketThrottler(2, 0.5, 2, ticker);
+
+    Assert.assertEquals(0, throttler.reserve());
+    Assert.assertEquals(0, throttler.reserve());
+    Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(500), throttler.reserve());
+
+    ticker.advance(TimeUnit.SECONDS.toNanos(10));
+    Assert.assertEquals(0, throttler.reserve());
+  }
+
+  @Test
+  public void testRateLoweredByUtilization() {
+    FakeTicker ticker = new FakeTicker();
+    TokenBucketThrottler throttler = new TokenBucketThrottler(2, 0.5, 2, ticker);
+
+    throttler.onUsage(new Usage(30, 0));
+    Assert.assertEquals(2, throttler.getRate(), 0.0001);
+    throttler.onUsage(new Usage(70, 0));
+    Assert.assertEquals(1.25, throttler.getRate(), 0.0001);
+    throttler.onUsage(new Usage(95, 0));
+    Assert.assertEquals(0.5, throttler.getRate(), 0.0001);
+  }
+
+  @Test
+  public void testBlockedUntilAccessRegained() {
+    FakeTicker ticker = new FakeTicker();
+    TokenBucketThrottler throttler = new TokenBucketThrottler(2, 0.5, 2, ticker);
+
+    throttler.onUsage(new Usage(100, 60));
+    Assert.assertEquals(TimeUnit.SECONDS.toNanos(60), throttler.reserve());
+
+    ticker.advance(TimeUnit.SECONDS.toNanos(60));
+    throttler.onUsage(new Usage(20, 0));
+    Assert.assertTrue(throttler.reserve() < TimeUnit.SECONDS.toNanos(1));
+  }
+
+  private static class FakeTicker extends Ticker {
+    private long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long nanos) {
+      this.nanos += nanos;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.common.throttling;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class UsageHeadersTest {
+
+  @Test
+  public void testBusinessUseCaseUsage() {
+    Map<String, List<String>> headers = ImmutableMap.of(
+      "x-business-use-case-usage", Collections.singletonList(
+        "{\"123\":[{\"type\":\"ads_insights\",\"call_count\":28,\"total_cputime\":64,\"total_time\":25,"
+          + "\"estimated_time_to_regain_access\":2}]}"));
+
+    Usage usage = UsageHeaders.parse(headers);
+
+    Assert.assertEquals(64, usage.getUtilizationPct(), 0.0001);
+    Assert.assertEquals(120, usage.getRegainAccessSeconds());
+  }
+
+  @Test
+  public void testHighestUtilizationTaken() {
+    Map<String, List<String>> headers = ImmutableMap.of(
+      UsageHeaders.AD_ACCOUNT_USAGE, Collections.singletonList("{\"acc_id_util_pct\":9.67,\"reset_time_duration\":0}"),
+      UsageHeaders.ADS_INSIGHTS_THROTTLE, Collections.singletonList("{\"app_id_util_pct\":0,\"acc_id_util_pct\":42}"));
+
+    Usage usage = UsageHeaders.parse(headers);
+
+    Assert.assertEquals(42, usage.getUtilizationPct(), 0.0001);
+    Assert.assertEquals(0, usage.getRegainAccessSeconds());
+  }
+
+  @Test
+  public void testNoUsageHeaders() {
+    Map<String, List<String>> headers = ImmutableMap.of(
+      "Content-Type", Collections.singletonList("application/json"),
+      UsageHeaders.AD_ACCOUNT_USAGE, Collections.singletonList("not json"));
+
+    Assert.assertSame(Usage.NONE, UsageHeaders.parse(headers));
+  }
+}
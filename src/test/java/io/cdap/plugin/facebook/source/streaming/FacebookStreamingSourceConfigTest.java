@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.streaming;
+
+import io.cdap.cdap.etl.mock.validation.MockFailureCollector;
+import io.cdap.plugin.facebook.source.BaseFacebookValidationTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FacebookStreamingSourceConfigTest extends BaseFacebookValidationTest {
+
+  @Test
+  public void testPollIntervalDefault() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookStreamingSourceConfig config = FacebookStreamingSourceConfig.builder().build();
+    config.validatePollInterval(failureCollector);
+
+    Assert.assertTrue(failureCollector.getValidationFailures().isEmpty());
+    Assert.assertEquals(FacebookStreamingSourceConfig.DEFAULT_POLL_INTERVAL, config.getPollInterval());
+  }
+
+  @Test
+  public void testPollIntervalTooShort() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookStreamingSourceConfig config = FacebookStreamingSourceConfig.builder().setPollInterval(10).build();
+    config.validatePollInterval(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookStreamingSourceConfig.PROPERTY_POLL_INTERVAL);
+  }
+
+  @Test
+  public void testKeyFields() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookStreamingSourceConfig config = FacebookStreamingSourceConfig.builder()
+      .setObjectType("Campaign")
+      .setLevel("ad")
+      .setFields("ad_id,date_start,impressions")
+      .build();
+    config.validateKeyFields(failureCollector);
+
+    Assert.assertTrue(failureCollector.getValidationFailures().isEmpty());
+  }
+
+  @Test
+  public void testKeyFieldsDefaultLevel() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookStreamingSourceConfig config = FacebookStreamingSourceConfig.builder()
+      .setObjectType("Campaign")
+      .setLevel("default")
+      .setFields("date_start,impressions")
+      .build();
+    config.validateKeyFields(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookStreamingSourceConfig.PROPERTY_FIELDS);
+  }
+
+  @Test
+  public void testKeyFieldsWithoutDate() {
+    MockFailureCollector failureCollector = new MockFailureCollector();
+    FacebookStreamingSourceConfig config = FacebookStreamingSourceConfig.builder()
+      .setObjectType("Account")
+      .setLevel("adset")
+      .setFields("adset_id,impressions")
+      .build();
+    config.validateKeyFields(failureCollector);
+
+    assertSingleFieldValidationFailed(failureCollector, FacebookStreamingSourceConfig.PROPERTY_FIELDS);
+  }
+}
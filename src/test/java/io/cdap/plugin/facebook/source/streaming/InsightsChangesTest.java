@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2020 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.facebook.source.streaming;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class InsightsChangesTest {
+  private static final Schema ACTION_SCHEMA = Schema.recordOf(
+    "action",
+    Schema.Field.of("action_type", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("value", Schema.of(Schema.Type.STRING)));
+  private static final Schema SCHEMA = Schema.recordOf(
+    "insights",
+    Schema.Field.of("date_start", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("campaign_id", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("hourly_stats_aggregated_by_advertiser_time_zone", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("impressions", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("actions", Schema.nullableOf(Schema.arrayOf(ACTION_SCHEMA))));
+
+  @Test
+  public void testKey() {
+    String key = InsightsChanges.getKey(createRow("10:00:00 - 10:59:59", "100", "1"));
+
+    Assert.assertEquals(key, InsightsChanges.getKey(createRow("10:00:00 - 10:59:59", "200", "2")));
+    Assert.assertNotEquals(key, InsightsChanges.getKey(createRow("11:00:00 - 11:59:59", "100", "1")));
+  }
+
+  @Test
+  public void testFingerprint() {
+    long fingerprint = InsightsChanges.getFingerprint(createRow("10:00:00 - 10:59:59", "100", "1"));
+
+    Assert.assertEquals(fingerprint, InsightsChanges.getFingerprint(createRow("11:00:00 - 11:59:59", "100", "1")));
+    Assert.assertNotEquals(fingerprint, InsightsChanges.getFingerprint(createRow("10:00:00 - 10:59:59", "101", "1")));
+    Assert.assertNotEquals(fingerprint, InsightsChanges.getFingerprint(createRow("10:00:00 - 10:59:59", "100", "2")));
+    Assert.assertNotEquals(fingerprint, InsightsChanges.getFingerprint(createRow("10:00:00 - 10:59:59", null, "1")));
+  }
+
+  private static StructuredRecord createRow(String hour, String impressions, String clicks) {
+    StructuredRecord action = StructuredRecord.builder(ACTION_SCHEMA)
+      .set("action_type", "link_click")
+      .set("value", clicks)
+      .build();
+    return StructuredRecord.builder(SCHEMA)
+      .set("date_start", "2020-05-01")
+      .set("campaign_id", "23845")
+      .set("hourly_stats_aggregated_by_advertiser_time_zone", hour)
+      .set("impressions", impressions)
+      .set("actions", Collections.singletonList(action))
+      .build();
+  }
+}